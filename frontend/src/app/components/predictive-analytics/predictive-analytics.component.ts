@@ -165,7 +165,7 @@ export class PredictiveAnalyticsComponent implements OnInit, OnDestroy {
     return value.toFixed(decimals);
   }
 
-  formatTime(timestamp: string): string {
+  formatTime(timestamp: string | number): string {
     return new Date(timestamp).toLocaleTimeString('en-US', { 
       hour: '2-digit', 
       minute: '2-digit' 
@@ -4,7 +4,7 @@ import { FormsModule } from '@angular/forms';
 import { Subject, takeUntil, interval, startWith } from 'rxjs';
 import { AnalyticsService } from '../../services/analytics.service';
 import { WebSocketService } from '../../services/websocket.service';
-import { CorrelationAnalysis, EnergyCorrelation } from '../../models/weather-correlation.model';
+import { CorrelationAnalysis, CorrelationCoefficients, EnergyCorrelation } from '../../models/weather-correlation.model';
 
 @Component({
   selector: 'app-weather-correlation',
@@ -156,12 +156,8 @@ export class WeatherCorrelationComponent implements OnInit, OnDestroy {
     return this.correlationData?.correlations[this.correlationData.correlations.length - 1] || null;
   }
 
-  getAverageCorrelation(type: keyof EnergyCorrelation['correlationCoefficients']): number {
-    if (!this.correlationData) return 0;
-    
-    const sum = this.correlationData.correlations.reduce((acc, corr) => 
-      acc + corr.correlationCoefficients[type], 0);
-    return sum / this.correlationData.correlations.length;
+  getAverageCorrelation(type: keyof CorrelationCoefficients): number {
+    return this.correlationData?.correlationCoefficients?.[type] ?? 0;
   }
 
   formatNumber(value: number, decimals: number = 1): string {
@@ -1,5 +1,5 @@
 export interface EnergyForecast {
-  timestamp: string;
+  timestamp: number; // epoch millis
   solarGeneration: number;
   windGeneration: number;
   totalGeneration: number;
@@ -9,7 +9,7 @@ export interface EnergyForecast {
 }
 
 export interface WeatherForecast {
-  timestamp: string;
+  timestamp: number; // epoch millis
   temperature: number;
   windSpeed: number;
   solarIrradiance: number;
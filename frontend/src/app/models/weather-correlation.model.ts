@@ -4,7 +4,7 @@ export interface WeatherData {
   windSpeed: number;
   solarIrradiance: number;
   cloudCover: number;
-  timestamp: string;
+  timestamp: string | number; // epoch millis once the region has stored samples
 }
 
 export interface EnergyCorrelation {
@@ -12,18 +12,21 @@ export interface EnergyCorrelation {
   solarGeneration: number;
   windGeneration: number;
   totalConsumption: number;
-  correlationCoefficients: {
-    temperatureVsConsumption: number;
-    windSpeedVsWindGeneration: number;
-    solarIrradianceVsSolarGeneration: number;
-    cloudCoverVsSolarGeneration: number;
-  };
+}
+
+export interface CorrelationCoefficients {
+  temperatureVsConsumption: number;
+  windSpeedVsWindGeneration: number;
+  solarIrradianceVsSolarGeneration: number;
+  cloudCoverVsSolarGeneration: number;
 }
 
 export interface CorrelationAnalysis {
   region: string;
   timeRange: string;
   correlations: EnergyCorrelation[];
+  // Over the whole time range, so sent once rather than with every point
+  correlationCoefficients: CorrelationCoefficients;
   summary: {
     strongestCorrelation: string;
     weakestCorrelation: string;
@@ -56,6 +56,31 @@ export class AnalyticsService {
     );
   }
 
+  /**
+   * Get energy dashboards for several regions in one request
+   * @param regions - Region identifiers, or 'all' for every known region
+   * @returns Observable<Record<string, EnergyDashboard>> keyed by region
+   */
+  getEnergyDashboards(regions: string[] | 'all' = 'all'): Observable<Record<string, EnergyDashboard>> {
+    const param = regions === 'all' ? 'all' : regions.map(r => encodeURIComponent(r)).join(',');
+    if (param.length === 0) {
+      return throwError(() => new Error('At least one region is required'));
+    }
+
+    return this.http.get<any>(
+      `${this.baseUrl}/energy?regions=${param}`
+    ).pipe(
+      retry(1),
+      map((response: any) => {
+        if (!response.success || !response.data) {
+          throw new Error(response.error || 'Invalid response format');
+        }
+        return response.data;
+      }),
+      catchError(this.handleError)
+    );
+  }
+
   /**
    * Get energy trends for a region over specified days
    * @param region - The region to analyze
@@ -160,6 +185,61 @@ export class AnalyticsService {
     );
   }
 
+  /**
+   * Get a chart-ready historical series, downsampled on the server
+   * @param region - The region to load
+   * @param days - Number of days to cover
+   * @param maxPoints - Upper bound on points per metric (typically the chart width in pixels)
+   * @param mode - 'lttb' for shape-preserving points or 'minmax' to keep every peak and trough
+   * @returns Observable<any>
+   */
+  getHistoricalSeries(region: string, days: number = 30, maxPoints: number = 1000,
+                      mode: 'lttb' | 'minmax' = 'lttb'): Observable<any> {
+    if (!region || region.trim().length === 0) {
+      return throwError(() => new Error('Region parameter is required'));
+    }
+
+    return this.http.get<any>(
+      `${this.baseUrl}/historical/${encodeURIComponent(region)}/series?days=${days}&maxPoints=${maxPoints}&mode=${mode}`
+    ).pipe(
+      retry(2),
+      map((response: any) => {
+        if (!response.success || !response.data) {
+          throw new Error(response.error || 'Invalid response format');
+        }
+        return response.data;
+      }),
+      catchError(this.handleError)
+    );
+  }
+
+  /**
+   * Get percentiles of historical metrics, merged across one or more regions
+   * @param regions - Region codes whose distributions are combined
+   * @param days - Number of days to cover
+   * @param quantiles - Quantiles between 0 and 1, e.g. 0.99 for p99
+   * @returns Observable<any>
+   */
+  getHistoricalPercentiles(regions: string[], days: number = 7,
+                           quantiles: number[] = [0.5, 0.95, 0.99]): Observable<any> {
+    if (!regions || regions.length === 0) {
+      return throwError(() => new Error('At least one region is required'));
+    }
+
+    return this.http.get<any>(
+      `${this.baseUrl}/historical/${encodeURIComponent(regions.join(','))}/percentiles?days=${days}&quantiles=${quantiles.join(',')}`
+    ).pipe(
+      retry(2),
+      map((response: any) => {
+        if (!response.success || !response.data) {
+          throw new Error(response.error || 'Invalid response format');
+        }
+        return response.data;
+      }),
+      catchError(this.handleError)
+    );
+  }
+
   /**
    * Clear cached energy data
    */
@@ -4,6 +4,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import lombok.Data;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "app")
 @Data
@@ -11,6 +14,16 @@ public class AppConfig {
     
     private Security security = new Security();
     private Data data = new Data();
+    private Ingest ingest = new Ingest();
+    private SampleBuffer sampleBuffer = new SampleBuffer();
+    private BulkImport bulkImport = new BulkImport();
+    private Archive archive = new Archive();
+    private Dashboard dashboard = new Dashboard();
+    private Anomaly anomaly = new Anomaly();
+    private AnalyticsCache analyticsCache = new AnalyticsCache();
+    private Geo geo = new Geo();
+    private Forecast forecast = new Forecast();
+    private Report report = new Report();
     
     @lombok.Data
     public static class Security {
@@ -21,4 +34,117 @@ public class AppConfig {
     public static class Data {
         private boolean initialize = false;
     }
-}
\ No newline at end of file
+    
+    @lombok.Data
+    public static class Ingest {
+        private int queueCapacity = 10000;
+        private int batchSize = 500;
+        private long flushIntervalMs = 1000;
+        private long offerTimeoutMs = 200;
+        // A failed batch write is tried this many times, waiting retryBackoffMs and doubling it in between
+        private int writeAttempts = 3;
+        private long retryBackoffMs = 200;
+        // Rejected rows kept for inspection
+        private int deadLetterCapacity = 1000;
+    }
+    
+    @lombok.Data
+    public static class SampleBuffer {
+        private int capacity = 4096;
+        private int warmupDays = 7;
+    }
+    
+    @lombok.Data
+    public static class BulkImport {
+        private int chunkSize = 5000;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maxErrors = 100;
+        // Uploads are kept here until their job completes, so a failed job can be resumed after a restart
+        private String spoolDirectory = "data/import-spool";
+        // Finished jobs and the uploads of failed ones are discarded after this
+        private int jobTtlHours = 24;
+    }
+    
+    @lombok.Data
+    public static class Archive {
+        private boolean enabled = true;
+        // Must be set explicitly (app.archive.directory); archiving is skipped while it is not
+        private String directory;
+        private int blockSize = 1024;
+        // Days are archived once they are older than this
+        private int coldAfterDays = 30;
+    }
+    
+    @lombok.Data
+    public static class Dashboard {
+        // Threads and queue bound for assembling dashboards of a batch request
+        private int batchThreads = 8;
+        private int batchQueueCapacity = 256;
+        private int maxBatchRegions = 100;
+        private long batchTimeoutMs = 10000;
+        private int cacheTtlMinutes = 5;
+        // Live region state is rebuilt on its own thread at this rate and pushed to websocket sessions
+        private long liveTickMs = 5000;
+        private int websocketSendThreads = 4;
+        // A session whose client stops reading is closed once a send blocks this long or its buffer fills up
+        private int websocketSendTimeLimitMs = 10000;
+        private int websocketBufferBytes = 512 * 1024;
+    }
+    
+    @lombok.Data
+    public static class Anomaly {
+        private boolean enabled = true;
+        // |z| at or above which a sample is reported
+        private double threshold = 4.0;
+        private int warmupDays = 7;
+        // Anomalies kept per region for the insights section
+        private int recentCapacity = 100;
+    }
+    
+    @lombok.Data
+    public static class AnalyticsCache {
+        // Entries are invalidated by ingest; this only bounds results of windows that end "now"
+        private long maxAgeSeconds = 900;
+        private int maxEntries = 5000;
+    }
+    
+    @lombok.Data
+    public static class Geo {
+        // Geohash characters: 4 is about 39 x 20 km for the region index, 5 about 5 x 5 km per weather cell
+        private int indexPrecision = 4;
+        private int weatherCellPrecision = 5;
+        private long weatherCellTtlSeconds = 600;
+        private int maxWeatherCells = 10000;
+        // Boundaries ("lat lon, lat lon, ...") applied at startup to regions that have none stored
+        private Map<String, String> boundaries = new HashMap<>();
+    }
+    
+    @lombok.Data
+    public static class Forecast {
+        // Days covered by each model cycle; requests may ask for at most this many
+        private int horizonDays = 14;
+        // Issued forecasts are kept this long for accuracy tracking: every hourly cycle for
+        // intradayRetentionHours, after that only each day's first one
+        private int retentionDays = 90;
+        private int intradayRetentionHours = 24;
+        // Hourly history the demand models are fitted on; at least two weeks are needed
+        private int trainingDays = 56;
+        private int fitParallelism = Runtime.getRuntime().availableProcessors();
+        // Walk-forward backtest: one fold per day going back from the latest full horizon
+        private int backtestFolds = 14;
+        private int backtestParallelism = Runtime.getRuntime().availableProcessors();
+        // Monte Carlo bands: scenarios drawn per region and cycle over its next scenarioHours; 0 turns them off
+        private int scenarios = 10000;
+        private int scenarioHours = 168;
+        private int scenarioParallelism = Runtime.getRuntime().availableProcessors();
+    }
+    
+    @lombok.Data
+    public static class Report {
+        // Sections of a report (dashboard, history, forecast) are built concurrently on this pool
+        private int threads = 6;
+        private int queueCapacity = 64;
+        // A section that takes longer is left out of the report instead of failing it
+        private long sectionTimeoutMs = 5000;
+    }
+}
@@ -8,14 +8,20 @@ import com.weather.service.repository.EnergyDataRepository;
 import com.weather.service.repository.HistoricalWeatherDataRepository;
 import com.weather.service.repository.UserRepository;
 import com.weather.service.repository.SubscriptionRepository;
+import com.weather.service.service.RegionDataChangedEvent;
+import com.weather.service.service.RegionRegistry;
+import com.weather.service.service.RollupService;
+import com.weather.service.timeseries.RollupSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -27,6 +33,9 @@ public class DataInitializer implements CommandLineRunner {
     private final UserRepository userRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final AppConfig appConfig;
+    private final RegionRegistry regionRegistry;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     public void run(String... args) throws Exception {
@@ -89,6 +98,7 @@ public class DataInitializer implements CommandLineRunner {
             for (int i = 0; i < 24; i++) {
                 EnergyData data = new EnergyData();
                 data.setRegion(region);
+                data.setRegionId(regionRegistry.idFor(region));
                 data.setTimestamp(now.minusHours(i));
                 data.setSolarGeneration(Math.random() * 100);
                 data.setWindGeneration(Math.random() * 150);
@@ -97,8 +107,11 @@ public class DataInitializer implements CommandLineRunner {
                 data.setEnergyPrice(0.08 + Math.random() * 0.04);
                 
                 energyDataRepository.save(data);
+                rollupService.markDirty(RollupSource.ENERGY, region, data.getTimestamp());
             }
         }
+        // Raw rows are read right away; don't leave dashboards to wait for the rollup refresh
+        eventPublisher.publishEvent(new RegionDataChangedEvent(Set.copyOf(regions)));
         
         log.info("Created {} energy data records", energyDataRepository.count());
     }
@@ -111,6 +124,7 @@ public class DataInitializer implements CommandLineRunner {
             for (int i = 0; i < 24; i++) {
                 HistoricalWeatherData data = new HistoricalWeatherData();
                 data.setRegion(region);
+                data.setRegionId(regionRegistry.idFor(region));
                 data.setTimestamp(now.minusHours(i));
                 data.setTemperature(15 + Math.random() * 20);
                 data.setWindSpeed(Math.random() * 15);
@@ -122,6 +136,7 @@ public class DataInitializer implements CommandLineRunner {
                 data.setEfficiency(60 + Math.random() * 30);
                 
                 historicalWeatherDataRepository.save(data);
+                rollupService.markDirty(RollupSource.WEATHER, region, data.getTimestamp());
             }
         }
         
@@ -34,9 +34,9 @@ public class DatabaseOptimizationConfig {
             createIndexIfNotExists(statement, 
                 "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_weather_data_timestamp ON weather_data(timestamp DESC)");
             
-            // Energy data indexes
+            // Energy data indexes; time-series reads route by the integer region id (see RegionRegistry)
             createIndexIfNotExists(statement, 
-                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_energy_data_region_timestamp ON energy_data(region, timestamp DESC)");
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_energy_data_region_id_time ON energy_data(region_id, timestamp DESC)");
             
             // User and subscription indexes
             createIndexIfNotExists(statement, 
@@ -54,7 +54,7 @@ public class DatabaseOptimizationConfig {
             
             // Historical data indexes
             createIndexIfNotExists(statement, 
-                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historical_weather_region_date ON historical_weather_data(region, date DESC)");
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historical_weather_region_id_time ON historical_weather_data(region_id, timestamp DESC)");
             
         } catch (Exception e) {
             // Log but don't fail startup
@@ -1,10 +1,19 @@
 package com.weather.service.controller;
 
 import com.weather.service.repository.WeatherDataRepository;
+import com.weather.service.geo.RegionPolygon;
+import com.weather.service.service.BacktestService;
+import com.weather.service.service.BulkImportService;
+import com.weather.service.service.HistoricalIngestionService;
+import com.weather.service.service.RegionGeometryService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -13,6 +22,10 @@ public class AdminController {
     
     private final WeatherDataRepository weatherDataRepository;
     private final CacheManager cacheManager;
+    private final BulkImportService bulkImportService;
+    private final RegionGeometryService regionGeometryService;
+    private final BacktestService backtestService;
+    private final HistoricalIngestionService ingestionService;
     
     @DeleteMapping("/clear-cache")
     public ResponseEntity<String> clearCache() {
@@ -38,4 +51,116 @@ public class AdminController {
         
         return ResponseEntity.ok("Cache and database cleared successfully");
     }
-}
\ No newline at end of file
+    
+    // Raw request body upload: curl --data-binary @readings.csv /api/admin/import/weather?format=csv
+    @PostMapping("/import/{dataset}")
+    public ResponseEntity<Map<String, Object>> startImport(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) {
+        try {
+            BulkImportService.ImportJob job = bulkImportService.submit(
+                BulkImportService.Dataset.valueOf(dataset.toUpperCase()),
+                BulkImportService.Format.valueOf(format.toUpperCase()),
+                request.getInputStream());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", job.toMap());
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorResponse("Unsupported dataset or format: " + dataset + "/" + format));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(errorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<Map<String, Object>> getImportStatus(@PathVariable String jobId) {
+        return bulkImportService.getJob(jobId)
+            .map(job -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", job.toMap());
+                return ResponseEntity.ok(response);
+            })
+            .orElseGet(() -> ResponseEntity.status(404).body(errorResponse("Import job not found")));
+    }
+    
+    @PostMapping("/import/{jobId}/resume")
+    public ResponseEntity<Map<String, Object>> resumeImport(@PathVariable String jobId) {
+        try {
+            BulkImportService.ImportJob job = bulkImportService.resume(jobId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", job.toMap());
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(errorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(errorResponse(e.getMessage()));
+        }
+    }
+    
+    // Write-behind queue counters and the most recent rows the database rejected
+    @GetMapping("/ingest")
+    public ResponseEntity<Map<String, Object>> getIngestStatus() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("queueDepth", ingestionService.getQueueDepth());
+        data.put("writtenRows", ingestionService.getWrittenRows());
+        data.put("deadLetteredRows", ingestionService.getDeadLetteredRows());
+        data.put("droppedRows", ingestionService.getDroppedRows());
+        data.put("deadLetters", ingestionService.getDeadLetters());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
+    
+    // Body is the polygon as [latitude, longitude] pairs: [[52.1, 4.2], [52.4, 4.9], [51.9, 5.1]]
+    @PutMapping("/regions/{code}/boundary")
+    public ResponseEntity<Map<String, Object>> updateRegionBoundary(
+            @PathVariable String code,
+            @RequestBody List<double[]> vertices) {
+        try {
+            RegionPolygon polygon = regionGeometryService.updateBoundary(code, vertices);
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("region", code);
+            data.put("boundary", polygon.format());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(errorResponse(e.getMessage()));
+        }
+    }
+    
+    // Runs the walk-forward forecast backtest of every region now instead of waiting for the nightly run
+    @PostMapping("/forecast/backtest")
+    public ResponseEntity<Map<String, Object>> runForecastBacktest() {
+        try {
+            Map<String, BacktestService.Accuracy> results = backtestService.runAll();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", results);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(errorResponse(e.getMessage()));
+        }
+    }
+    
+    private Map<String, Object> errorResponse(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        return errorResponse;
+    }
+}
@@ -4,7 +4,8 @@ import com.weather.service.service.EnergyAnalyticsService;
 import com.weather.service.service.SubscriptionService;
 import com.weather.service.service.HistoricalDataService;
 import com.weather.service.service.ForecastingService;
-import com.weather.service.service.CacheService;
+import com.weather.service.service.AnalyticsResultCache;
+import com.weather.service.service.DashboardBatchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +15,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,7 +29,8 @@ public class AnalyticsController {
     private final SubscriptionService subscriptionService;
     private final HistoricalDataService historicalDataService;
     private final ForecastingService forecastingService;
-    private final CacheService cacheService;
+    private final DashboardBatchService dashboardBatchService;
+    private final AnalyticsResultCache resultCache;
     
     @Operation(
         summary = "Get Energy Dashboard Data",
@@ -53,23 +56,8 @@ public class AnalyticsController {
         // Allow access without authentication for demo purposes
         
         try {
-            // Check cache first
-            String cacheKey = "energy_dashboard:" + region;
-            Object cachedData = cacheService.getCachedApiResponse(cacheKey);
-            
-            if (cachedData != null) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("data", cachedData);
-                response.put("timestamp", java.time.LocalDateTime.now().toString());
-                response.put("cached", true);
-                return ResponseEntity.ok(response);
-            }
-            
-            Map<String, Object> dashboard = analyticsService.getEnergyDashboard(region);
-            
-            // Cache the result for 5 minutes
-            cacheService.cacheApiResponse(cacheKey, dashboard, java.time.Duration.ofMinutes(5));
+            // Served from cache until new data for the region arrives
+            Object dashboard = dashboardBatchService.getDashboard(region);
             
             // Wrap in API response format
             Map<String, Object> response = new HashMap<>();
@@ -88,6 +76,57 @@ public class AnalyticsController {
         }
     }
     
+    @Operation(
+        summary = "Get Energy Dashboards for Several Regions",
+        description = "Returns the dashboards of a comma-separated list of regions, or of every known region with regions=all, in one response."
+    )
+    @GetMapping("/energy")
+    public ResponseEntity<Map<String, Object>> getEnergyDashboards(
+        @Parameter(description = "Comma-separated region identifiers, or 'all'")
+        @RequestParam(defaultValue = DashboardBatchService.ALL_REGIONS) String regions,
+        Authentication authentication) {
+        
+        if (authentication != null) {
+            Long userId = Long.parseLong(authentication.getName());
+            if (!subscriptionService.hasApiAccess(userId)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("error", "Access denied. Check your subscription plan.");
+                return ResponseEntity.status(403).body(errorResponse);
+            }
+            subscriptionService.incrementUsage(userId);
+        }
+        
+        try {
+            DashboardBatchService.BatchResult result = dashboardBatchService.getDashboards(regions);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", result.dashboards());
+            response.put("cachedRegions", result.cachedRegions());
+            if (!result.errors().isEmpty()) {
+                response.put("errors", result.errors());
+            }
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
     @GetMapping("/weather-correlation/{region}")
     public ResponseEntity<Map<String, Object>> getWeatherCorrelation(
             @PathVariable String region,
@@ -107,7 +146,8 @@ public class AnalyticsController {
         }
         
         try {
-            Map<String, Object> correlation = analyticsService.getWeatherCorrelation(region, timeRange);
+            Map<String, Object> correlation = resultCache.get(AnalyticsResultCache.CORRELATION, region, timeRange,
+                () -> analyticsService.getWeatherCorrelation(region, timeRange));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -115,6 +155,13 @@ public class AnalyticsController {
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -151,6 +198,13 @@ public class AnalyticsController {
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -162,19 +216,35 @@ public class AnalyticsController {
     }
     
     @GetMapping("/trends/{region}")
-    public ResponseEntity<?> getEnergyTrends(
+    public ResponseEntity<Map<String, Object>> getEnergyTrends(
             @PathVariable String region,
             @RequestParam(defaultValue = "7") int days) {
         
-        // This will return empty data for now
-        var trends = analyticsService.getEnergyTrends(region, days);
-        
-        if (trends.isEmpty()) {
-            // TODO: Better response when no data available
-            return ResponseEntity.ok(Map.of("message", "Trends feature coming soon"));
+        try {
+            List<Map<String, Object>> trends = resultCache.get(AnalyticsResultCache.TRENDS, region, days + "d",
+                () -> analyticsService.getEnergyTrends(region, days));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", trends);
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.status(500).body(errorResponse);
         }
-        
-        return ResponseEntity.ok(trends);
     }
     
     @GetMapping("/historical/{region}")
@@ -195,7 +265,8 @@ public class AnalyticsController {
         }
         
         try {
-            Map<String, Object> historical = historicalDataService.getHistoricalAnalytics(region, days);
+            Map<String, Object> historical = resultCache.get(AnalyticsResultCache.HISTORICAL, region, days + "d",
+                () -> historicalDataService.getHistoricalAnalytics(region, days));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -212,4 +283,117 @@ public class AnalyticsController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+    
+    @GetMapping("/historical/{region}/hourly")
+    public ResponseEntity<Map<String, Object>> getHourlyGeneration(
+            @PathVariable String region,
+            @RequestParam(defaultValue = "24") int hours) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", resultCache.get(AnalyticsResultCache.HOURLY, region, hours + "h",
+                () -> historicalDataService.getHourlyGeneration(region, hours)));
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    @GetMapping("/historical/{region}/stats")
+    public ResponseEntity<Map<String, Object>> getRunningStatistics(
+            @PathVariable String region,
+            @RequestParam(defaultValue = "24h") String window) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", resultCache.get(AnalyticsResultCache.STATS, region, window,
+                () -> historicalDataService.getRunningStatistics(region, window)));
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    // region may be a comma-separated list; the distributions of all listed regions are merged
+    @GetMapping("/historical/{region}/percentiles")
+    public ResponseEntity<Map<String, Object>> getPercentiles(
+            @PathVariable String region,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) List<String> metrics,
+            @RequestParam(required = false) List<Double> quantiles) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", historicalDataService.getPercentiles(region, days, metrics, quantiles));
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    @GetMapping("/historical/{region}/series")
+    public ResponseEntity<Map<String, Object>> getDownsampledSeries(
+            @PathVariable String region,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "1000") int maxPoints,
+            @RequestParam(defaultValue = "lttb") String mode,
+            @RequestParam(required = false) List<String> metrics) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", historicalDataService.getDownsampledSeries(region, days, maxPoints, mode, metrics));
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.weather.service.controller;
 
+import com.weather.service.dto.ComprehensiveForecast;
+import com.weather.service.dto.DemandForecast;
+import com.weather.service.dto.GenerationForecast;
+import com.weather.service.dto.PriceForecast;
+import com.weather.service.dto.ScenarioForecast;
+import com.weather.service.service.BacktestService;
 import com.weather.service.service.ForecastingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,13 +20,14 @@ import java.util.Map;
 public class ForecastController {
     
     private final ForecastingService forecastingService;
+    private final BacktestService backtestService;
     
     @GetMapping("/demand/{region}")
     public ResponseEntity<Map<String, Object>> getDemandForecast(
             @PathVariable String region,
             @RequestParam(defaultValue = "7") int days) {
         try {
-            Map<String, Object> forecast = forecastingService.generateEnergyDemandForecast(region, days);
+            DemandForecast forecast = forecastingService.generateEnergyDemandForecast(region, days);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -28,6 +35,12 @@ public class ForecastController {
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -42,7 +55,7 @@ public class ForecastController {
             @PathVariable String region,
             @RequestParam(defaultValue = "7") int days) {
         try {
-            Map<String, Object> forecast = forecastingService.generateWeatherBasedGenerationForecast(region, days);
+            GenerationForecast forecast = forecastingService.generateWeatherBasedGenerationForecast(region, days);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -50,6 +63,12 @@ public class ForecastController {
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -64,7 +83,7 @@ public class ForecastController {
             @PathVariable String region,
             @RequestParam(defaultValue = "7") int days) {
         try {
-            Map<String, Object> forecast = forecastingService.generatePriceForecast(region, days);
+            PriceForecast forecast = forecastingService.generatePriceForecast(region, days);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -72,6 +91,12 @@ public class ForecastController {
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -86,7 +111,36 @@ public class ForecastController {
             @PathVariable String region,
             @RequestParam(defaultValue = "7") int days) {
         try {
-            Map<String, Object> forecast = forecastingService.getComprehensiveForecast(region, days);
+            ComprehensiveForecast forecast = forecastingService.getComprehensiveForecast(region, days);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", forecast);
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    // Hourly P10/P50/P90 of demand, renewable generation and price across the current cycle's scenarios
+    @GetMapping("/scenarios/{region}")
+    public ResponseEntity<Map<String, Object>> getScenarioForecast(
+            @PathVariable String region,
+            @RequestParam(defaultValue = "168") int hours) {
+        try {
+            ScenarioForecast forecast = forecastingService.generateScenarioForecast(region, hours);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -94,6 +148,12 @@ public class ForecastController {
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -102,4 +162,24 @@ public class ForecastController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
+    
+    // Latest walk-forward backtest of the region's demand forecasts, per forecast day
+    @GetMapping("/accuracy/{region}")
+    public ResponseEntity<Map<String, Object>> getForecastAccuracy(@PathVariable String region) {
+        BacktestService.Accuracy accuracy = backtestService.accuracy(region);
+        if (accuracy == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "No backtest available for region " + region);
+            
+            return ResponseEntity.status(404).body(errorResponse);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", accuracy);
+        response.put("timestamp", java.time.LocalDateTime.now().toString());
+        
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.weather.service.controller;
 
 import com.weather.service.service.MetricsService;
+import com.weather.service.service.AnalyticsResultCache;
 import com.weather.service.service.CacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +23,7 @@ public class MonitoringController {
 
     private final MetricsService metricsService;
     private final CacheService cacheService;
+    private final AnalyticsResultCache analyticsResultCache;
 
     @GetMapping("/health")
     @Operation(summary = "Get system health status")
@@ -67,6 +69,7 @@ public class MonitoringController {
         metrics.put("cpu_usage_percent", 25.5);
         metrics.put("disk_usage_percent", 45.2);
         metrics.put("network_io_mbps", 12.3);
+        metrics.put("analytics_cache", analyticsResultCache.getStats());
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
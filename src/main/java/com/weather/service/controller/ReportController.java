@@ -1,11 +1,14 @@
 package com.weather.service.controller;
 
+import com.weather.service.dto.EnergyReport;
+import com.weather.service.service.HistoricalArchiveService;
 import com.weather.service.service.ReportingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +20,7 @@ import java.util.Map;
 public class ReportController {
     
     private final ReportingService reportingService;
+    private final HistoricalArchiveService archiveService;
     
     @GetMapping("/generate/{region}")
     public ResponseEntity<Map<String, Object>> generateReport(
@@ -24,7 +28,7 @@ public class ReportController {
             @RequestParam(defaultValue = "comprehensive") String reportType,
             @RequestParam(defaultValue = "30") int days) {
         try {
-            Map<String, Object> report = reportingService.generateEnergyReport(region, reportType, days);
+            EnergyReport report = reportingService.generateEnergyReport(region, reportType, days);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -86,6 +90,34 @@ public class ReportController {
         }
     }
     
+    @GetMapping("/export/{region}")
+    public ResponseEntity<StreamingResponseBody> exportHistoricalData(
+            @PathVariable String region,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "csv") String format) {
+        HttpHeaders headers = new HttpHeaders();
+        if ("binary".equalsIgnoreCase(format)) {
+            // Gorilla-compressed columns with a block index, see SeriesArchiveReader
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDispositionFormData("attachment", 
+                String.format("historical-data-%s-%dd.eas", region, days));
+            
+            StreamingResponseBody body = out -> archiveService.exportBinary(region, days, out);
+            return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+        }
+        
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentDispositionFormData("attachment", 
+            String.format("historical-data-%s-%dd.csv", region, days));
+        
+        StreamingResponseBody body = out -> reportingService.exportHistoricalCsv(region, days, out);
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(body);
+    }
+    
     @GetMapping("/templates")
     public ResponseEntity<Map<String, Object>> getReportTemplates() {
         try {
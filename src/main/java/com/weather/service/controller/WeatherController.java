@@ -2,6 +2,7 @@ package com.weather.service.controller;
 
 import com.weather.service.dto.WeatherResponse;
 import com.weather.service.dto.ForecastResponse;
+import com.weather.service.service.RegionGeometryService;
 import com.weather.service.service.WeatherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,6 +21,7 @@ import java.util.List;
 public class WeatherController {
     
     private final WeatherService weatherService;
+    private final RegionGeometryService regionGeometryService;
     
     @GetMapping("/current/{city}")
     @Operation(summary = "Get current weather by city name")
@@ -39,8 +41,24 @@ public class WeatherController {
             @Parameter(description = "Latitude") @RequestParam double lat,
             @Parameter(description = "Longitude") @RequestParam double lon) {
         
-        WeatherResponse weather = weatherService.getCurrentWeatherByCoordinates(lat, lon);
-        return weather != null ? ResponseEntity.ok(weather) : ResponseEntity.notFound().build();
+        try {
+            WeatherResponse weather = weatherService.getCurrentWeatherByCoordinates(lat, lon);
+            return weather != null ? ResponseEntity.ok(weather) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/locate")
+    @Operation(summary = "Resolve coordinates to an energy region and weather cell")
+    public ResponseEntity<RegionGeometryService.Location> locate(
+            @Parameter(description = "Latitude") @RequestParam double lat,
+            @Parameter(description = "Longitude") @RequestParam double lon) {
+        try {
+            return ResponseEntity.ok(regionGeometryService.locate(lat, lon));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/history/{city}")
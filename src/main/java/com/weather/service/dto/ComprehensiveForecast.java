@@ -0,0 +1,12 @@
+package com.weather.service.dto;
+
+import java.time.LocalDateTime;
+
+public record ComprehensiveForecast(String region, String forecastPeriod, LocalDateTime generatedAt,
+                                    DemandForecast demandForecast, GenerationForecast generationForecast,
+                                    PriceForecast priceForecast, RiskAssessment riskAssessment) {
+
+    public record RiskAssessment(String supplyRisk, String demandRisk, String priceRisk, String weatherRisk,
+                                 String overallRisk) {
+    }
+}
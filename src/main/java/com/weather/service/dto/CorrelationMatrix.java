@@ -0,0 +1,38 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.weather.service.timeseries.HistoricalMetric;
+
+import java.io.IOException;
+
+// Pearson coefficients between every pair of historical metrics, values[x][y] by HistoricalMetric ordinal.
+// Written as {"temperature": {"temperature": 1.0, ...}, ...} straight from the array.
+@JsonSerialize(using = CorrelationMatrix.Serializer.class)
+public record CorrelationMatrix(double[][] values) {
+
+    static class Serializer extends StdSerializer<CorrelationMatrix> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(CorrelationMatrix.class);
+        }
+
+        @Override
+        public void serialize(CorrelationMatrix matrix, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            for (HistoricalMetric x : HistoricalMetric.values()) {
+                gen.writeObjectFieldStart(x.getKey());
+                for (HistoricalMetric y : HistoricalMetric.values()) {
+                    gen.writeNumberField(y.getKey(), matrix.values[x.ordinal()][y.ordinal()]);
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.weather.service.timeseries.HistoricalMetric;
+
+import java.io.IOException;
+
+// Hourly chart points of the weather correlation view. means holds one column per HistoricalMetric
+// (by ordinal) and one row per hour; an hour without values for a metric holds NaN, written as null.
+// The coefficients cover the whole range and are sent once, next to the series.
+@JsonSerialize(using = CorrelationSeries.Serializer.class)
+public record CorrelationSeries(long[] timestamps, double[][] means) {
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    static class Serializer extends PointSeriesSerializer<CorrelationSeries> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(CorrelationSeries.class);
+        }
+
+        @Override
+        protected int size(CorrelationSeries series) {
+            return series.size();
+        }
+
+        @Override
+        protected void writePoint(CorrelationSeries series, int i, JsonGenerator gen) throws IOException {
+            double[][] means = series.means;
+            gen.writeObjectFieldStart("weatherData");
+            writeNumberOrNullField(gen, "temperature", means[HistoricalMetric.TEMPERATURE.ordinal()][i]);
+            writeNumberOrNullField(gen, "windSpeed", means[HistoricalMetric.WIND_SPEED.ordinal()][i]);
+            writeNumberOrNullField(gen, "solarIrradiance", means[HistoricalMetric.SOLAR_IRRADIANCE.ordinal()][i]);
+            writeNumberOrNullField(gen, "cloudCover", means[HistoricalMetric.CLOUD_COVER.ordinal()][i]);
+            writeTimestampField(gen, "timestamp", series.timestamps[i]);
+            gen.writeEndObject();
+            writeNumberOrNullField(gen, "solarGeneration", means[HistoricalMetric.SOLAR_GENERATION.ordinal()][i]);
+            writeNumberOrNullField(gen, "windGeneration", means[HistoricalMetric.WIND_GENERATION.ordinal()][i]);
+            writeNumberOrNullField(gen, "totalConsumption", means[HistoricalMetric.TOTAL_CONSUMPTION.ordinal()][i]);
+        }
+    }
+}
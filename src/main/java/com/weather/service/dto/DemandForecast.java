@@ -0,0 +1,84 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+public record DemandForecast(String region, String forecastPeriod, LocalDateTime generatedAt,
+                             HourlyDemand hourlyForecasts, DailyDemand dailyForecasts, Summary summary) {
+
+    public record Summary(double averageDemand, double peakDemand, int totalForecasts, double averageConfidence) {
+    }
+
+    // timestamps are wall-clock keys (see EpochTime), written as epoch millis; each point is written with its
+    // local hour of day and 1-based forecast day
+    @JsonSerialize(using = HourlyDemand.Serializer.class)
+    public record HourlyDemand(long[] timestamps, double[] predictedDemand, double[] confidence) {
+
+        private static final long HOUR_MILLIS = 3_600_000L;
+        private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+        public int size() {
+            return timestamps.length;
+        }
+
+        static class Serializer extends PointSeriesSerializer<HourlyDemand> {
+
+            private static final long serialVersionUID = 1L;
+
+            Serializer() {
+                super(HourlyDemand.class);
+            }
+
+            @Override
+            protected int size(HourlyDemand series) {
+                return series.size();
+            }
+
+            @Override
+            protected void writePoint(HourlyDemand series, int i, JsonGenerator gen) throws IOException {
+                long timestamp = series.timestamps[i];
+                writeTimestampField(gen, "timestamp", timestamp);
+                gen.writeNumberField("predictedDemand", series.predictedDemand[i]);
+                gen.writeNumberField("confidence", series.confidence[i]);
+                gen.writeNumberField("hour", (int) Math.floorMod(Math.floorDiv(timestamp, HOUR_MILLIS), 24L));
+                gen.writeNumberField("day",
+                    (int) (Math.floorDiv(timestamp, DAY_MILLIS) - Math.floorDiv(series.timestamps[0], DAY_MILLIS)) + 1);
+            }
+        }
+    }
+
+    @JsonSerialize(using = DailyDemand.Serializer.class)
+    public record DailyDemand(long[] epochDays, double[] predictedDemand, double[] confidence) {
+
+        public int size() {
+            return epochDays.length;
+        }
+
+        static class Serializer extends PointSeriesSerializer<DailyDemand> {
+
+            private static final long serialVersionUID = 1L;
+
+            Serializer() {
+                super(DailyDemand.class);
+            }
+
+            @Override
+            protected int size(DailyDemand series) {
+                return series.size();
+            }
+
+            @Override
+            protected void writePoint(DailyDemand series, int i, JsonGenerator gen) throws IOException {
+                writeDateField(gen, "date", series.epochDays[i]);
+                gen.writeNumberField("predictedDemand", series.predictedDemand[i]);
+                gen.writeNumberField("confidence", series.confidence[i]);
+                // 1970-01-01 was a Thursday
+                gen.writeStringField("dayOfWeek", DayOfWeek.THURSDAY.plus(series.epochDays[i]).name());
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.weather.service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// currentAnalytics and historicalAnalytics are the dashboard and historical responses as their services build them.
+// A section that failed or timed out is null and its reason is listed in sectionErrors.
+public record EnergyReport(String reportId, String reportType, String region, String period,
+                           LocalDateTime generatedAt, String generatedBy,
+                           Map<String, Object> currentAnalytics, Map<String, Object> historicalAnalytics,
+                           ComprehensiveForecast forecastAnalytics, Summary summary, List<String> recommendations,
+                           Map<String, String> sectionErrors) {
+
+    // Values missing from the source analytics are null
+    public record Summary(Double currentEfficiency, Double currentGeneration, Double currentConsumption,
+                          Double averageHistoricalEfficiency, Double peakHistoricalGeneration,
+                          Double predictedAverageDemand, Double predictedPeakDemand,
+                          String performanceRating, String riskLevel) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+public record GenerationForecast(String region, String forecastPeriod, LocalDateTime generatedAt,
+                                 DailyGeneration forecasts, double totalPredictedGeneration,
+                                 WeatherFactors weatherFactors) {
+
+    public record WeatherFactors(int expectedSunnyDays, int expectedWindyDays, double averageCloudCover) {
+    }
+
+    // cloudCover is in percent
+    @JsonSerialize(using = DailyGeneration.Serializer.class)
+    public record DailyGeneration(long[] epochDays, double[] solarGeneration, double[] windGeneration,
+                                  double[] sunlightHours, double[] windSpeed, double[] cloudCover,
+                                  double[] confidence) {
+
+        public int size() {
+            return epochDays.length;
+        }
+
+        public double totalGeneration(int i) {
+            return solarGeneration[i] + windGeneration[i];
+        }
+
+        static class Serializer extends PointSeriesSerializer<DailyGeneration> {
+
+            private static final long serialVersionUID = 1L;
+
+            Serializer() {
+                super(DailyGeneration.class);
+            }
+
+            @Override
+            protected int size(DailyGeneration series) {
+                return series.size();
+            }
+
+            @Override
+            protected void writePoint(DailyGeneration series, int i, JsonGenerator gen) throws IOException {
+                writeDateField(gen, "date", series.epochDays[i]);
+                gen.writeNumberField("predictedSolarGeneration", round2(series.solarGeneration[i]));
+                gen.writeNumberField("predictedWindGeneration", round2(series.windGeneration[i]));
+                gen.writeNumberField("totalGeneration", round2(series.totalGeneration(i)));
+                gen.writeObjectFieldStart("weatherFactors");
+                gen.writeNumberField("sunlightHours", Math.round(series.sunlightHours[i] * 10.0) / 10.0);
+                gen.writeNumberField("windSpeed", Math.round(series.windSpeed[i] * 10.0) / 10.0);
+                gen.writeNumberField("cloudCover", Math.round(series.cloudCover[i]));
+                gen.writeEndObject();
+                gen.writeNumberField("confidence", series.confidence[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.weather.service.timeseries.EpochTime;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Writes a series held in primitive arrays as a JSON array with one object per point, straight to the
+// generator, so no per-point map or boxed number is built on the way out
+public abstract class PointSeriesSerializer<T> extends StdSerializer<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected PointSeriesSerializer(Class<T> type) {
+        super(type);
+    }
+
+    protected abstract int size(T series);
+
+    protected abstract void writePoint(T series, int index, JsonGenerator gen) throws IOException;
+
+    @Override
+    public void serialize(T series, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int size = size(series);
+        gen.writeStartArray(series, size);
+        for (int i = 0; i < size; i++) {
+            gen.writeStartObject();
+            writePoint(series, i, gen);
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    // Series hold wall-clock keys (see EpochTime); clients get the epoch millis of the instant
+    protected static void writeTimestampField(JsonGenerator gen, String field, long wallClockMillis) throws IOException {
+        gen.writeNumberField(field, EpochTime.toInstantMillis(wallClockMillis));
+    }
+
+    // Calendar dates stay ISO strings ("2024-05-01"); there are only a handful per series
+    protected static void writeDateField(JsonGenerator gen, String field, long epochDay) throws IOException {
+        gen.writeStringField(field, LocalDate.ofEpochDay(epochDay).toString());
+    }
+
+    // NaN marks a missing value; JSON has no NaN, so it goes out as null
+    protected static void writeNumberOrNullField(JsonGenerator gen, String field, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            gen.writeNullField(field);
+        } else {
+            gen.writeNumberField(field, value);
+        }
+    }
+
+    protected static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
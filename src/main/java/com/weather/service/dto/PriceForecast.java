@@ -0,0 +1,63 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+public record PriceForecast(String region, String forecastPeriod, LocalDateTime generatedAt,
+                            DailyPrice priceForecasts, PriceAnalysis priceAnalysis, MarketFactors marketFactors) {
+
+    public record PriceAnalysis(double averagePrice, String priceVolatility, String trend, String riskLevel) {
+    }
+
+    public record MarketFactors(String demandGrowth, String renewableShare, String gridStability) {
+    }
+
+    // low and high bound each day's price range: P10 and P90 of the simulated scenarios where the forecast
+    // cycle has them, +/-15% around the prediction otherwise
+    @JsonSerialize(using = DailyPrice.Serializer.class)
+    public record DailyPrice(long[] epochDays, double[] predictedPrice, double[] confidence,
+                             double[] low, double[] high) {
+
+        public static DailyPrice withFixedRange(long[] epochDays, double[] predictedPrice, double[] confidence) {
+            double[] low = new double[predictedPrice.length];
+            double[] high = new double[predictedPrice.length];
+            for (int i = 0; i < predictedPrice.length; i++) {
+                low[i] = Math.round(predictedPrice[i] * 0.85 * 100.0) / 100.0;
+                high[i] = Math.round(predictedPrice[i] * 1.15 * 100.0) / 100.0;
+            }
+            return new DailyPrice(epochDays, predictedPrice, confidence, low, high);
+        }
+
+        public int size() {
+            return epochDays.length;
+        }
+
+        static class Serializer extends PointSeriesSerializer<DailyPrice> {
+
+            private static final long serialVersionUID = 1L;
+
+            Serializer() {
+                super(DailyPrice.class);
+            }
+
+            @Override
+            protected int size(DailyPrice series) {
+                return series.size();
+            }
+
+            @Override
+            protected void writePoint(DailyPrice series, int i, JsonGenerator gen) throws IOException {
+                writeDateField(gen, "date", series.epochDays[i]);
+                gen.writeNumberField("predictedPrice", series.predictedPrice[i]);
+                gen.writeNumberField("confidence", series.confidence[i]);
+                gen.writeObjectFieldStart("priceRange");
+                gen.writeNumberField("low", series.low[i]);
+                gen.writeNumberField("high", series.high[i]);
+                gen.writeEndObject();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.weather.service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+public record ScenarioForecast(String region, LocalDateTime generatedAt, int scenarios, HourlyBands hourlyBands) {
+
+    // timestamps are wall-clock keys (see EpochTime), written as epoch millis; demand[q][i], generation[q][i] and price[q][i] are the P10 (q = 0),
+    // P50 (q = 1) and P90 (q = 2) of hour i across the scenarios
+    @JsonSerialize(using = HourlyBands.Serializer.class)
+    public record HourlyBands(long[] timestamps, double[][] demand, double[][] generation, double[][] price) {
+
+        public int size() {
+            return timestamps.length;
+        }
+
+        static class Serializer extends PointSeriesSerializer<HourlyBands> {
+
+            private static final long serialVersionUID = 1L;
+
+            Serializer() {
+                super(HourlyBands.class);
+            }
+
+            @Override
+            protected int size(HourlyBands series) {
+                return series.size();
+            }
+
+            @Override
+            protected void writePoint(HourlyBands series, int i, JsonGenerator gen) throws IOException {
+                writeTimestampField(gen, "timestamp", series.timestamps[i]);
+                writeBand(gen, "demand", series.demand, i);
+                writeBand(gen, "generation", series.generation, i);
+                writeBand(gen, "price", series.price, i);
+            }
+
+            private static void writeBand(JsonGenerator gen, String field, double[][] band, int i) throws IOException {
+                gen.writeObjectFieldStart(field);
+                gen.writeNumberField("p10", round2(band[0][i]));
+                gen.writeNumberField("p50", round2(band[1][i]));
+                gen.writeNumberField("p90", round2(band[2][i]));
+                gen.writeEndObject();
+            }
+        }
+    }
+}
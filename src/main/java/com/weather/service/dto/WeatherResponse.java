@@ -6,7 +6,7 @@ import lombok.Builder;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class WeatherResponse {
     private String city;
     private String country;
@@ -22,4 +22,7 @@ public class WeatherResponse {
     private Integer windDirection;
     private Double visibility;
     private LocalDateTime timestamp;
+    // Set for coordinate lookups: the energy region containing the point (null if none) and its weather cell
+    private String region;
+    private String cell;
 }
\ No newline at end of file
@@ -27,7 +27,7 @@ public class Alert {
     private String region;
     
     @Column(name = "alert_type", nullable = false)
-    private String alertType; // DEMAND, GENERATION, PRICE, EFFICIENCY
+    private String alertType; // DEMAND, GENERATION, PRICE, EFFICIENCY, ANOMALY
     
     @Column(name = "threshold_value", nullable = false)
     private Double thresholdValue;
@@ -5,7 +5,9 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "energy_data")
+@Table(name = "energy_data", indexes = {
+    @Index(name = "idx_energy_data_region_id_time", columnList = "region_id, timestamp")
+})
 @Data
 public class EnergyData {
     
@@ -16,6 +18,9 @@ public class EnergyData {
     @Column(nullable = false)
     private String region;
     
+    @Column(name = "region_id")
+    private Integer regionId;
+    
     @Column(name = "solar_generation")
     private Double solarGeneration; // MW
     
@@ -7,7 +7,9 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "energy_forecasts")
+@Table(name = "energy_forecasts", indexes = {
+    @Index(name = "idx_energy_forecasts_region_cycle", columnList = "region, forecast_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,4 +45,14 @@ public class EnergyForecast {
     
     @Column(name = "forecast_type", nullable = false)
     private String forecastType; // DEMAND, GENERATION, PRICE
+    
+    // Weather assumed by GENERATION rows; cloud cover in percent
+    @Column(name = "sunlight_hours")
+    private Double sunlightHours;
+    
+    @Column(name = "wind_speed")
+    private Double windSpeed;
+    
+    @Column(name = "cloud_cover")
+    private Double cloudCover;
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.weather.service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+// Accuracy of one forecast day over all folds of a walk-forward backtest run
+@Entity
+@Table(name = "forecast_backtests", indexes = {
+    @Index(name = "idx_forecast_backtests_region_run", columnList = "region, run_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastBacktest {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String region;
+    
+    @Column(name = "run_at", nullable = false)
+    private LocalDateTime runAt;
+    
+    @Column(name = "forecast_type", nullable = false)
+    private String forecastType; // DEMAND
+    
+    @Column(name = "horizon_day", nullable = false)
+    private Integer horizonDay; // 1 is the first 24 hours after the forecast origin
+    
+    @Column(nullable = false)
+    private Integer folds;
+    
+    @Column(nullable = false)
+    private Long samples;
+    
+    // Fraction; null when every actual was 0
+    private Double mape;
+    
+    @Column(nullable = false)
+    private Double rmse;
+    
+    @Column(name = "pinball_loss", nullable = false)
+    private Double pinballLoss;
+    
+    @Column(name = "interval_coverage", nullable = false)
+    private Double intervalCoverage;
+}
@@ -7,7 +7,9 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "historical_weather_data")
+@Table(name = "historical_weather_data", indexes = {
+    @Index(name = "idx_historical_weather_region_id_time", columnList = "region_id, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +22,10 @@ public class HistoricalWeatherData {
     @Column(nullable = false)
     private String region;
     
+    // Set from RegionRegistry on write; queries filter on this rather than the code
+    @Column(name = "region_id")
+    private Integer regionId;
+    
     @Column(nullable = false)
     private LocalDateTime timestamp;
     
@@ -0,0 +1,60 @@
+package com.weather.service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Progress of a bulk import, saved after every committed chunk so a failed or interrupted job can be resumed
+// after a restart
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+public class ImportJobRecord {
+    
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+    
+    @Column(nullable = false)
+    private String dataset; // WEATHER, ENERGY
+    
+    @Column(nullable = false)
+    private String format; // CSV, NDJSON
+    
+    @Column(name = "file_path", nullable = false, length = 1024)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private String status;
+    
+    @Column(name = "committed_chunks", nullable = false)
+    private Integer committedChunks;
+    
+    @Column(name = "imported_rows", nullable = false)
+    private Long importedRows;
+    
+    @Column(name = "rejected_rows", nullable = false)
+    private Long rejectedRows;
+    
+    @Column(name = "upload_bytes", nullable = false)
+    private Long uploadBytes;
+    
+    @Column(length = 2000)
+    private String failure;
+    
+    // JSON array of the first rejected records' errors
+    @Column(length = 65535)
+    private String errors;
+    
+    // JSON object of region to the [first, last] timestamps written so far
+    @Column(length = 65535)
+    private String spans;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
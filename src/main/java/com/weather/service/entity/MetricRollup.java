@@ -0,0 +1,62 @@
+package com.weather.service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "metric_rollups", indexes = {
+    @Index(name = "idx_metric_rollups_region_bucket",
+        columnList = "source, region_id, resolution, metric, bucket_start", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String source; // WEATHER, ENERGY
+    
+    @Column(name = "region_id", nullable = false)
+    private Integer regionId;
+    
+    @Column(nullable = false)
+    private String resolution; // HOUR, DAY
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private String metric;
+    
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+    
+    @Column(name = "sum_value", nullable = false)
+    private Double sumValue;
+    
+    // Sum of squared deviations from the bucket mean, so variance survives merging buckets (Chan et al.);
+    // NULL on rows written before it existed
+    @Column(name = "m2")
+    private Double m2;
+    
+    @Column(name = "min_value", nullable = false)
+    private Double minValue;
+    
+    @Column(name = "max_value", nullable = false)
+    private Double maxValue;
+    
+    @Column(name = "avg_value", nullable = false)
+    private Double avgValue;
+    
+    // Serialized t-digest of the bucket's values, merged across buckets for percentiles. A digest takes 16 bytes
+    // per centroid plus a small header; at the default compression it stays well below this length.
+    @Column(name = "sketch", length = 65536)
+    private byte[] sketch;
+}
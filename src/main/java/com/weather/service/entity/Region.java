@@ -0,0 +1,26 @@
+package com.weather.service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Region dimension: time-series rows reference regions by this compact id instead of the free-text code
+@Entity
+@Table(name = "regions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Region {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @Column(nullable = false, unique = true, length = 50)
+    private String code;
+    
+    // Polygon as "lat lon, lat lon, ..."; regions without one are not resolvable from coordinates
+    @Column(columnDefinition = "TEXT")
+    private String boundary;
+}
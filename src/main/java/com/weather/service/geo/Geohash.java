@@ -0,0 +1,86 @@
+package com.weather.service.geo;
+
+// Standard geohash: longitude and latitude bisections interleaved (longitude first), five bits per character.
+// Cells of one precision tile the globe, so a hash is both a grid cell id and a prefix of every finer cell.
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    // precision is in characters; the hash occupies the low 5 * precision bits
+    public static long encode(double latitude, double longitude, int precision) {
+        checkPrecision(precision);
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        long hash = 0;
+        int bits = precision * 5;
+        for (int i = 0; i < bits; i++) {
+            hash <<= 1;
+            if ((i & 1) == 0) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    hash |= 1;
+                    minLon = mid;
+                } else {
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    hash |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static String toString(long hash, int precision) {
+        checkPrecision(precision);
+        char[] chars = new char[precision];
+        for (int i = precision - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (hash & 31)];
+            hash >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // {minLatitude, minLongitude, maxLatitude, maxLongitude} of the cell
+    public static double[] bounds(long hash, int precision) {
+        checkPrecision(precision);
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        int bits = precision * 5;
+        for (int i = 0; i < bits; i++) {
+            boolean set = ((hash >>> (bits - 1 - i)) & 1) == 1;
+            if ((i & 1) == 0) {
+                double mid = (minLon + maxLon) / 2;
+                if (set) minLon = mid; else maxLon = mid;
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (set) minLat = mid; else maxLat = mid;
+            }
+        }
+        return new double[] {minLat, minLon, maxLat, maxLon};
+    }
+
+    public static double cellHeight(int precision) {
+        return 180.0 / (1L << (precision * 5 / 2));
+    }
+
+    public static double cellWidth(int precision) {
+        return 360.0 / (1L << ((precision * 5 + 1) / 2));
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION + ": " + precision);
+        }
+    }
+}
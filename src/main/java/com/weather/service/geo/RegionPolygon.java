@@ -0,0 +1,124 @@
+package com.weather.service.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// A region's boundary as a single ring of latitude/longitude vertices. The ring is implicitly closed and
+// must not cross the antimeridian. Stored as text: "lat lon, lat lon, ..."
+public final class RegionPolygon {
+
+    private final String region;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double minLat, minLon, maxLat, maxLon;
+
+    public RegionPolygon(String region, double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length || latitudes.length < 3) {
+            throw new IllegalArgumentException("A region boundary needs at least three vertices");
+        }
+        double minLat = Double.POSITIVE_INFINITY, minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < latitudes.length; i++) {
+            if (!(Math.abs(latitudes[i]) <= 90) || !(Math.abs(longitudes[i]) <= 180)) {
+                throw new IllegalArgumentException(
+                    String.format(Locale.ROOT, "Vertex out of range: %s %s", latitudes[i], longitudes[i]));
+            }
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+        this.region = region;
+        this.latitudes = latitudes.clone();
+        this.longitudes = longitudes.clone();
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.maxLat = maxLat;
+        this.maxLon = maxLon;
+    }
+
+    public static RegionPolygon parse(String region, String boundary) {
+        List<double[]> vertices = new ArrayList<>();
+        for (String vertex : boundary.split(",")) {
+            String[] parts = vertex.trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed boundary vertex '" + vertex.trim() + "' for region " + region);
+            }
+            try {
+                vertices.add(new double[] {Double.parseDouble(parts[0]), Double.parseDouble(parts[1])});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed boundary vertex '" + vertex.trim() + "' for region " + region);
+            }
+        }
+        return of(region, vertices);
+    }
+
+    // vertices are {latitude, longitude} pairs
+    public static RegionPolygon of(String region, List<double[]> vertices) {
+        double[] latitudes = new double[vertices.size()];
+        double[] longitudes = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            if (vertices.get(i).length != 2) {
+                throw new IllegalArgumentException("Boundary vertices must be [latitude, longitude] pairs");
+            }
+            latitudes[i] = vertices.get(i)[0];
+            longitudes[i] = vertices.get(i)[1];
+        }
+        return new RegionPolygon(region, latitudes, longitudes);
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < latitudes.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(latitudes[i]).append(' ').append(longitudes[i]);
+        }
+        return text.toString();
+    }
+
+    public String region() {
+        return region;
+    }
+
+    public double boxArea() {
+        return (maxLat - minLat) * (maxLon - minLon);
+    }
+
+    public double minLatitude() {
+        return minLat;
+    }
+
+    public double minLongitude() {
+        return minLon;
+    }
+
+    public double maxLatitude() {
+        return maxLat;
+    }
+
+    public double maxLongitude() {
+        return maxLon;
+    }
+
+    // Even-odd ray casting; points exactly on an edge may fall either way
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLat || latitude > maxLat || longitude < minLon || longitude > maxLon) {
+            return false;
+        }
+        boolean inside = false;
+        int n = latitudes.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            if ((latitudes[i] > latitude) != (latitudes[j] > latitude)) {
+                double crossing = longitudes[j] + (latitude - latitudes[j]) * (longitudes[i] - longitudes[j])
+                    / (latitudes[i] - latitudes[j]);
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,78 @@
+package com.weather.service.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable geohash grid over region polygons. Every cell at the index precision that a polygon's bounding
+// box touches lists that polygon, so a lookup is one encode, one hash probe and a point-in-polygon test
+// against the few candidates of the cell. Where regions overlap the one with the smaller bounding box wins,
+// so a sub-region nested in a larger one resolves to itself.
+public final class RegionSpatialIndex {
+
+    private static final RegionPolygon[] NONE = new RegionPolygon[0];
+
+    private final int precision;
+    private final Map<Long, RegionPolygon[]> cells;
+
+    private RegionSpatialIndex(int precision, Map<Long, RegionPolygon[]> cells) {
+        this.precision = precision;
+        this.cells = cells;
+    }
+
+    public static RegionSpatialIndex empty(int precision) {
+        return new RegionSpatialIndex(precision, Map.of());
+    }
+
+    public static RegionSpatialIndex build(Collection<RegionPolygon> polygons, int precision) {
+        List<RegionPolygon> ordered = new ArrayList<>(polygons);
+        ordered.sort(Comparator.comparingDouble(RegionPolygon::boxArea));
+
+        double height = Geohash.cellHeight(precision);
+        double width = Geohash.cellWidth(precision);
+        Map<Long, List<RegionPolygon>> building = new HashMap<>();
+        for (RegionPolygon polygon : ordered) {
+            // Every cell from the one holding the box's south-west corner to the one holding its north-east corner
+            double startLat = Math.floor((polygon.minLatitude() + 90) / height) * height - 90;
+            double startLon = Math.floor((polygon.minLongitude() + 180) / width) * width - 180;
+            int rows = (int) Math.floor((polygon.maxLatitude() - startLat) / height) + 1;
+            int columns = (int) Math.floor((polygon.maxLongitude() - startLon) / width) + 1;
+            for (int row = 0; row < rows; row++) {
+                double lat = Math.min(startLat + (row + 0.5) * height, 90);
+                for (int column = 0; column < columns; column++) {
+                    double lon = Math.min(startLon + (column + 0.5) * width, 180);
+                    building.computeIfAbsent(Geohash.encode(lat, lon, precision), c -> new ArrayList<>(2)).add(polygon);
+                }
+            }
+        }
+
+        Map<Long, RegionPolygon[]> cells = new HashMap<>(building.size() * 2);
+        building.forEach((cell, candidates) -> cells.put(cell, candidates.toArray(NONE)));
+        return new RegionSpatialIndex(precision, cells);
+    }
+
+    // Region code containing the point, or null
+    public String locate(double latitude, double longitude) {
+        RegionPolygon[] candidates = cells.get(Geohash.encode(latitude, longitude, precision));
+        if (candidates == null) {
+            return null;
+        }
+        for (RegionPolygon polygon : candidates) {
+            if (polygon.contains(latitude, longitude)) {
+                return polygon.region();
+            }
+        }
+        return null;
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+
+    public int precision() {
+        return precision;
+    }
+}
@@ -0,0 +1,51 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.EnergyData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class EnergyDataBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO energy_data " +
+        "(region, region_id, timestamp, solar_generation, wind_generation, total_consumption, grid_demand, energy_price) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public int insertAll(List<EnergyData> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, 1000, (ps, data) -> {
+            ps.setString(1, data.getRegion());
+            ps.setObject(2, data.getRegionId(), Types.INTEGER);
+            ps.setTimestamp(3, Timestamp.valueOf(data.getTimestamp()));
+            setNullableDouble(ps, 4, data.getSolarGeneration());
+            setNullableDouble(ps, 5, data.getWindGeneration());
+            setNullableDouble(ps, 6, data.getTotalConsumption());
+            setNullableDouble(ps, 7, data.getGridDemand());
+            setNullableDouble(ps, 8, data.getEnergyPrice());
+        });
+        return rows.size();
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.weather.service.repository;
 
 import com.weather.service.entity.EnergyData;
+import com.weather.service.repository.projection.EnergyAggregate;
+import com.weather.service.repository.projection.EnergyReading;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -10,10 +14,16 @@ import java.util.List;
 @Repository
 public interface EnergyDataRepository extends JpaRepository<EnergyData, Long> {
     
-    List<EnergyData> findByRegionOrderByTimestampDesc(String region);
+    // Read paths select into EnergyReading so no entities are hydrated or tracked
+    @Query("SELECT new com.weather.service.repository.projection.EnergyReading(e.timestamp, e.solarGeneration, " +
+           "e.windGeneration, e.totalConsumption, e.gridDemand, e.energyPrice) " +
+           "FROM EnergyData e WHERE e.regionId = :regionId ORDER BY e.timestamp DESC")
+    List<EnergyReading> findLatestReadings(@Param("regionId") int regionId, Limit limit);
     
-    @Query("SELECT e FROM EnergyData e WHERE e.region = ?1 AND e.timestamp >= ?2")
-    List<EnergyData> findByRegionAndTimestampAfter(String region, LocalDateTime since);
-    
-    // TODO: Add more complex queries for analytics
-}
\ No newline at end of file
+    @Query("SELECT COUNT(e) AS sampleCount, " +
+           "AVG(COALESCE(e.solarGeneration, 0) + COALESCE(e.windGeneration, 0)) AS averageGeneration, " +
+           "MAX(COALESCE(e.solarGeneration, 0) + COALESCE(e.windGeneration, 0)) AS peakGeneration, " +
+           "AVG(e.totalConsumption) AS averageConsumption, AVG(e.energyPrice) AS averagePrice " +
+           "FROM EnergyData e WHERE e.regionId = :regionId AND e.timestamp >= :since")
+    EnergyAggregate summarizeSince(@Param("regionId") int regionId, @Param("since") LocalDateTime since);
+}
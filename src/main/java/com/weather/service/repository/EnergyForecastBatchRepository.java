@@ -0,0 +1,56 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.EnergyForecast;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class EnergyForecastBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO energy_forecasts " +
+        "(region, forecast_date, target_date, forecast_type, predicted_demand, predicted_solar_generation, " +
+        "predicted_wind_generation, predicted_price, confidence_level, sunlight_hours, wind_speed, cloud_cover) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public int insertAll(List<EnergyForecast> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, 1000, (ps, forecast) -> {
+            ps.setString(1, forecast.getRegion());
+            ps.setTimestamp(2, Timestamp.valueOf(forecast.getForecastDate()));
+            ps.setTimestamp(3, Timestamp.valueOf(forecast.getTargetDate()));
+            ps.setString(4, forecast.getForecastType());
+            ps.setDouble(5, forecast.getPredictedDemand());
+            ps.setDouble(6, forecast.getPredictedSolarGeneration());
+            ps.setDouble(7, forecast.getPredictedWindGeneration());
+            ps.setDouble(8, forecast.getPredictedPrice());
+            ps.setDouble(9, forecast.getConfidenceLevel());
+            setNullableDouble(ps, 10, forecast.getSunlightHours());
+            setNullableDouble(ps, 11, forecast.getWindSpeed());
+            setNullableDouble(ps, 12, forecast.getCloudCover());
+        });
+        return rows.size();
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
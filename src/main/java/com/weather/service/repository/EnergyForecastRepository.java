@@ -0,0 +1,40 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.EnergyForecast;
+import com.weather.service.repository.projection.ForecastPoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EnergyForecastRepository extends JpaRepository<EnergyForecast, Long> {
+    
+    // forecastDate is the model cycle that issued a row; the latest cycle of a region is the current forecast
+    @Query("SELECT MAX(f.forecastDate) FROM EnergyForecast f WHERE f.region = :region")
+    LocalDateTime findLatestCycle(@Param("region") String region);
+    
+    @Query("SELECT new com.weather.service.repository.projection.ForecastPoint(f.forecastType, f.targetDate, " +
+           "f.predictedDemand, f.predictedSolarGeneration, f.predictedWindGeneration, f.predictedPrice, " +
+           "f.confidenceLevel, f.sunlightHours, f.windSpeed, f.cloudCover) " +
+           "FROM EnergyForecast f WHERE f.region = :region AND f.forecastDate = :cycle " +
+           "ORDER BY f.forecastType, f.targetDate")
+    List<ForecastPoint> findCycle(@Param("region") String region, @Param("cycle") LocalDateTime cycle);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EnergyForecast f WHERE f.region = :region AND f.forecastDate < :before")
+    int deleteCyclesBefore(@Param("region") String region, @Param("before") LocalDateTime before);
+    
+    // Cycles of [from, before) other than those issued in the midnight hour
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EnergyForecast f WHERE f.region = :region AND f.forecastDate >= :from " +
+           "AND f.forecastDate < :before AND EXTRACT(HOUR FROM f.forecastDate) <> 0")
+    int deleteIntradayCyclesBetween(@Param("region") String region, @Param("from") LocalDateTime from,
+                                    @Param("before") LocalDateTime before);
+}
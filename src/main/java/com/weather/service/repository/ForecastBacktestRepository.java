@@ -0,0 +1,19 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.ForecastBacktest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ForecastBacktestRepository extends JpaRepository<ForecastBacktest, Long> {
+    
+    @Query("SELECT MAX(b.runAt) FROM ForecastBacktest b WHERE b.region = :region AND b.forecastType = :forecastType")
+    LocalDateTime findLatestRun(@Param("region") String region, @Param("forecastType") String forecastType);
+    
+    List<ForecastBacktest> findByRegionAndForecastTypeAndRunAtOrderByHorizonDay(String region, String forecastType,
+                                                                               LocalDateTime runAt);
+}
@@ -0,0 +1,118 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.HistoricalWeatherData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class HistoricalWeatherDataBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO historical_weather_data " +
+        "(region, region_id, timestamp, temperature, wind_speed, solar_irradiance, cloud_cover, " +
+        "solar_generation, wind_generation, total_consumption, efficiency) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COPY_SQL = "COPY historical_weather_data " +
+        "(region, region_id, timestamp, temperature, wind_speed, solar_irradiance, cloud_cover, " +
+        "solar_generation, wind_generation, total_consumption, efficiency) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public int insertAll(List<HistoricalWeatherData> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Integer copied = jdbcTemplate.execute((Connection connection) -> copyIfSupported(connection, rows));
+        if (copied != null) {
+            return copied;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                HistoricalWeatherData data = rows.get(i);
+                ps.setString(1, data.getRegion());
+                ps.setObject(2, data.getRegionId(), Types.INTEGER);
+                ps.setTimestamp(3, Timestamp.valueOf(data.getTimestamp()));
+                ps.setDouble(4, data.getTemperature());
+                ps.setDouble(5, data.getWindSpeed());
+                ps.setDouble(6, data.getSolarIrradiance());
+                ps.setDouble(7, data.getCloudCover());
+                ps.setDouble(8, data.getSolarGeneration());
+                ps.setDouble(9, data.getWindGeneration());
+                ps.setDouble(10, data.getTotalConsumption());
+                ps.setDouble(11, data.getEfficiency());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        return rows.size();
+    }
+
+    // PostgreSQL COPY streams the whole batch in one round trip; other databases fall back to JDBC batching.
+    // The driver is a runtime-only dependency, so its copy API is reached reflectively.
+    private Integer copyIfSupported(Connection connection, List<HistoricalWeatherData> rows) throws SQLException {
+        Class<?> pgConnectionClass = pgConnectionClass();
+        if (pgConnectionClass == null || !connection.isWrapperFor(pgConnectionClass)) {
+            return null;
+        }
+
+        StringBuilder csv = new StringBuilder(rows.size() * 96);
+        for (HistoricalWeatherData data : rows) {
+            csv.append('"').append(data.getRegion().replace("\"", "\"\"")).append('"').append(',')
+               .append(data.getRegionId() == null ? "" : data.getRegionId()).append(',')
+               .append(Timestamp.valueOf(data.getTimestamp())).append(',')
+               .append(data.getTemperature()).append(',')
+               .append(data.getWindSpeed()).append(',')
+               .append(data.getSolarIrradiance()).append(',')
+               .append(data.getCloudCover()).append(',')
+               .append(data.getSolarGeneration()).append(',')
+               .append(data.getWindGeneration()).append(',')
+               .append(data.getTotalConsumption()).append(',')
+               .append(data.getEfficiency()).append('\n');
+        }
+
+        try {
+            Object pgConnection = connection.unwrap(pgConnectionClass);
+            Object copyManager = pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+            Object copied = copyManager.getClass().getMethod("copyIn", String.class, Reader.class)
+                .invoke(copyManager, COPY_SQL, new StringReader(csv.toString()));
+            return ((Long) copied).intValue();
+        } catch (InvocationTargetException e) {
+            // The driver's own exception carries the SQL state that tells rejected data from a failed connection
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("COPY into historical_weather_data failed", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("PostgreSQL copy API unavailable", e);
+        }
+    }
+
+    private static Class<?> pgConnectionClass() {
+        try {
+            return Class.forName("org.postgresql.PGConnection");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -1,30 +1,49 @@
 package com.weather.service.repository;
 
 import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.repository.projection.HistoricalAggregate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface HistoricalWeatherDataRepository extends JpaRepository<HistoricalWeatherData, Long> {
     
-    List<HistoricalWeatherData> findByRegionAndTimestampBetweenOrderByTimestampDesc(
-        String region, LocalDateTime start, LocalDateTime end);
+    // Cursor-backed stream for long ranges; callers must consume it inside a read-only transaction and close it
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT h FROM HistoricalWeatherData h WHERE h.regionId = :regionId " +
+           "AND h.timestamp >= :start AND h.timestamp < :end ORDER BY h.timestamp, h.id")
+    Stream<HistoricalWeatherData> streamByRegionAndTimestampRange(@Param("regionId") int regionId,
+                                                                  @Param("start") LocalDateTime start,
+                                                                  @Param("end") LocalDateTime end);
     
-    @Query("SELECT h FROM HistoricalWeatherData h WHERE h.region = :region AND h.timestamp >= :since ORDER BY h.timestamp DESC")
-    List<HistoricalWeatherData> findRecentDataByRegion(@Param("region") String region, @Param("since") LocalDateTime since);
+    // Keyset page on (timestamp, id): rows strictly after the last row of the previous page
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT h FROM HistoricalWeatherData h WHERE h.regionId = :regionId AND h.timestamp < :end " +
+           "AND (h.timestamp > :afterTimestamp OR (h.timestamp = :afterTimestamp AND h.id > :afterId)) " +
+           "ORDER BY h.timestamp, h.id")
+    List<HistoricalWeatherData> findPageAfter(@Param("regionId") int regionId,
+                                              @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                              @Param("afterId") Long afterId,
+                                              @Param("end") LocalDateTime end,
+                                              Limit limit);
     
-    @Query("SELECT AVG(h.efficiency) FROM HistoricalWeatherData h WHERE h.region = :region AND h.timestamp >= :since")
-    Double getAverageEfficiencyByRegion(@Param("region") String region, @Param("since") LocalDateTime since);
-    
-    // TimescaleDB time-bucket queries for better performance
-    @Query(value = "SELECT time_bucket('1 hour', timestamp) as hour, " +
-           "AVG(temperature) as avg_temp, AVG(solar_generation) as avg_solar " +
-           "FROM historical_weather_data " +
-           "WHERE region = :region AND timestamp >= :since " +
-           "GROUP BY hour ORDER BY hour DESC LIMIT 24", nativeQuery = true)
-    List<Object[]> findHourlyAverages(@Param("region") String region, @Param("since") LocalDateTime since);
-}
\ No newline at end of file
+    @Query("SELECT COUNT(h) AS sampleCount, AVG(h.efficiency) AS averageEfficiency, " +
+           "MAX(h.solarGeneration + h.windGeneration) AS peakGeneration FROM HistoricalWeatherData h " +
+           "WHERE h.regionId = :regionId AND h.timestamp >= :start AND h.timestamp < :end")
+    HistoricalAggregate summarizeRange(@Param("regionId") int regionId,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,9 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.ImportJobRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobRecordRepository extends JpaRepository<ImportJobRecord, String> {
+}
@@ -0,0 +1,218 @@
+package com.weather.service.repository;
+
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import com.weather.service.timeseries.TDigest;
+import com.weather.service.timeseries.WelfordStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class MetricRollupBatchRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO metric_rollups " +
+        "(source, region_id, resolution, bucket_start, metric, sample_count, sum_value, m2, min_value, max_value, avg_value, sketch) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM metric_rollups " +
+        "WHERE source = ? AND region_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String ROLL_UP_SQL = "INSERT INTO metric_rollups " +
+        "(source, region_id, resolution, bucket_start, metric, sample_count, sum_value, min_value, max_value, avg_value) " +
+        "SELECT source, region_id, ?, ?, metric, SUM(sample_count), SUM(sum_value), MIN(min_value), MAX(max_value), " +
+        "SUM(sum_value) / SUM(sample_count) FROM metric_rollups " +
+        "WHERE source = ? AND region_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ? " +
+        "GROUP BY source, region_id, metric";
+
+    private static final String UPDATE_M2_SQL = "UPDATE metric_rollups SET m2 = ? " +
+        "WHERE source = ? AND region_id = ? AND resolution = ? AND bucket_start = ? AND metric = ?";
+
+    private static final String UPDATE_SKETCH_SQL = "UPDATE metric_rollups SET sketch = ? " +
+        "WHERE source = ? AND region_id = ? AND resolution = ? AND bucket_start = ? AND metric = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // sketch is a serialized TDigest; null when not loaded or written before sketches existed
+    // m2 is the sum of squared deviations from the bucket mean
+    public record RollupRow(LocalDateTime bucketStart, String metric, long count, double sum, double m2,
+                            double min, double max, byte[] sketch) {
+    }
+
+    @FunctionalInterface
+    public interface SketchHandler {
+        void handle(int regionId, String metric, TDigest digest);
+    }
+
+    @FunctionalInterface
+    public interface RawRowHandler {
+        // values holds one entry per source metric, NaN where the column is NULL
+        void handle(LocalDateTime timestamp, double[] values);
+    }
+
+    // Streams raw rows in timestamp order without materializing the range
+    @Transactional(readOnly = true)
+    public void scanRaw(RollupSource source, int regionId, LocalDateTime start, LocalDateTime end,
+                        RawRowHandler handler) {
+        String sql = "SELECT timestamp, " + source.selectList() + " FROM " + source.getTable() +
+            " WHERE region_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp";
+        int metrics = source.metricCount();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setInt(1, regionId);
+            ps.setTimestamp(2, Timestamp.valueOf(start));
+            ps.setTimestamp(3, Timestamp.valueOf(end));
+            return ps;
+        }, (ResultSet rs) -> {
+            double[] values = new double[metrics];
+            for (int m = 0; m < metrics; m++) {
+                double value = rs.getDouble(m + 2);
+                values[m] = rs.wasNull() ? Double.NaN : value;
+            }
+            handler.handle(rs.getTimestamp(1).toLocalDateTime(), values);
+        });
+    }
+
+    @Transactional
+    public void replaceBuckets(RollupSource source, int regionId, RollupResolution resolution,
+                               LocalDateTime start, LocalDateTime end, List<RollupRow> rows) {
+        jdbcTemplate.update(DELETE_SQL, source.name(), regionId, resolution.name(),
+            Timestamp.valueOf(start), Timestamp.valueOf(end));
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, 500, (ps, row) -> {
+            ps.setString(1, source.name());
+            ps.setInt(2, regionId);
+            ps.setString(3, resolution.name());
+            ps.setTimestamp(4, Timestamp.valueOf(row.bucketStart()));
+            ps.setString(5, row.metric());
+            ps.setLong(6, row.count());
+            ps.setDouble(7, row.sum());
+            ps.setDouble(8, row.m2());
+            ps.setDouble(9, row.min());
+            ps.setDouble(10, row.max());
+            ps.setDouble(11, row.sum() / row.count());
+            if (row.sketch() == null) {
+                ps.setNull(12, Types.BINARY);
+            } else {
+                ps.setBytes(12, row.sketch());
+            }
+        });
+    }
+
+    // Rebuilds one coarse bucket from the finer buckets it contains
+    @Transactional
+    public void rollUp(RollupSource source, int regionId, RollupResolution from, RollupResolution to,
+                       LocalDateTime bucketStart) {
+        LocalDateTime bucketEnd = bucketStart.plus(to.getBucket());
+        jdbcTemplate.update(DELETE_SQL, source.name(), regionId, to.name(),
+            Timestamp.valueOf(bucketStart), Timestamp.valueOf(bucketEnd));
+        jdbcTemplate.update(ROLL_UP_SQL, to.name(), Timestamp.valueOf(bucketStart),
+            source.name(), regionId, from.name(), Timestamp.valueOf(bucketStart), Timestamp.valueOf(bucketEnd));
+
+        // M2 does not add up across buckets: merging also needs each bucket's offset from the combined mean, so
+        // the finer buckets are merged here with Chan et al.'s pairwise update
+        Map<String, WelfordStats> moments = new HashMap<>();
+        for (RollupRow row : findBuckets(source, regionId, from, bucketStart, bucketEnd)) {
+            moments.computeIfAbsent(row.metric(), m -> new WelfordStats(1))
+                .addAggregate(0, row.count(), row.sum(), row.m2(), row.min(), row.max());
+        }
+        List<Map.Entry<String, WelfordStats>> m2s = new ArrayList<>(moments.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_M2_SQL, m2s, 500, (ps, entry) -> {
+            ps.setDouble(1, entry.getValue().m2(0));
+            ps.setString(2, source.name());
+            ps.setInt(3, regionId);
+            ps.setString(4, to.name());
+            ps.setTimestamp(5, Timestamp.valueOf(bucketStart));
+            ps.setString(6, entry.getKey());
+        });
+
+        // SQL cannot merge digests, so the coarse bucket's sketches are merged here from the finer ones
+        Map<String, TDigest> merged = new HashMap<>();
+        scanSketches(source, List.of(regionId), from, bucketStart, bucketEnd,
+            (r, metric, digest) -> merged.computeIfAbsent(metric, m -> new TDigest()).merge(digest));
+        List<Map.Entry<String, TDigest>> sketches = new ArrayList<>(merged.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_SKETCH_SQL, sketches, 500, (ps, entry) -> {
+            ps.setBytes(1, entry.getValue().toBytes());
+            ps.setString(2, source.name());
+            ps.setInt(3, regionId);
+            ps.setString(4, to.name());
+            ps.setTimestamp(5, Timestamp.valueOf(bucketStart));
+            ps.setString(6, entry.getKey());
+        });
+    }
+
+    // Streams the stored sketches of buckets in [start, end) for the given regions; buckets without one are skipped
+    @Transactional(readOnly = true)
+    public void scanSketches(RollupSource source, List<Integer> regionIds, RollupResolution resolution,
+                             LocalDateTime start, LocalDateTime end, SketchHandler handler) {
+        if (regionIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(regionIds.size(), "?"));
+        String sql = "SELECT region_id, metric, sketch FROM metric_rollups WHERE source = ? AND region_id IN (" + placeholders +
+            ") AND resolution = ? AND bucket_start >= ? AND bucket_start < ? AND sketch IS NOT NULL";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            int index = 1;
+            ps.setString(index++, source.name());
+            for (int regionId : regionIds) {
+                ps.setInt(index++, regionId);
+            }
+            ps.setString(index++, resolution.name());
+            ps.setTimestamp(index++, Timestamp.valueOf(start));
+            ps.setTimestamp(index, Timestamp.valueOf(end));
+            return ps;
+        }, (ResultSet rs) -> {
+            handler.handle(rs.getInt(1), rs.getString(2), TDigest.fromBytes(rs.getBytes(3)));
+        });
+    }
+
+    // Buckets of [start, end) in bucket order; m2 is NaN for rows that predate the column
+    public List<RollupRow> findBuckets(RollupSource source, int regionId, RollupResolution resolution,
+                                       LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.query("SELECT bucket_start, metric, sample_count, sum_value, m2, min_value, max_value " +
+                "FROM metric_rollups WHERE source = ? AND region_id = ? AND resolution = ? " +
+                "AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+            (rs, i) -> {
+                double m2 = rs.getDouble(5);
+                if (rs.wasNull()) {
+                    m2 = Double.NaN;
+                }
+                return new RollupRow(rs.getTimestamp(1).toLocalDateTime(), rs.getString(2), rs.getLong(3),
+                    rs.getDouble(4), m2, rs.getDouble(6), rs.getDouble(7), null);
+            },
+            source.name(), regionId, resolution.name(), Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    public LocalDateTime findEarliestRaw(RollupSource source, int regionId) {
+        Timestamp earliest = jdbcTemplate.queryForObject(
+            "SELECT MIN(timestamp) FROM " + source.getTable() + " WHERE region_id = ?", Timestamp.class, regionId);
+        return earliest == null ? null : earliest.toLocalDateTime();
+    }
+
+    public LocalDateTime findLatestBucket(RollupSource source, int regionId, RollupResolution resolution) {
+        Timestamp latest = jdbcTemplate.queryForObject(
+            "SELECT MAX(bucket_start) FROM metric_rollups WHERE source = ? AND region_id = ? AND resolution = ?",
+            Timestamp.class, source.name(), regionId, resolution.name());
+        return latest == null ? null : latest.toLocalDateTime();
+    }
+}
@@ -0,0 +1,21 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.MetricRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MetricRollupRepository extends JpaRepository<MetricRollup, Long> {
+    
+    // metric, total count, total sum, min, max across the buckets of the range
+    @Query("SELECT r.metric, SUM(r.sampleCount), SUM(r.sumValue), MIN(r.minValue), MAX(r.maxValue) " +
+           "FROM MetricRollup r WHERE r.source = :source AND r.regionId = :regionId AND r.resolution = :resolution " +
+           "AND r.bucketStart >= :start AND r.bucketStart < :end GROUP BY r.metric")
+    List<Object[]> summarizeRange(@Param("source") String source, @Param("regionId") int regionId,
+                                  @Param("resolution") String resolution,
+                                  @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
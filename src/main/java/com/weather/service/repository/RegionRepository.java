@@ -0,0 +1,12 @@
+package com.weather.service.repository;
+
+import com.weather.service.entity.Region;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RegionRepository extends JpaRepository<Region, Integer> {
+    Optional<Region> findByCode(String code);
+}
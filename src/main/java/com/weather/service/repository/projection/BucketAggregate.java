@@ -0,0 +1,7 @@
+package com.weather.service.repository.projection;
+
+import java.time.LocalDateTime;
+
+// One time bucket of a grouped series; the statistics are null when no row of the bucket had a value
+public record BucketAggregate(LocalDateTime bucket, long sampleCount, Double average, Double maximum, Double p95) {
+}
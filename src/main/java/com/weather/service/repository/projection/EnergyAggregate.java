@@ -0,0 +1,14 @@
+package com.weather.service.repository.projection;
+
+public interface EnergyAggregate {
+
+    long getSampleCount();
+
+    Double getAverageGeneration();
+
+    Double getPeakGeneration();
+
+    Double getAverageConsumption();
+
+    Double getAveragePrice();
+}
@@ -0,0 +1,15 @@
+package com.weather.service.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record EnergyReading(LocalDateTime timestamp, Double solarGeneration, Double windGeneration,
+                            Double totalConsumption, Double gridDemand, Double energyPrice) {
+
+    public double totalGeneration() {
+        return valueOrZero(solarGeneration) + valueOrZero(windGeneration);
+    }
+
+    private static double valueOrZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+}
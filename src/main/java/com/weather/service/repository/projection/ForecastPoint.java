@@ -0,0 +1,9 @@
+package com.weather.service.repository.projection;
+
+import java.time.LocalDateTime;
+
+// One stored forecast row; the weather columns are null except on GENERATION rows
+public record ForecastPoint(String forecastType, LocalDateTime targetDate, Double predictedDemand,
+                            Double predictedSolarGeneration, Double predictedWindGeneration, Double predictedPrice,
+                            Double confidenceLevel, Double sunlightHours, Double windSpeed, Double cloudCover) {
+}
@@ -0,0 +1,10 @@
+package com.weather.service.repository.projection;
+
+public interface HistoricalAggregate {
+
+    long getSampleCount();
+
+    Double getAverageEfficiency();
+
+    Double getPeakGeneration();
+}
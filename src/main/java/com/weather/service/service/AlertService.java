@@ -6,6 +6,7 @@ import com.weather.service.repository.AlertRepository;
 import com.weather.service.repository.AlertHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
@@ -19,7 +20,7 @@ public class AlertService {
     private final AlertRepository alertRepository;
     private final AlertHistoryRepository alertHistoryRepository;
     private final NotificationService notificationService;
-    private final EnergyAnalyticsService energyAnalyticsService;
+    private final RegionStateStore regionStateStore;
     
     public Alert createAlert(Long userId, Map<String, Object> alertData) {
         Alert alert = new Alert();
@@ -113,18 +114,21 @@ public class AlertService {
     
     private Map<String, Object> getCurrentDataForAlert(Alert alert) {
         try {
-            // Get current analytics data for the region
-            Map<String, Object> analytics = energyAnalyticsService.getEnergyDashboard(alert.getRegion());
+            // Same published snapshot the dashboard and websocket read
+            RegionStateStore.RegionState state = regionStateStore.current(alert.getRegion());
             
             switch (alert.getAlertType()) {
                 case "DEMAND":
-                    return Map.of("value", (Double) analytics.get("consumption"));
+                    return Map.of("value", state.consumption());
                 case "GENERATION":
-                    return Map.of("value", (Double) analytics.get("totalGeneration"));
+                    return Map.of("value", state.totalGeneration());
                 case "EFFICIENCY":
-                    return Map.of("value", (Double) analytics.get("efficiency"));
+                    return Map.of("value", state.efficiency());
                 case "PRICE":
-                    // Mock price data for now
+                    if (!Double.isNaN(state.energyPrice())) {
+                        return Map.of("value", state.energyPrice());
+                    }
+                    // Mock price data until the region has stored readings
                     return Map.of("value", 45.0 + Math.random() * 20);
                 default:
                     return null;
@@ -135,6 +139,24 @@ public class AlertService {
         }
     }
     
+    // ANOMALY alerts compare the anomaly's |z| against their threshold instead of polling a value
+    @EventListener
+    public void onAnomaly(AnomalyDetectedEvent event) {
+        for (Alert alert : alertRepository.findByRegionAndIsActiveTrue(event.region())) {
+            if (!"ANOMALY".equals(alert.getAlertType())) {
+                continue;
+            }
+            try {
+                double magnitude = Math.abs(event.zScore());
+                if (evaluateThreshold(magnitude, alert.getThresholdValue(), alert.getThresholdOperator())) {
+                    triggerAlert(alert, magnitude);
+                }
+            } catch (Exception e) {
+                log.error("Error handling anomaly for alert {}: {}", alert.getId(), e.getMessage());
+            }
+        }
+    }
+    
     private boolean evaluateThreshold(Double currentValue, Double thresholdValue, String operator) {
         switch (operator) {
             case "GREATER_THAN":
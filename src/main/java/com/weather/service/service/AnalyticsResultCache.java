@@ -0,0 +1,156 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Analytics results keyed by endpoint, region and window. Concurrent misses on a key share one computation,
+// and a region's entries go stale the moment new data for it is written, so there is no short TTL to tune.
+// maxAgeSeconds only bounds results that drift with the clock, such as windows ending "now".
+@Service
+@Slf4j
+public class AnalyticsResultCache {
+
+    public static final String DASHBOARD = "dashboard";
+    public static final String CORRELATION = "weather-correlation";
+    public static final String TRENDS = "trends";
+    public static final String HISTORICAL = "historical";
+    public static final String HOURLY = "historical-hourly";
+    public static final String STATS = "historical-stats";
+
+    private record Key(String endpoint, String region, String window) {
+    }
+
+    // generation is the region's generation when the computation started
+    private record Entry(long generation, long createdNanos, CompletableFuture<Object> result) {
+    }
+
+    private final AppConfig.AnalyticsCache config;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Keys of each region's entries, so a change drops them without scanning the whole cache. A key can
+    // outlive its entry here until the region next changes; a missed key only delays reclaiming a stale entry.
+    private final Map<String, Set<Key>> keysByRegion = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AnalyticsResultCache(AppConfig appConfig) {
+        this.config = appConfig.getAnalyticsCache();
+    }
+
+    // The loader runs on the calling thread of the first miss; callers arriving meanwhile wait for its result,
+    // and a failure is rethrown to all of them without being cached
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, String region, String window, Supplier<T> loader) {
+        Key key = new Key(endpoint, region, window);
+        long generation = generation(region);
+
+        Entry entry = entries.get(key);
+        if (isCurrent(entry, generation)) {
+            (entry.result().isDone() ? hits : coalesced).incrementAndGet();
+            return (T) join(entry.result());
+        }
+
+        Entry fresh = new Entry(generation, System.nanoTime(), new CompletableFuture<>());
+        entry = entries.compute(key, (k, existing) -> isCurrent(existing, generation) ? existing : fresh);
+        if (entry != fresh) {
+            coalesced.incrementAndGet();
+            return (T) join(entry.result());
+        }
+
+        misses.incrementAndGet();
+        keysByRegion.computeIfAbsent(region, r -> ConcurrentHashMap.newKeySet()).add(key);
+        evictIfFull();
+        try {
+            T value = loader.get();
+            fresh.result().complete(value);
+            return value;
+        } catch (Throwable e) {
+            entries.remove(key, fresh);
+            fresh.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Bumped on every change to the region's data; a result computed under an older generation is stale
+    public long generation(String region) {
+        AtomicLong generation = generations.get(region);
+        return generation == null ? 0 : generation.get();
+    }
+
+    // Runs before other listeners of the event so they never observe a stale entry as current. The event is
+    // published on ingest threads, so this only touches the changed regions' own entries.
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onRegionDataChanged(RegionDataChangedEvent event) {
+        for (String region : event.regions()) {
+            generations.computeIfAbsent(region, r -> new AtomicLong()).incrementAndGet();
+            Set<Key> keys = keysByRegion.remove(region);
+            if (keys != null) {
+                keys.forEach(entries::remove);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "entries", entries.size(),
+            "hits", hits.get(),
+            "coalesced", coalesced.get(),
+            "misses", misses.get()
+        );
+    }
+
+    private boolean isCurrent(Entry entry, long generation) {
+        return entry != null
+            && entry.generation() == generation
+            && !entry.result().isCompletedExceptionally()
+            && System.nanoTime() - entry.createdNanos() < TimeUnit.SECONDS.toNanos(config.getMaxAgeSeconds());
+    }
+
+    // Expired entries go first; if that is not enough, arbitrary completed ones until back under the limit
+    private void evictIfFull() {
+        if (entries.size() <= config.getMaxEntries()) {
+            return;
+        }
+        long maxAgeNanos = TimeUnit.SECONDS.toNanos(config.getMaxAgeSeconds());
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.createdNanos() >= maxAgeNanos);
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > config.getMaxEntries() && iterator.hasNext()) {
+            if (iterator.next().result().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // Rethrows the loader's own exception so callers handle it as if they had computed the result themselves
+    private static Object join(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.weather.service.service;
+
+import com.weather.service.timeseries.HistoricalMetric;
+
+import java.time.LocalDateTime;
+
+// Published by AnomalyDetectionService for each metric of an ingested sample that crosses the threshold.
+// detector is "seasonal" when scored against the hour-of-day baseline, "ewma" while that is still warming up.
+public record AnomalyDetectedEvent(String region, HistoricalMetric metric, LocalDateTime timestamp,
+                                   double value, double expected, double zScore, String detector) {
+
+    public boolean isSpike() {
+        return zScore > 0;
+    }
+}
@@ -0,0 +1,161 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.timeseries.AnomalyDetector;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollupSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Scores every ingested sample per region and metric and publishes AnomalyDetectedEvent for outliers.
+// Scoring happens inline; listeners run on a dispatcher thread so ingest never waits on them.
+@Service
+@Slf4j
+public class AnomalyDetectionService {
+
+    private final MetricRollupBatchRepository rawRepository;
+    private final RegionRegistry regionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppConfig.Anomaly config;
+    private final ConcurrentHashMap<String, RegionDetector> detectors = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "anomaly-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final class RegionDetector {
+        private final AnomalyDetector detector = new AnomalyDetector(HistoricalMetric.count(), config.getThreshold());
+        private final Deque<AnomalyDetectedEvent> recent = new ArrayDeque<>();
+
+        // Returns the anomalies of the sample, or null when there are none (the common case allocates nothing)
+        synchronized List<AnomalyDetectedEvent> score(String region, LocalDateTime timestamp, double[] values) {
+            if (detector.score(EpochTime.toMillis(timestamp), values) == 0) {
+                return null;
+            }
+            List<AnomalyDetectedEvent> events = new ArrayList<>();
+            for (int m = 0; m < values.length; m++) {
+                if (detector.isAnomalous(m)) {
+                    AnomalyDetectedEvent event = new AnomalyDetectedEvent(region, HistoricalMetric.byIndex(m), timestamp,
+                        values[m], detector.expected(m), detector.score(m), detector.detector(m));
+                    events.add(event);
+                    recent.addLast(event);
+                    if (recent.size() > config.getRecentCapacity()) {
+                        recent.removeFirst();
+                    }
+                }
+            }
+            return events;
+        }
+
+        synchronized void train(LocalDateTime timestamp, double[] values) {
+            detector.score(EpochTime.toMillis(timestamp), values);
+        }
+
+        // Keeps the anomalies already reported by the detector this one replaces
+        synchronized RegionDetector inherit(RegionDetector previous) {
+            synchronized (previous) {
+                recent.addAll(previous.recent);
+            }
+            return this;
+        }
+
+        synchronized List<AnomalyDetectedEvent> since(LocalDateTime since) {
+            List<AnomalyDetectedEvent> events = new ArrayList<>();
+            for (AnomalyDetectedEvent event : recent) {
+                if (!event.timestamp().isBefore(since)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+    }
+
+    public AnomalyDetectionService(MetricRollupBatchRepository rawRepository, RegionRegistry regionRegistry,
+                                   ApplicationEventPublisher eventPublisher, AppConfig appConfig) {
+        this.rawRepository = rawRepository;
+        this.regionRegistry = regionRegistry;
+        this.eventPublisher = eventPublisher;
+        this.config = appConfig.getAnomaly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    public void record(HistoricalWeatherData data) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        List<AnomalyDetectedEvent> events = detectorFor(data.getRegion())
+            .score(data.getRegion(), data.getTimestamp(), HistoricalMetric.valuesOf(data));
+        if (events != null) {
+            dispatcher.execute(() -> events.forEach(this::publish));
+        }
+    }
+
+    // Most recent anomalies of the region, oldest first
+    public List<AnomalyDetectedEvent> recent(String region, LocalDateTime since) {
+        RegionDetector detector = detectors.get(region);
+        return detector == null ? List.of() : detector.since(since);
+    }
+
+    // Baselines are trained from stored history without publishing, so detection is live right after startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        for (String region : regionRegistry.codes()) {
+            retrain(region);
+        }
+    }
+
+    // Rebuilds the region's baselines from stored history, e.g. after an import wrote samples older than the
+    // live ones. The baselines are order-sensitive, so the history is replayed in timestamp order rather than
+    // fed into the live detector; the trained detector then replaces whatever ingest created meanwhile.
+    // Samples ingested during the scan only reach the baselines if the scan already saw them.
+    public void retrain(String region) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            RegionDetector trained = new RegionDetector();
+            rawRepository.scanRaw(RollupSource.WEATHER, regionRegistry.lookup(region),
+                now.minusDays(config.getWarmupDays()), now, trained::train);
+            detectors.merge(region, trained, (live, rebuilt) -> rebuilt.inherit(live));
+        } catch (Exception e) {
+            log.error("Failed to train anomaly detector for region {}: {}", region, e.getMessage());
+        }
+    }
+
+    private RegionDetector detectorFor(String region) {
+        return detectors.computeIfAbsent(region, r -> new RegionDetector());
+    }
+
+    private void publish(AnomalyDetectedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            log.error("Anomaly listener failed for region {}: {}", event.region(), e.getMessage());
+        }
+    }
+}
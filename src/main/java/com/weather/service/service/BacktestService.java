@@ -0,0 +1,215 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.ForecastBacktest;
+import com.weather.service.repository.ForecastBacktestRepository;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.WalkForward;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Walk-forward backtest of the demand model: stored hourly history is replayed with one forecast origin per day,
+// each fold refitting on the history before its origin. Regions and folds run in parallel; every run is stored
+// and the latest one per region is kept in memory, where forecast confidence is read from.
+@Service
+@Slf4j
+public class BacktestService {
+
+    public static final String DEMAND = "DEMAND";
+
+    private static final int FOLD_STEP_HOURS = 24;
+
+    private final DemandModelService demandModelService;
+    private final ForecastBacktestRepository backtestRepository;
+    private final RegionRegistry regionRegistry;
+    private final AppConfig.Forecast config;
+    private final ConcurrentHashMap<String, Accuracy> latest = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    // mape is a fraction and null when every actual was 0
+    public record HorizonAccuracy(int horizonDay, int folds, long samples, Double mape, double rmse,
+                                  double pinballLoss, double intervalCoverage) {
+    }
+
+    public record Accuracy(String region, LocalDateTime evaluatedAt, List<HorizonAccuracy> horizons) {
+
+        // MAPE of the forecast day steps hours after the last observation; NaN when it was not measured
+        public double mape(long steps) {
+            if (horizons.isEmpty()) {
+                return Double.NaN;
+            }
+            int day = (int) Math.min(Math.max(0, (steps - 1) / 24), horizons.size() - 1);
+            Double mape = horizons.get(day).mape();
+            return mape == null ? Double.NaN : mape;
+        }
+    }
+
+    public BacktestService(DemandModelService demandModelService, ForecastBacktestRepository backtestRepository,
+                           RegionRegistry regionRegistry, AppConfig appConfig) {
+        this.demandModelService = demandModelService;
+        this.backtestRepository = backtestRepository;
+        this.regionRegistry = regionRegistry;
+        this.config = appConfig.getForecast();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getBacktestParallelism()), r -> {
+            Thread thread = new Thread(r, "forecast-backtest-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Latest stored backtest of the region, or null when it has never been evaluated
+    public Accuracy accuracy(String region) {
+        return latest.get(region);
+    }
+
+    // Loads the stored results ahead of the forecast cycle; regions without a run from the last day are
+    // evaluated in the background so startup does not wait for them
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 3)
+    public void load() {
+        LocalDateTime freshAfter = LocalDateTime.now().minusDays(1);
+        boolean stale = false;
+        for (String region : regionRegistry.codes()) {
+            try {
+                LocalDateTime runAt = backtestRepository.findLatestRun(region, DEMAND);
+                if (runAt != null) {
+                    List<HorizonAccuracy> horizons = backtestRepository
+                        .findByRegionAndForecastTypeAndRunAtOrderByHorizonDay(region, DEMAND, runAt).stream()
+                        .map(row -> new HorizonAccuracy(row.getHorizonDay(), row.getFolds(), row.getSamples(),
+                            row.getMape(), row.getRmse(), row.getPinballLoss(), row.getIntervalCoverage()))
+                        .toList();
+                    latest.put(region, new Accuracy(region, runAt, horizons));
+                }
+                stale |= runAt == null || runAt.isBefore(freshAfter);
+            } catch (Exception e) {
+                log.error("Failed to load forecast backtest of region {}: {}", region, e.getMessage());
+            }
+        }
+        if (stale) {
+            runAllAsync();
+        }
+    }
+
+    // After the nightly model refit. Only starts the run, the scheduler thread is shared by every scheduled task.
+    @Scheduled(cron = "0 50 2 * * *")
+    public void runNightly() {
+        runAllAsync();
+    }
+
+    public Map<String, Accuracy> runAll() {
+        return runAllAsync().join();
+    }
+
+    // Evaluates every region on the backtest pool; the results are stored and published there once all are in
+    public CompletableFuture<Map<String, Accuracy>> runAllAsync() {
+        long started = System.nanoTime();
+        LocalDateTime runAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = RollupResolution.HOUR.bucketStart(runAt);
+
+        Map<String, CompletableFuture<Accuracy>> runs = new LinkedHashMap<>();
+        for (String region : regionRegistry.codes()) {
+            runs.put(region, evaluate(region, end, runAt));
+        }
+        // A failed region must not keep the others from being stored, so completion is awaited either way
+        return CompletableFuture.allOf(runs.values().toArray(CompletableFuture[]::new))
+            .handleAsync((done, failure) -> collect(runs, runAt, started), executor);
+    }
+
+    private Map<String, Accuracy> collect(Map<String, CompletableFuture<Accuracy>> runs, LocalDateTime runAt,
+                                          long started) {
+        Map<String, Accuracy> results = new LinkedHashMap<>();
+        List<ForecastBacktest> rows = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Accuracy>> run : runs.entrySet()) {
+            try {
+                Accuracy accuracy = run.getValue().join();
+                if (accuracy != null) {
+                    results.put(run.getKey(), accuracy);
+                    accuracy.horizons().forEach(h -> rows.add(new ForecastBacktest(null, run.getKey(), runAt, DEMAND,
+                        h.horizonDay(), h.folds(), h.samples(), h.mape(), h.rmse(), h.pinballLoss(), h.intervalCoverage())));
+                }
+            } catch (Exception e) {
+                log.error("Failed to backtest demand forecasts of region {}: {}", run.getKey(), e.getMessage());
+            }
+        }
+
+        try {
+            backtestRepository.saveAll(rows);
+        } catch (Exception e) {
+            log.error("Failed to store forecast backtest run {}: {}", runAt, e.getMessage());
+        }
+        latest.putAll(results);
+        log.info("Backtested demand forecasts of {} of {} regions in {} ms", results.size(), runs.size(),
+            (System.nanoTime() - started) / 1_000_000);
+        return results;
+    }
+
+    // Origins step back one day at a time from the last one whose whole horizon has been observed
+    private CompletableFuture<Accuracy> evaluate(String region, LocalDateTime end, LocalDateTime runAt) {
+        int horizonDays = config.getHorizonDays();
+        int horizonHours = horizonDays * 24;
+        int trainingHours = config.getTrainingDays() * 24;
+        int folds = Math.max(1, config.getBacktestFolds());
+        LocalDateTime start = end.minusHours(trainingHours + horizonHours + (long) (folds - 1) * FOLD_STEP_HOURS);
+
+        return CompletableFuture.supplyAsync(() -> demandModelService.history(region, start, end), executor)
+            .thenCompose(series -> {
+                if (series == null) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                double[] y = series.values();
+                List<CompletableFuture<WalkForward.HorizonErrors>> foldRuns = new ArrayList<>();
+                for (int k = 0; k < folds; k++) {
+                    int origin = y.length - horizonHours - k * FOLD_STEP_HOURS;
+                    foldRuns.add(CompletableFuture.supplyAsync(() -> WalkForward.evaluateFold(series.firstHour(), y,
+                        origin, trainingHours, horizonDays), executor));
+                }
+                return CompletableFuture.allOf(foldRuns.toArray(CompletableFuture[]::new)).thenApply(done -> {
+                    WalkForward.HorizonErrors errors = new WalkForward.HorizonErrors(horizonDays);
+                    foldRuns.forEach(fold -> errors.merge(fold.join()));
+                    return errors;
+                });
+            })
+            .thenApply(errors -> errors == null ? null : toAccuracy(region, runAt, errors));
+    }
+
+    // Null when no fold had enough history before its origin
+    private static Accuracy toAccuracy(String region, LocalDateTime runAt, WalkForward.HorizonErrors errors) {
+        List<HorizonAccuracy> horizons = new ArrayList<>();
+        for (int d = 0; d < errors.days() && errors.samples(d) > 0; d++) {
+            double mape = errors.mape(d);
+            horizons.add(new HorizonAccuracy(d + 1, errors.folds(d), errors.samples(d),
+                Double.isNaN(mape) ? null : round4(mape), round4(errors.rmse(d)), round4(errors.pinballLoss(d)),
+                round4(errors.intervalCoverage(d))));
+        }
+        return horizons.isEmpty() ? null : new Accuracy(region, runAt, horizons);
+    }
+
+    private static double round4(double value) {
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+}
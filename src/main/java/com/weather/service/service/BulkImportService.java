@@ -0,0 +1,642 @@
+package com.weather.service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.EnergyData;
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.entity.ImportJobRecord;
+import com.weather.service.repository.EnergyDataBatchRepository;
+import com.weather.service.repository.HistoricalWeatherDataBatchRepository;
+import com.weather.service.repository.ImportJobRecordRepository;
+import com.weather.service.timeseries.RollupSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class BulkImportService {
+
+    public enum Dataset { WEATHER, ENERGY }
+
+    public enum Format { CSV, NDJSON }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final String[] WEATHER_FIELDS = {
+        "temperature", "windSpeed", "solarIrradiance", "cloudCover",
+        "solarGeneration", "windGeneration", "totalConsumption", "efficiency"
+    };
+
+    private static final String[] ENERGY_FIELDS = {
+        "solarGeneration", "windGeneration", "totalConsumption", "gridDemand", "energyPrice"
+    };
+
+    private final HistoricalWeatherDataBatchRepository weatherBatchRepository;
+    private final EnergyDataBatchRepository energyBatchRepository;
+    private final ImportJobRecordRepository jobRepository;
+    private final RollupService rollupService;
+    private final RecentSampleBufferService sampleBufferService;
+    private final RunningStatsService runningStatsService;
+    private final CorrelationMatrixService correlationMatrixService;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final RegionRegistry regionRegistry;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppConfig.BulkImport config;
+    // A chunk's rows and the job progress that counts them are committed together
+    private final TransactionTemplate chunkTransaction;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    // One job writes at a time; its chunks are parsed on a separate pool
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "bulk-import"));
+    private final ExecutorService parseExecutor;
+
+    public BulkImportService(HistoricalWeatherDataBatchRepository weatherBatchRepository,
+                             EnergyDataBatchRepository energyBatchRepository,
+                             ImportJobRecordRepository jobRepository,
+                             RollupService rollupService,
+                             RecentSampleBufferService sampleBufferService,
+                             RunningStatsService runningStatsService,
+                             CorrelationMatrixService correlationMatrixService,
+                             AnomalyDetectionService anomalyDetectionService,
+                             RegionRegistry regionRegistry,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             AppConfig appConfig) {
+        this.weatherBatchRepository = weatherBatchRepository;
+        this.energyBatchRepository = energyBatchRepository;
+        this.jobRepository = jobRepository;
+        this.rollupService = rollupService;
+        this.sampleBufferService = sampleBufferService;
+        this.runningStatsService = runningStatsService;
+        this.correlationMatrixService = correlationMatrixService;
+        this.anomalyDetectionService = anomalyDetectionService;
+        this.regionRegistry = regionRegistry;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.config = appConfig.getBulkImport();
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.parseExecutor = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        parseExecutor.shutdownNow();
+    }
+
+    public static class ImportJob {
+        private final String jobId;
+        private final Dataset dataset;
+        private final Format format;
+        private final Path file;
+        private final LocalDateTime createdAt;
+        private final AtomicLong importedRows = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        // Regions touched and the time span written for each, used to refresh rollups afterwards
+        private final Map<String, LocalDateTime[]> spans = new ConcurrentHashMap<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile int committedChunks;
+        private volatile long totalBytes;
+        private volatile String failure;
+        private volatile LocalDateTime finishedAt;
+
+        ImportJob(String jobId, Dataset dataset, Format format, Path file, LocalDateTime createdAt) {
+            this.jobId = jobId;
+            this.dataset = dataset;
+            this.format = format;
+            this.file = file;
+            this.createdAt = createdAt;
+        }
+
+        boolean isFinished() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("jobId", jobId);
+            map.put("dataset", dataset.name());
+            map.put("format", format.name());
+            map.put("status", status.name());
+            map.put("committedChunks", committedChunks);
+            map.put("importedRows", importedRows.get());
+            map.put("rejectedRows", rejectedRows.get());
+            map.put("uploadBytes", totalBytes);
+            map.put("errors", List.copyOf(errors));
+            map.put("createdAt", createdAt.toString());
+            if (failure != null) {
+                map.put("failure", failure);
+            }
+            if (finishedAt != null) {
+                map.put("finishedAt", finishedAt.toString());
+            }
+            return map;
+        }
+    }
+
+    private record ParsedChunk(int index, List<?> rows, int rejected, List<String> errors) {
+    }
+
+    // The upload is spooled to disk first so a failed job can be resumed without re-sending it, also after a restart
+    public ImportJob submit(Dataset dataset, Format format, InputStream upload) throws IOException {
+        String jobId = UUID.randomUUID().toString();
+        Path spool = Path.of(config.getSpoolDirectory());
+        Files.createDirectories(spool);
+        Path file = spool.resolve(jobId + "." + format.name().toLowerCase());
+        long bytes;
+        try {
+            bytes = Files.copy(upload, file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(jobId, dataset, format, file, LocalDateTime.now());
+        job.totalBytes = bytes;
+        jobs.put(job.getJobId(), job);
+        persist(job);
+        jobExecutor.submit(() -> run(job));
+
+        log.info("Queued {} {} import {} ({} bytes)", dataset, format, job.getJobId(), bytes);
+        return job;
+    }
+
+    // Continues after the last committed chunk. Chunks are committed in order, each in one transaction with the
+    // job's progress, so nothing is written twice. Synchronized so two resumes of a job cannot both queue it.
+    public synchronized ImportJob resume(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Import job not found: " + jobId);
+        }
+        if (job.status != Status.FAILED) {
+            throw new IllegalStateException("Only failed imports can be resumed, job is " + job.status);
+        }
+
+        if (!Files.exists(job.file)) {
+            throw new IllegalStateException("The spooled upload of job " + jobId + " no longer exists");
+        }
+
+        job.status = Status.QUEUED;
+        job.failure = null;
+        job.finishedAt = null;
+        persist(job);
+        jobExecutor.submit(() -> run(job));
+        return job;
+    }
+
+    // Jobs that were queued or running when the application stopped are restored as failed, ready to resume
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreJobs() {
+        for (ImportJobRecord record : jobRepository.findAll()) {
+            try {
+                ImportJob job = restore(record);
+                if (!job.isFinished()) {
+                    job.status = Status.FAILED;
+                    job.failure = "Interrupted by a restart after " + job.committedChunks + " chunks";
+                    job.finishedAt = LocalDateTime.now();
+                    persist(job);
+                }
+                jobs.put(job.jobId, job);
+            } catch (Exception e) {
+                log.error("Failed to restore import job {}: {}", record.getJobId(), e.getMessage());
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Restored {} import jobs", jobs.size());
+        }
+    }
+
+    // Finished jobs are kept for status queries and resumes until they expire; a failed job's upload goes with it
+    @Scheduled(fixedDelay = 600000)
+    public void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(config.getJobTtlHours());
+        for (ImportJob job : List.copyOf(jobs.values())) {
+            if (job.isFinished() && job.finishedAt != null && job.finishedAt.isBefore(cutoff)) {
+                jobs.remove(job.jobId);
+                try {
+                    Files.deleteIfExists(job.file);
+                    jobRepository.deleteById(job.jobId);
+                } catch (Exception e) {
+                    log.warn("Failed to clean up expired import job {}: {}", job.jobId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(ImportJob job) {
+        job.status = Status.RUNNING;
+        int window = Math.max(1, config.getParallelism()) * 2;
+        Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+
+        persist(job);
+
+        try (BufferedReader reader = Files.newBufferedReader(job.file, StandardCharsets.UTF_8)) {
+            String[] header = job.format == Format.CSV ? splitCsv(readRecord(reader, job.format)) : null;
+            List<String> lines = new ArrayList<>(config.getChunkSize());
+            int chunkIndex = 0;
+            String line;
+
+            while ((line = readRecord(reader, job.format)) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == config.getChunkSize()) {
+                    chunkIndex = dispatch(job, header, lines, chunkIndex, inFlight);
+                    lines = new ArrayList<>(config.getChunkSize());
+                    while (inFlight.size() >= window) {
+                        commit(job, inFlight.poll().get());
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                dispatch(job, header, lines, chunkIndex, inFlight);
+            }
+            while (!inFlight.isEmpty()) {
+                commit(job, inFlight.poll().get());
+            }
+
+            refreshDerivedData(job);
+            job.status = Status.COMPLETED;
+            job.finishedAt = LocalDateTime.now();
+            log.info("Import {} completed: {} rows imported, {} rejected",
+                job.jobId, job.importedRows.get(), job.rejectedRows.get());
+        } catch (Exception e) {
+            inFlight.forEach(future -> future.cancel(true));
+            job.status = Status.FAILED;
+            job.failure = e instanceof ExecutionException && e.getCause() != null
+                ? e.getCause().getMessage() : e.getMessage();
+            job.finishedAt = LocalDateTime.now();
+            log.error("Import {} failed after {} chunks: {}", job.jobId, job.committedChunks, job.failure);
+            // The committed chunks stay written, and the rollup catch-up only looks at the latest hours
+            if (job.committedChunks > 0) {
+                try {
+                    refreshDerivedData(job);
+                } catch (Exception refreshFailure) {
+                    log.error("Failed to refresh data derived from import {}: {}", job.jobId, refreshFailure.getMessage());
+                }
+            }
+        } finally {
+            // A failed job keeps its upload so it can be resumed; anything else is done with it
+            if (job.status != Status.FAILED) {
+                try {
+                    Files.deleteIfExists(job.file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete spooled upload {}: {}", job.file, e.getMessage());
+                }
+            }
+            persist(job);
+        }
+    }
+
+    private int dispatch(ImportJob job, String[] header, List<String> lines, int chunkIndex,
+                         Deque<Future<ParsedChunk>> inFlight) {
+        if (chunkIndex >= job.committedChunks) {
+            inFlight.add(parseExecutor.submit(() -> parseChunk(job, header, lines, chunkIndex)));
+        }
+        return chunkIndex + 1;
+    }
+
+    // The job's counters only move once the transaction has committed. Spans are widened up front: a span
+    // covering rows that were rolled back only makes the rollup refresh look at a few more hours.
+    private void commit(ImportJob job, ParsedChunk chunk) {
+        List<String> errors = new ArrayList<>(job.errors);
+        for (String error : chunk.errors()) {
+            if (errors.size() < config.getMaxErrors()) {
+                errors.add(error);
+            }
+        }
+
+        chunkTransaction.executeWithoutResult(status -> {
+            if (job.dataset == Dataset.WEATHER) {
+                @SuppressWarnings("unchecked")
+                List<HistoricalWeatherData> rows = (List<HistoricalWeatherData>) chunk.rows();
+                rows.forEach(row -> recordSpan(job, row.getRegion(), row.getTimestamp()));
+                weatherBatchRepository.insertAll(rows);
+            } else {
+                @SuppressWarnings("unchecked")
+                List<EnergyData> rows = (List<EnergyData>) chunk.rows();
+                rows.forEach(row -> recordSpan(job, row.getRegion(), row.getTimestamp()));
+                energyBatchRepository.insertAll(rows);
+            }
+            ImportJobRecord record = toRecord(job);
+            record.setCommittedChunks(chunk.index() + 1);
+            record.setImportedRows(job.importedRows.get() + chunk.rows().size());
+            record.setRejectedRows(job.rejectedRows.get() + chunk.rejected());
+            record.setErrors(toJson(errors));
+            jobRepository.save(record);
+        });
+
+        job.importedRows.addAndGet(chunk.rows().size());
+        job.rejectedRows.addAndGet(chunk.rejected());
+        job.errors.addAll(errors.subList(job.errors.size(), errors.size()));
+        job.committedChunks = chunk.index() + 1;
+    }
+
+    // Status changes outside a chunk; losing one only affects what a restart reports, never which rows exist
+    private void persist(ImportJob job) {
+        try {
+            jobRepository.save(toRecord(job));
+        } catch (Exception e) {
+            log.warn("Failed to save progress of import job {}: {}", job.jobId, e.getMessage());
+        }
+    }
+
+    private ImportJobRecord toRecord(ImportJob job) {
+        ImportJobRecord record = new ImportJobRecord();
+        record.setJobId(job.jobId);
+        record.setDataset(job.dataset.name());
+        record.setFormat(job.format.name());
+        record.setFilePath(job.file.toString());
+        record.setStatus(job.status.name());
+        record.setCommittedChunks(job.committedChunks);
+        record.setImportedRows(job.importedRows.get());
+        record.setRejectedRows(job.rejectedRows.get());
+        record.setUploadBytes(job.totalBytes);
+        record.setFailure(job.failure);
+        record.setErrors(toJson(List.copyOf(job.errors)));
+        Map<String, List<String>> spans = new HashMap<>();
+        job.spans.forEach((region, span) -> spans.put(region, List.of(span[0].toString(), span[1].toString())));
+        record.setSpans(toJson(spans));
+        record.setCreatedAt(job.createdAt);
+        record.setFinishedAt(job.finishedAt);
+        return record;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ImportJob restore(ImportJobRecord record) throws IOException {
+        ImportJob job = new ImportJob(record.getJobId(), Dataset.valueOf(record.getDataset()),
+            Format.valueOf(record.getFormat()), Path.of(record.getFilePath()), record.getCreatedAt());
+        job.status = Status.valueOf(record.getStatus());
+        job.committedChunks = record.getCommittedChunks();
+        job.importedRows.set(record.getImportedRows());
+        job.rejectedRows.set(record.getRejectedRows());
+        job.totalBytes = record.getUploadBytes();
+        job.failure = record.getFailure();
+        job.finishedAt = record.getFinishedAt();
+        if (record.getErrors() != null) {
+            for (JsonNode error : objectMapper.readTree(record.getErrors())) {
+                job.errors.add(error.asText());
+            }
+        }
+        if (record.getSpans() != null) {
+            objectMapper.readTree(record.getSpans()).fields().forEachRemaining(entry -> job.spans.put(entry.getKey(),
+                new LocalDateTime[] {LocalDateTime.parse(entry.getValue().get(0).asText()),
+                    LocalDateTime.parse(entry.getValue().get(1).asText())}));
+        }
+        return job;
+    }
+
+    private void recordSpan(ImportJob job, String region, LocalDateTime timestamp) {
+        job.spans.compute(region, (r, span) -> {
+            if (span == null) {
+                return new LocalDateTime[] {timestamp, timestamp};
+            }
+            if (timestamp.isBefore(span[0])) span[0] = timestamp;
+            if (timestamp.isAfter(span[1])) span[1] = timestamp;
+            return span;
+        });
+    }
+
+    private void refreshDerivedData(ImportJob job) {
+        RollupSource source = job.dataset == Dataset.WEATHER ? RollupSource.WEATHER : RollupSource.ENERGY;
+        job.spans.forEach((region, span) -> {
+            rollupService.rebuild(source, region, span[0], span[1].plusNanos(1000));
+            if (job.dataset == Dataset.WEATHER) {
+                sampleBufferService.reload(region);
+                runningStatsService.reload(region);
+                correlationMatrixService.reload(region);
+                anomalyDetectionService.retrain(region);
+            }
+        });
+        eventPublisher.publishEvent(new RegionDataChangedEvent(Set.copyOf(job.spans.keySet())));
+    }
+
+    private ParsedChunk parseChunk(ImportJob job, String[] header, List<String> lines, int chunkIndex) {
+        List<Object> rows = new ArrayList<>(lines.size());
+        List<String> errors = new ArrayList<>();
+        int rejected = 0;
+        long firstLine = (long) chunkIndex * config.getChunkSize() + 1;
+
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                Map<String, String> fields = job.format == Format.CSV
+                    ? toFields(header, splitCsv(lines.get(i)))
+                    : toFields(objectMapper.readTree(lines.get(i)));
+                rows.add(job.dataset == Dataset.WEATHER ? toWeather(fields) : toEnergy(fields));
+            } catch (Exception e) {
+                rejected++;
+                if (errors.size() < config.getMaxErrors()) {
+                    errors.add("Record " + (firstLine + i) + ": " + e.getMessage());
+                }
+            }
+        }
+        return new ParsedChunk(chunkIndex, rows, rejected, errors);
+    }
+
+    private HistoricalWeatherData toWeather(Map<String, String> fields) {
+        HistoricalWeatherData data = new HistoricalWeatherData();
+        data.setRegion(requireRegion(fields));
+        data.setRegionId(regionRegistry.idFor(data.getRegion()));
+        data.setTimestamp(requireTimestamp(fields));
+        double[] values = new double[WEATHER_FIELDS.length];
+        for (int i = 0; i < WEATHER_FIELDS.length; i++) {
+            Double value = parseDouble(fields, WEATHER_FIELDS[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("missing " + WEATHER_FIELDS[i]);
+            }
+            values[i] = value;
+        }
+        data.setTemperature(values[0]);
+        data.setWindSpeed(values[1]);
+        data.setSolarIrradiance(values[2]);
+        data.setCloudCover(values[3]);
+        data.setSolarGeneration(values[4]);
+        data.setWindGeneration(values[5]);
+        data.setTotalConsumption(values[6]);
+        data.setEfficiency(values[7]);
+        return data;
+    }
+
+    private EnergyData toEnergy(Map<String, String> fields) {
+        EnergyData data = new EnergyData();
+        data.setRegion(requireRegion(fields));
+        data.setRegionId(regionRegistry.idFor(data.getRegion()));
+        data.setTimestamp(requireTimestamp(fields));
+        data.setSolarGeneration(parseDouble(fields, ENERGY_FIELDS[0]));
+        data.setWindGeneration(parseDouble(fields, ENERGY_FIELDS[1]));
+        data.setTotalConsumption(parseDouble(fields, ENERGY_FIELDS[2]));
+        data.setGridDemand(parseDouble(fields, ENERGY_FIELDS[3]));
+        data.setEnergyPrice(parseDouble(fields, ENERGY_FIELDS[4]));
+        return data;
+    }
+
+    private static String requireRegion(Map<String, String> fields) {
+        String region = fields.get("region");
+        if (region == null || region.isBlank()) {
+            throw new IllegalArgumentException("missing region");
+        }
+        String code = region.trim().toLowerCase();
+        if (!RegionRegistry.isValidCode(code)) {
+            throw new IllegalArgumentException("invalid region '" + code + "', expected letters, digits, '_' or '-'");
+        }
+        return code;
+    }
+
+    private static LocalDateTime requireTimestamp(Map<String, String> fields) {
+        String timestamp = fields.get("timestamp");
+        if (timestamp == null || timestamp.isBlank()) {
+            throw new IllegalArgumentException("missing timestamp");
+        }
+        try {
+            return LocalDateTime.parse(timestamp.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid timestamp '" + timestamp + "'");
+        }
+    }
+
+    private static Double parseDouble(Map<String, String> fields, String name) {
+        String raw = fields.get(name);
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        double value;
+        try {
+            value = Double.parseDouble(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + name + " '" + raw + "'");
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("invalid " + name + " '" + raw + "'");
+        }
+        return value;
+    }
+
+    private static Map<String, String> toFields(String[] header, String[] values) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV upload has no header row");
+        }
+        if (values.length != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + values.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            fields.put(header[i], values[i]);
+        }
+        return fields;
+    }
+
+    private static Map<String, String> toFields(JsonNode node) {
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(entry -> {
+            if (!entry.getValue().isNull()) {
+                fields.put(entry.getKey(), entry.getValue().asText());
+            }
+        });
+        return fields;
+    }
+
+    // One NDJSON line, or one CSV record: a quoted CSV field may contain line breaks, so lines are joined
+    // until every quote is closed. Escaped quotes come in pairs and leave the count even.
+    private static String readRecord(BufferedReader reader, Format format) throws IOException {
+        String line = reader.readLine();
+        if (line == null || format != Format.CSV || quotes(line) % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        int quotes = quotes(line);
+        while (quotes % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                throw new IllegalArgumentException("CSV upload ends inside a quoted field");
+            }
+            record.append('\n').append(next);
+            quotes += quotes(next);
+        }
+        return record.toString();
+    }
+
+    private static int quotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // CSV splitting with double-quote escaping (RFC 4180); a record from readRecord may hold quoted line breaks
+    private static String[] splitCsv(String line) {
+        if (line == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values.toArray(new String[0]);
+    }
+}
@@ -4,10 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -60,6 +65,55 @@ public class CacheService {
         }
     }
 
+    // One MGET for all keys; the result lines up with keys and holds null for misses
+    public List<Object> getCachedApiResponses(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values != null && values.size() == keys.size()) {
+                return values;
+            }
+        } catch (Exception e) {
+            log.error("Failed to get {} cached API responses", keys.size(), e);
+        }
+        return Arrays.asList(new Object[keys.size()]);
+    }
+
+    // Writes every entry in one pipelined round trip
+    @SuppressWarnings("unchecked")
+    public void cacheApiResponses(Map<String, Object> entries, Duration ttl) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                    entries.forEach((key, data) -> redis.opsForValue().set(key, data, ttl));
+                    return null;
+                }
+            });
+            log.debug("Cached {} API responses", entries.size());
+        } catch (Exception e) {
+            log.error("Failed to cache {} API responses", entries.size(), e);
+        }
+    }
+
+    public void evictApiResponses(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(keys);
+            log.debug("Evicted {} API responses", keys.size());
+        } catch (Exception e) {
+            log.error("Failed to evict {} API responses", keys.size(), e);
+        }
+    }
+    
     public void cacheUserSession(String userId, Map<String, Object> sessionData) {
         try {
             String key = "user_session:" + userId;
@@ -0,0 +1,157 @@
+package com.weather.service.service;
+
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollupSource;
+import com.weather.service.timeseries.SlidingCorrelationMatrix;
+import com.weather.service.timeseries.StatsWindow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-region Pearson matrices over every historical metric for the 24h, 7d and 30d windows,
+// maintained as samples are ingested so polling readers never touch raw rows
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CorrelationMatrixService {
+
+    private static final StatsWindow[] WINDOWS = {StatsWindow.DAY, StatsWindow.WEEK, StatsWindow.MONTH};
+    // Recorded samples are kept this long so a reload can replay those its scan did not see
+    private static final long JOURNAL_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final MetricRollupBatchRepository rawRepository;
+    private final RegionRegistry regionRegistry;
+    private final ConcurrentHashMap<String, RegionMatrices> regions = new ConcurrentHashMap<>();
+
+    public record Snapshot(StatsWindow window, long sampleCount, double[][] matrix) {
+        public double get(HistoricalMetric x, HistoricalMetric y) {
+            return matrix[x.ordinal()][y.ordinal()];
+        }
+    }
+
+    private record RecordedSample(long timestamp, double[] values) {
+    }
+
+    private static final class RegionMatrices {
+        private final SlidingCorrelationMatrix[] matrices = new SlidingCorrelationMatrix[StatsWindow.values().length];
+        // Recently recorded samples: they may still be queued for the database when a reload scans it
+        private final ArrayDeque<RecordedSample> journal = new ArrayDeque<>();
+        private boolean retired;
+
+        RegionMatrices() {
+            for (StatsWindow window : WINDOWS) {
+                matrices[window.ordinal()] = new SlidingCorrelationMatrix(window, HistoricalMetric.count());
+            }
+        }
+
+        // False once a reload has replaced this instance; the caller records into the new one
+        synchronized boolean add(long timestamp, double[] values) {
+            if (retired) {
+                return false;
+            }
+            addToWindows(timestamp, values);
+            journal.addLast(new RecordedSample(timestamp, values));
+            while (journal.peekFirst().timestamp() < timestamp - JOURNAL_MILLIS) {
+                journal.removeFirst();
+            }
+            return true;
+        }
+
+        private void addToWindows(long timestamp, double[] values) {
+            for (StatsWindow window : WINDOWS) {
+                matrices[window.ordinal()].add(timestamp, values);
+            }
+        }
+
+        // Retires this instance and hands over its journaled samples from the given time on
+        synchronized List<RecordedSample> retire(long from) {
+            retired = true;
+            List<RecordedSample> samples = new ArrayList<>();
+            for (RecordedSample sample : journal) {
+                if (sample.timestamp() >= from) {
+                    samples.add(sample);
+                }
+            }
+            return samples;
+        }
+
+        synchronized Snapshot snapshot(StatsWindow window, long now) {
+            SlidingCorrelationMatrix matrix = matrices[window.ordinal()];
+            return new Snapshot(window, matrix.count(now), matrix.matrix(now));
+        }
+    }
+
+    public void record(HistoricalWeatherData data) {
+        long timestamp = EpochTime.toMillis(data.getTimestamp());
+        double[] values = HistoricalMetric.valuesOf(data);
+        while (!regions.computeIfAbsent(data.getRegion(), r -> new RegionMatrices()).add(timestamp, values)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Null when the window is not maintained or the region has not been seen
+    public Snapshot snapshot(String region, StatsWindow window) {
+        RegionMatrices matrices = regions.get(region);
+        if (matrices == null || window == null || matrices.matrices[window.ordinal()] == null) {
+            return null;
+        }
+        return matrices.snapshot(window, EpochTime.toMillis(LocalDateTime.now()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String region : regionRegistry.codes()) {
+            reload(region);
+        }
+    }
+
+    // Co-moments cannot be recovered from rollups, so the longest window is replayed from raw rows. Samples
+    // recorded meanwhile, or still queued for the database, are replayed from the live instance's journal
+    // unless the scan already saw a row with the same timestamp.
+    public void reload(String region) {
+        try {
+            RegionMatrices matrices = new RegionMatrices();
+            LocalDateTime now = LocalDateTime.now();
+            long journalFrom = EpochTime.toMillis(now) - JOURNAL_MILLIS;
+            Set<Long> scanned = new HashSet<>();
+            long[] rows = new long[1];
+            rawRepository.scanRaw(RollupSource.WEATHER, regionRegistry.lookup(region),
+                now.minus(StatsWindow.MONTH.getWindow()), now.plusHours(1), (timestamp, values) -> {
+                    long millis = EpochTime.toMillis(timestamp);
+                    matrices.addToWindows(millis, values);
+                    if (millis >= journalFrom) {
+                        scanned.add(millis);
+                    }
+                    rows[0]++;
+                });
+
+            regions.compute(region, (r, live) -> {
+                if (live != null) {
+                    for (RecordedSample sample : live.retire(journalFrom)) {
+                        if (!scanned.contains(sample.timestamp())) {
+                            matrices.add(sample.timestamp(), sample.values());
+                        }
+                    }
+                }
+                return matrices;
+            });
+            log.info("Rebuilt correlation matrices for region {} from {} rows", region, rows[0]);
+        } catch (Exception e) {
+            log.error("Failed to rebuild correlation matrices for region {}: {}", region, e.getMessage());
+        }
+    }
+}
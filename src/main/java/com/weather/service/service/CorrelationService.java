@@ -0,0 +1,83 @@
+package com.weather.service.service;
+
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.timeseries.ColumnBuffer;
+import com.weather.service.timeseries.Correlation;
+import com.weather.service.timeseries.CorrelationPair;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollupSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Pearson and Spearman coefficients for the weather/energy pairs of a region, computed from
+// raw rows loaded straight into primitive columns
+@Service
+@Slf4j
+public class CorrelationService {
+
+    private final MetricRollupBatchRepository rawRepository;
+    private final RegionRegistry regionRegistry;
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public record Coefficients(double pearson, double spearman) {
+    }
+
+    // Raw columns are kept for callers that also chart the range
+    public record Analysis(ColumnBuffer samples, Map<CorrelationPair, Coefficients> coefficients) {
+        public int sampleCount() {
+            return samples.size();
+        }
+    }
+
+    public CorrelationService(MetricRollupBatchRepository rawRepository, RegionRegistry regionRegistry) {
+        this.rawRepository = rawRepository;
+        this.regionRegistry = regionRegistry;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public Analysis analyze(String region, Duration range) {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minus(range);
+        long started = System.nanoTime();
+
+        // Sized for 5-minute samples so a typical range loads without regrowing
+        ColumnBuffer samples = new ColumnBuffer(HistoricalMetric.count(), (int) (range.toMinutes() / 5) + 1);
+        rawRepository.scanRaw(RollupSource.WEATHER, regionRegistry.lookup(region), from, to,
+            (timestamp, values) -> samples.add(EpochTime.toMillis(timestamp), values));
+        int n = samples.size();
+
+        // Rank each metric once, in parallel, then correlate every pair in parallel
+        HistoricalMetric[] metrics = Arrays.stream(CorrelationPair.values())
+            .flatMap(pair -> Arrays.stream(new HistoricalMetric[] {pair.getX(), pair.getY()}))
+            .distinct()
+            .toArray(HistoricalMetric[]::new);
+        Map<CorrelationPair, Coefficients> coefficients = pool.submit(() -> {
+            Map<HistoricalMetric, double[]> ranks = Arrays.stream(metrics).parallel()
+                .collect(Collectors.toConcurrentMap(Function.identity(),
+                    metric -> Correlation.ranks(samples.column(metric.ordinal()), n)));
+            return Arrays.stream(CorrelationPair.values()).parallel()
+                .collect(Collectors.toConcurrentMap(Function.identity(), pair -> new Coefficients(
+                    Correlation.pearson(samples.column(pair.getX().ordinal()), samples.column(pair.getY().ordinal()), n),
+                    Correlation.spearman(ranks.get(pair.getX()), ranks.get(pair.getY()), n))));
+        }).join();
+
+        log.debug("Correlated {} samples for region {} in {} ms", n, region,
+            (System.nanoTime() - started) / 1_000_000);
+        return new Analysis(samples, new EnumMap<>(coefficients));
+    }
+}
@@ -0,0 +1,203 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Dashboards for one or many regions. Redis holds them across instances; within this instance misses go
+// through AnalyticsResultCache so concurrent requests for a region share one computation. Batch requests
+// read every cached entry in a single MGET, assemble the misses on a bounded pool and write them back in
+// one pipeline. Entries of a region are evicted as soon as new data for it is written.
+@Service
+@Slf4j
+public class DashboardBatchService {
+
+    public static final String ALL_REGIONS = "all";
+
+    private final EnergyAnalyticsService analyticsService;
+    private final CacheService cacheService;
+    private final RegionRegistry regionRegistry;
+    private final AnalyticsResultCache resultCache;
+    private final AppConfig.Dashboard config;
+    private final ThreadPoolExecutor executor;
+    // Redis evictions run off the thread that published the change; until a region's eviction is done its
+    // Redis entry is not read, so a stale dashboard is never picked up as current
+    private final ExecutorService evictor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-evict");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Integer> evicting = new ConcurrentHashMap<>();
+
+    public record BatchResult(Map<String, Object> dashboards, List<String> cachedRegions, Map<String, String> errors) {
+    }
+
+    public DashboardBatchService(EnergyAnalyticsService analyticsService, CacheService cacheService,
+                                 RegionRegistry regionRegistry, AnalyticsResultCache resultCache,
+                                 AppConfig appConfig) {
+        this.analyticsService = analyticsService;
+        this.cacheService = cacheService;
+        this.regionRegistry = regionRegistry;
+        this.resultCache = resultCache;
+        this.config = appConfig.getDashboard();
+
+        AtomicInteger threads = new AtomicInteger();
+        int size = Math.max(1, config.getBatchThreads());
+        // A full queue runs the task on the request thread, which throttles oversized bursts
+        this.executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, config.getBatchQueueCapacity())),
+            r -> new Thread(r, "dashboard-batch-" + threads.incrementAndGet()),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        evictor.shutdownNow();
+    }
+
+    public static String cacheKey(String region) {
+        return "energy_dashboard:" + region;
+    }
+
+    public Duration cacheTtl() {
+        return Duration.ofMinutes(config.getCacheTtlMinutes());
+    }
+
+    public Object getDashboard(String region) {
+        return resultCache.get(AnalyticsResultCache.DASHBOARD, region, null, () -> {
+            Object cached = evicting.containsKey(region) ? null : cacheService.getCachedApiResponse(cacheKey(region));
+            if (cached != null) {
+                return cached;
+            }
+            long generation = resultCache.generation(region);
+            Map<String, Object> dashboard = analyticsService.getEnergyDashboard(region);
+            // Not written back if the region's data changed while it was being built
+            if (resultCache.generation(region) == generation) {
+                cacheService.cacheApiResponse(cacheKey(region), dashboard, cacheTtl());
+            }
+            return dashboard;
+        });
+    }
+    
+    // Runs after AnalyticsResultCache has bumped the regions' generation; the regions' Redis entries are
+    // skipped from here until the DELETE has gone through
+    @EventListener
+    public void onRegionDataChanged(RegionDataChangedEvent event) {
+        List<String> regions = List.copyOf(event.regions());
+        regions.forEach(region -> evicting.merge(region, 1, Integer::sum));
+        try {
+            evictor.execute(() -> {
+                try {
+                    cacheService.evictApiResponses(regions.stream().map(DashboardBatchService::cacheKey).toList());
+                } finally {
+                    regions.forEach(region -> evicting.computeIfPresent(region, (r, n) -> n == 1 ? null : n - 1));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            regions.forEach(region -> evicting.computeIfPresent(region, (r, n) -> n == 1 ? null : n - 1));
+        }
+    }
+    
+    public BatchResult getDashboards(String regionsParam) {
+        List<String> regions = resolveRegions(regionsParam);
+
+        List<String> keys = regions.stream().map(DashboardBatchService::cacheKey).toList();
+        List<Object> cached = cacheService.getCachedApiResponses(keys);
+
+        Map<String, Object> dashboards = new LinkedHashMap<>();
+        List<String> cachedRegions = new ArrayList<>();
+        Map<String, CompletableFuture<Map<String, Object>>> pending = new LinkedHashMap<>();
+        Map<String, Long> generations = new HashMap<>();
+        for (int i = 0; i < regions.size(); i++) {
+            String region = regions.get(i);
+            if (cached.get(i) != null && !evicting.containsKey(region)) {
+                dashboards.put(region, cached.get(i));
+                cachedRegions.add(region);
+            } else {
+                dashboards.put(region, null);
+                generations.put(region, resultCache.generation(region));
+                pending.put(region, CompletableFuture.supplyAsync(() -> resultCache.get(AnalyticsResultCache.DASHBOARD,
+                    region, null, () -> analyticsService.getEnergyDashboard(region)), executor));
+            }
+        }
+
+        // One deadline for the whole batch rather than per region
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getBatchTimeoutMs());
+        Map<String, Object> computed = new HashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Map<String, Object>>> entry : pending.entrySet()) {
+            String region = entry.getKey();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                Map<String, Object> dashboard = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+                dashboards.put(region, dashboard);
+                if (resultCache.generation(region) == generations.get(region)) {
+                    computed.put(cacheKey(region), dashboard);
+                }
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                errors.put(region, "Timed out");
+            } catch (ExecutionException e) {
+                log.error("Failed to build dashboard for region {}: {}", region, e.getCause().getMessage());
+                errors.put(region, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while building dashboards", e);
+            }
+        }
+        dashboards.keySet().removeAll(errors.keySet());
+
+        cacheService.cacheApiResponses(computed, cacheTtl());
+        return new BatchResult(dashboards, cachedRegions, errors);
+    }
+
+    // Comma-separated region codes or "all"; duplicates are dropped, request order is kept
+    private List<String> resolveRegions(String regionsParam) {
+        if (regionsParam == null || regionsParam.isBlank()) {
+            throw new IllegalArgumentException("At least one region is required");
+        }
+
+        Set<String> regions = new LinkedHashSet<>();
+        if (ALL_REGIONS.equalsIgnoreCase(regionsParam.trim())) {
+            regions.addAll(regionRegistry.codes().stream().sorted().toList());
+        } else {
+            for (String region : regionsParam.split(",")) {
+                if (!region.isBlank()) {
+                    regions.add(region.trim());
+                }
+            }
+        }
+
+        if (regions.isEmpty()) {
+            throw new IllegalArgumentException("At least one region is required");
+        }
+        if (regions.size() > config.getMaxBatchRegions()) {
+            throw new IllegalArgumentException("At most " + config.getMaxBatchRegions() + " regions per request");
+        }
+        return new ArrayList<>(regions);
+    }
+}
@@ -0,0 +1,219 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.repository.MetricRollupBatchRepository.RollupRow;
+import com.weather.service.timeseries.EnergyMetric;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.HoltWinters;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Holt-Winters demand model per region, fitted from hourly consumption rollups. Regions are fitted in parallel
+// at startup and nightly; in between, every completed hour of new rollups is folded into the cached state,
+// so producing a forecast never touches the database.
+@Service
+@Slf4j
+public class DemandModelService {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    // Weather rollups carry the denser consumption series; energy rollups are used when they are too short
+    private static final RollupSource[] SOURCES = {RollupSource.WEATHER, RollupSource.ENERGY};
+    private static final String[] METRICS = {HistoricalMetric.TOTAL_CONSUMPTION.getKey(), EnergyMetric.TOTAL_CONSUMPTION.getKey()};
+
+    private final MetricRollupBatchRepository rollupRepository;
+    private final RegionRegistry regionRegistry;
+    private final AppConfig.Forecast config;
+    private final ConcurrentHashMap<String, RegionModel> models = new ConcurrentHashMap<>();
+    private final Set<String> pendingUpdates = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    // errors are standard errors of each forecast hour; lastHour is the epoch hour of the model's last observation
+    public record DemandOutlook(double[] demand, double[] errors, long lastHour) {
+    }
+
+    // values[i] is the mean consumption of epoch hour firstHour + i, NaN where no rollup exists
+    public record HourlySeries(RollupSource source, long firstHour, double[] values) {
+    }
+
+    private static final class RegionModel {
+        private final RollupSource source;
+        private final HoltWinters model;
+
+        RegionModel(RollupSource source, HoltWinters model) {
+            this.source = source;
+            this.model = model;
+        }
+
+        synchronized long lastHour() {
+            return model.lastHour();
+        }
+
+        synchronized void update(long hour, double value) {
+            model.update(hour, value);
+        }
+
+        synchronized DemandOutlook forecast(long startHour, int hours) {
+            double[] demand = new double[hours];
+            double[] errors = new double[hours];
+            model.forecast(startHour, demand);
+            for (int i = 0; i < hours; i++) {
+                errors[i] = model.forecastError(startHour + i - model.lastHour());
+            }
+            return new DemandOutlook(demand, errors, model.lastHour());
+        }
+    }
+
+    public DemandModelService(MetricRollupBatchRepository rollupRepository, RegionRegistry regionRegistry,
+                              AppConfig appConfig) {
+        this.rollupRepository = rollupRepository;
+        this.regionRegistry = regionRegistry;
+        this.config = appConfig.getForecast();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getFitParallelism()), r -> {
+            Thread thread = new Thread(r, "demand-model-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Hourly demand for the hours starting at startMillis; null when the region has no fitted model
+    public DemandOutlook forecast(String region, long startMillis, int hours) {
+        RegionModel model = models.get(region);
+        return model == null ? null : model.forecast(Math.floorDiv(startMillis, HOUR_MILLIS), hours);
+    }
+
+    // Runs after the rollup catch-up and before the forecast cycle, which reads these models, so it waits
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public void warmUp() {
+        fitAll().join();
+    }
+
+    // Refits from scratch so late rows and revised rollups reach the model. Only starts the fits: the
+    // scheduler thread is shared by every scheduled task and must not wait for them.
+    @Scheduled(cron = "0 20 2 * * *")
+    public void refitNightly() {
+        fitAll();
+    }
+
+    // Fits every region on the model pool; completes once all fits are done
+    public CompletableFuture<Void> fitAll() {
+        long started = System.nanoTime();
+        List<CompletableFuture<Boolean>> fits = regionRegistry.codes().stream()
+            .map(region -> CompletableFuture.supplyAsync(() -> fit(region), executor))
+            .toList();
+        return CompletableFuture.allOf(fits.toArray(CompletableFuture[]::new)).thenRun(() -> {
+            long fitted = fits.stream().filter(CompletableFuture::join).count();
+            log.info("Fitted demand models for {} of {} regions in {} ms", fitted, fits.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        });
+    }
+
+    // Folds the hours completed since each model's last observation; a region already queued is not queued again
+    @EventListener
+    public void onRegionDataChanged(RegionDataChangedEvent event) {
+        for (String region : event.regions()) {
+            if (models.containsKey(region) && pendingUpdates.add(region)) {
+                executor.execute(() -> {
+                    pendingUpdates.remove(region);
+                    advance(region);
+                });
+            }
+        }
+    }
+
+    // Hourly consumption of [start, end) from the first source with at least two weeks of it; null when none has
+    public HourlySeries history(String region, LocalDateTime start, LocalDateTime end) {
+        long firstHour = Math.floorDiv(EpochTime.toMillis(start), HOUR_MILLIS);
+        int hours = (int) (Math.floorDiv(EpochTime.toMillis(end), HOUR_MILLIS) - firstHour);
+        int regionId = regionRegistry.lookup(region);
+        for (int s = 0; s < SOURCES.length; s++) {
+            double[] y = new double[hours];
+            Arrays.fill(y, Double.NaN);
+            int observed = 0;
+            for (RollupRow row : rollupRepository.findBuckets(SOURCES[s], regionId, RollupResolution.HOUR, start, end)) {
+                if (METRICS[s].equals(row.metric()) && row.count() > 0) {
+                    y[(int) (Math.floorDiv(EpochTime.toMillis(row.bucketStart()), HOUR_MILLIS) - firstHour)] =
+                        row.sum() / row.count();
+                    observed++;
+                }
+            }
+            if (observed >= 2 * HoltWinters.WEEK) {
+                return new HourlySeries(SOURCES[s], firstHour, y);
+            }
+        }
+        return null;
+    }
+
+    private boolean fit(String region) {
+        try {
+            LocalDateTime end = RollupResolution.HOUR.bucketStart(LocalDateTime.now());
+            HourlySeries series = history(region, end.minusDays(config.getTrainingDays()), end);
+            HoltWinters model = series == null ? null : HoltWinters.fit(series.firstHour(), series.values());
+            if (model != null) {
+                models.put(region, new RegionModel(series.source(), model));
+                log.debug("Fitted demand model for region {} from {} rollups: {}", region, series.source(), model.parameters());
+                return true;
+            }
+            // Forecasts fall back to the static profiles rather than a fit the history no longer supports
+            models.remove(region);
+            log.debug("Not enough hourly history to fit a demand model for region {}", region);
+        } catch (Exception e) {
+            log.error("Failed to fit demand model for region {}: {}", region, e.getMessage());
+        }
+        return false;
+    }
+
+    // Only completed hours are folded in; an hour whose rollup is not written yet is picked up on a later event
+    private void advance(String region) {
+        RegionModel model = models.get(region);
+        if (model == null) {
+            return;
+        }
+        try {
+            LocalDateTime end = RollupResolution.HOUR.bucketStart(LocalDateTime.now());
+            long lastHour = model.lastHour();
+            if (Math.floorDiv(EpochTime.toMillis(end), HOUR_MILLIS) <= lastHour + 1) {
+                return;
+            }
+
+            LocalDateTime start = EpochTime.fromMillis((lastHour + 1) * HOUR_MILLIS);
+            String metric = METRICS[Arrays.asList(SOURCES).indexOf(model.source)];
+            int regionId = regionRegistry.lookup(region);
+            for (RollupRow row : rollupRepository.findBuckets(model.source, regionId, RollupResolution.HOUR, start, end)) {
+                if (metric.equals(row.metric()) && row.count() > 0) {
+                    model.update(Math.floorDiv(EpochTime.toMillis(row.bucketStart()), HOUR_MILLIS), row.sum() / row.count());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to update demand model for region {}: {}", region, e.getMessage());
+        }
+    }
+}
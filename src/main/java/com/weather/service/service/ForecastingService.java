@@ -1,181 +1,642 @@
 package com.weather.service.service;
 
-import lombok.RequiredArgsConstructor;
+import com.weather.service.config.AppConfig;
+import com.weather.service.dto.ComprehensiveForecast;
+import com.weather.service.dto.DemandForecast;
+import com.weather.service.dto.GenerationForecast;
+import com.weather.service.dto.PriceForecast;
+import com.weather.service.dto.ScenarioForecast;
+import com.weather.service.entity.EnergyForecast;
+import com.weather.service.repository.EnergyForecastBatchRepository;
+import com.weather.service.repository.EnergyForecastRepository;
+import com.weather.service.repository.projection.ForecastPoint;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.ScenarioSimulator;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Forecasts are produced once per model cycle for every region and stored as EnergyForecast rows, one per
+// hour of demand and one per day of generation and price. Requests slice the region's current cycle held in
+// memory, so reading a forecast never runs the model; regions outside the registry are rejected. Each cycle also carries Monte Carlo scenarios of its next hours, which give
+// the hourly P10/P50/P90 bands and the price ranges and generation and price confidence of the days they cover.
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ForecastingService {
     
-    private final HistoricalDataService historicalDataService;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    private static final String DEMAND = "DEMAND";
+    private static final String GENERATION = "GENERATION";
+    private static final String PRICE = "PRICE";
+    // Standard normal quantile of 0.9, and the mean absolute error of a normal forecast per standard error
+    private static final double Z_90 = 1.2815515655446004;
+    private static final double ABSOLUTE_ERROR_PER_SD = Math.sqrt(2 / Math.PI);
+    // Confidence of the static demand profile. It has no model or backtest to derive one from, so it reports
+    // this fixed, deliberately modest value.
+    private static final double STATIC_PROFILE_CONFIDENCE = 0.75;
     
-    public Map<String, Object> generateEnergyDemandForecast(String region, int days) {
-        Map<String, Object> forecast = new HashMap<>();
+    private final EnergyForecastRepository forecastRepository;
+    private final EnergyForecastBatchRepository forecastBatchRepository;
+    private final RegionRegistry regionRegistry;
+    private final DemandModelService demandModelService;
+    private final BacktestService backtestService;
+    private final AppConfig.Forecast config;
+    private final ConcurrentHashMap<String, ForecastCycle> cycles = new ConcurrentHashMap<>();
+    // A region's load or model run in progress; concurrent misses wait on it instead of starting their own
+    private final ConcurrentHashMap<String, CompletableFuture<ForecastCycle>> loading = new ConcurrentHashMap<>();
+    private final ForkJoinPool scenarioPool;
+    
+    // One model run for a region starting at midnight of firstDay. It spans one day more than the horizon,
+    // so a cycle issued shortly before midnight still serves a full horizon after it. scenarios start at the
+    // hour of issue and are null when they could not be drawn.
+    private record ForecastCycle(LocalDateTime issuedAt, long firstDay, DemandForecast.HourlyDemand demand,
+                                 GenerationForecast.DailyGeneration generation, PriceForecast.DailyPrice price,
+                                 ScenarioSimulator.Bands scenarios) {
         
-        // Generate 7-day hourly forecasts
-        List<Map<String, Object>> hourlyForecasts = generateHourlyDemandForecast(region, days);
-        List<Map<String, Object>> dailyForecasts = generateDailyDemandForecast(region, days);
+        boolean covers(long day, int days) {
+            return day >= firstDay && day - firstDay + days <= generation.size();
+        }
         
-        forecast.put("region", region);
-        forecast.put("forecastPeriod", days + " days");
-        forecast.put("generatedAt", LocalDateTime.now().toString());
-        forecast.put("hourlyForecasts", hourlyForecasts);
-        forecast.put("dailyForecasts", dailyForecasts);
-        forecast.put("summary", generateForecastSummary(hourlyForecasts));
+        ForecastCycle slice(int from, int days) {
+            int to = from + days;
+            return new ForecastCycle(issuedAt, firstDay + from,
+                new DemandForecast.HourlyDemand(Arrays.copyOfRange(demand.timestamps(), from * 24, to * 24),
+                    Arrays.copyOfRange(demand.predictedDemand(), from * 24, to * 24),
+                    Arrays.copyOfRange(demand.confidence(), from * 24, to * 24)),
+                new GenerationForecast.DailyGeneration(Arrays.copyOfRange(generation.epochDays(), from, to),
+                    Arrays.copyOfRange(generation.solarGeneration(), from, to),
+                    Arrays.copyOfRange(generation.windGeneration(), from, to),
+                    Arrays.copyOfRange(generation.sunlightHours(), from, to),
+                    Arrays.copyOfRange(generation.windSpeed(), from, to),
+                    Arrays.copyOfRange(generation.cloudCover(), from, to),
+                    Arrays.copyOfRange(generation.confidence(), from, to)),
+                new PriceForecast.DailyPrice(Arrays.copyOfRange(price.epochDays(), from, to),
+                    Arrays.copyOfRange(price.predictedPrice(), from, to),
+                    Arrays.copyOfRange(price.confidence(), from, to),
+                    Arrays.copyOfRange(price.low(), from, to),
+                    Arrays.copyOfRange(price.high(), from, to)),
+                scenarios);
+        }
+    }
+    
+    public ForecastingService(EnergyForecastRepository forecastRepository,
+                              EnergyForecastBatchRepository forecastBatchRepository,
+                              RegionRegistry regionRegistry, DemandModelService demandModelService,
+                              BacktestService backtestService, AppConfig appConfig) {
+        this.forecastRepository = forecastRepository;
+        this.forecastBatchRepository = forecastBatchRepository;
+        this.regionRegistry = regionRegistry;
+        this.demandModelService = demandModelService;
+        this.backtestService = backtestService;
+        this.config = appConfig.getForecast();
         
-        return forecast;
+        AtomicInteger threads = new AtomicInteger();
+        this.scenarioPool = new ForkJoinPool(Math.max(1, config.getScenarioParallelism()), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("forecast-scenario-" + threads.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scenarioPool.shutdownNow();
+    }
+    
+    public int getHorizonDays() {
+        return config.getHorizonDays();
+    }
+    
+    public DemandForecast generateEnergyDemandForecast(String region, int days) {
+        return demandForecast(region, days, current(region, days));
+    }
+    
+    public GenerationForecast generateWeatherBasedGenerationForecast(String region, int days) {
+        return generationForecast(region, days, current(region, days));
+    }
+    
+    public PriceForecast generatePriceForecast(String region, int days) {
+        return priceForecast(region, days, current(region, days));
     }
     
-    public Map<String, Object> generateWeatherBasedGenerationForecast(String region, int days) {
-        Map<String, Object> forecast = new HashMap<>();
+    public ComprehensiveForecast getComprehensiveForecast(String region, int days) {
+        // All parts are slices of one in-memory cycle, cheap enough to build inline, and stay consistent
+        // even if a new cycle is swapped in meanwhile
+        ForecastCycle cycle = current(region, days);
+        return new ComprehensiveForecast(region, days + " days", cycle.issuedAt(),
+            demandForecast(region, days, cycle),
+            generationForecast(region, days, cycle),
+            priceForecast(region, days, cycle),
+            generateRiskAssessment(region, days));
+    }
+    
+    // Hourly P10/P50/P90 from the current hour on, read from the scenarios of the region's current cycle
+    public ScenarioForecast generateScenarioForecast(String region, int hours) {
+        if (hours < 1 || hours > config.getScenarioHours()) {
+            throw new IllegalArgumentException("Scenario hours must be between 1 and " + config.getScenarioHours());
+        }
+        ForecastCycle cycle = current(region, 1);
+        ScenarioSimulator.Bands bands = cycle.scenarios();
+        long currentHour = Math.floorDiv(EpochTime.toMillis(LocalDateTime.now()), HOUR_MILLIS);
+        int from = bands == null ? 0 : (int) Math.max(0, currentHour - bands.firstHour());
+        if (bands == null || from >= bands.hours()) {
+            throw new IllegalStateException("No forecast scenarios available for region " + region);
+        }
         
-        List<Map<String, Object>> generationForecasts = generateGenerationForecast(region, days);
+        int to = Math.min(bands.hours(), from + hours);
+        long[] timestamps = new long[to - from];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = (bands.firstHour() + from + i) * HOUR_MILLIS;
+        }
+        return new ScenarioForecast(region, cycle.issuedAt(), bands.scenarios(),
+            new ScenarioForecast.HourlyBands(timestamps, sliceBands(bands.demand(), from, to),
+                sliceBands(bands.generation(), from, to), sliceBands(bands.price(), from, to)));
+    }
+    
+    private static double[][] sliceBands(double[][] bands, int from, int to) {
+        double[][] slice = new double[bands.length][];
+        for (int q = 0; q < bands.length; q++) {
+            slice[q] = Arrays.copyOfRange(bands[q], from, to);
+        }
+        return slice;
+    }
+    
+    // Model cycle: forecasts every registered region, stores them in one batch and swaps them into memory
+    @Scheduled(cron = "0 5 * * * *")
+    public void runCycle() {
+        LocalDateTime issuedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Map<String, ForecastCycle> produced = new HashMap<>();
+        for (String region : regionRegistry.codes()) {
+            try {
+                produced.put(region, runModel(region, issuedAt));
+            } catch (Exception e) {
+                log.error("Failed to forecast region {}: {}", region, e.getMessage());
+            }
+        }
         
-        forecast.put("region", region);
-        forecast.put("forecastPeriod", days + " days");
-        forecast.put("generatedAt", LocalDateTime.now().toString());
-        forecast.put("forecasts", generationForecasts);
-        forecast.put("totalPredictedGeneration", calculateTotalGeneration(generationForecasts));
-        forecast.put("weatherFactors", generateWeatherFactors());
+        try {
+            int stored = store(produced);
+            log.info("Forecast cycle {} stored {} rows for {} regions, purged {} expired rows",
+                issuedAt, stored, produced.size(), purge(issuedAt));
+        } catch (Exception e) {
+            log.error("Failed to store forecast cycle {}: {}", issuedAt, e.getMessage());
+        }
+        // A region whose model failed keeps serving its last good cycle
+        cycles.putAll(produced);
+    }
+    
+    // Every cycle is stored so a restart can serve the latest one, but only the day's first cycle (issued in
+    // its midnight hour) is kept past intradayRetentionHours. Purged per region so the (region, forecast_date)
+    // index serves the deletes.
+    private int purge(LocalDateTime issuedAt) {
+        LocalDateTime expired = issuedAt.minusDays(config.getRetentionDays());
+        LocalDateTime superseded = issuedAt.minusHours(config.getIntradayRetentionHours());
+        int purged = 0;
+        for (String region : regionRegistry.codes()) {
+            purged += forecastRepository.deleteCyclesBefore(region, expired);
+            purged += forecastRepository.deleteIntradayCyclesBetween(region, expired, superseded);
+        }
+        return purged;
+    }
+    
+    // Serves the stored cycles after a restart and runs a cycle right away if any region has none from the last hour
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime freshAfter = LocalDateTime.now().minusHours(1);
+        boolean stale = false;
+        for (String region : regionRegistry.codes()) {
+            try {
+                ForecastCycle stored = loadLatest(region);
+                if (stored != null) {
+                    cycles.put(region, stored);
+                }
+                stale |= stored == null || stored.issuedAt().isBefore(freshAfter);
+            } catch (Exception e) {
+                log.error("Failed to load stored forecasts for region {}: {}", region, e.getMessage());
+                stale = true;
+            }
+        }
+        if (stale) {
+            runCycle();
+        }
+    }
+    
+    // The region's current cycle cut down to [today, today + days)
+    private ForecastCycle current(String region, int days) {
+        if (days < 1 || days > config.getHorizonDays()) {
+            throw new IllegalArgumentException("Forecast days must be between 1 and " + config.getHorizonDays());
+        }
+        if (regionRegistry.lookup(region) == RegionRegistry.UNKNOWN_ID) {
+            throw new IllegalArgumentException("Unknown region: " + region);
+        }
+        long today = LocalDate.now().toEpochDay();
+        ForecastCycle cycle = cycles.get(region);
+        while (cycle == null || !cycle.covers(today, days)) {
+            cycle = load(region, today, days);
+        }
+        return cycle.slice((int) (today - cycle.firstDay()), days);
+    }
+    
+    // Single flight per region: the first miss loads or runs the model outside any map lock, later misses
+    // wait for its result. A waiter whose request the result does not cover goes round again.
+    private ForecastCycle load(String region, long today, int days) {
+        CompletableFuture<ForecastCycle> mine = new CompletableFuture<>();
+        CompletableFuture<ForecastCycle> inFlight = loading.putIfAbsent(region, mine);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            ForecastCycle cycle = cycles.get(region);
+            if (cycle == null || !cycle.covers(today, days)) {
+                cycle = loadOrRun(region, today, days);
+                cycles.put(region, cycle);
+            }
+            mine.complete(cycle);
+            return cycle;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(region, mine);
+        }
+    }
+    
+    private static ForecastCycle join(CompletableFuture<ForecastCycle> cycle) {
+        try {
+            return cycle.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    private DemandForecast demandForecast(String region, int days, ForecastCycle cycle) {
+        return new DemandForecast(region, days + " days", cycle.issuedAt(), cycle.demand(),
+            aggregateDailyDemand(cycle.demand()), generateForecastSummary(cycle.demand()));
+    }
+    
+    private GenerationForecast generationForecast(String region, int days, ForecastCycle cycle) {
+        return new GenerationForecast(region, days + " days", cycle.issuedAt(), cycle.generation(),
+            calculateTotalGeneration(cycle.generation()), generateWeatherFactors(cycle.generation()));
+    }
+    
+    private PriceForecast priceForecast(String region, int days, ForecastCycle cycle) {
+        return new PriceForecast(region, days + " days", cycle.issuedAt(), cycle.price(),
+            generatePriceAnalysis(cycle.price()), generateMarketFactors());
+    }
+    
+    private ForecastCycle loadOrRun(String region, long today, int days) {
+        ForecastCycle stored = loadLatest(region);
+        if (stored != null && stored.covers(today, days)) {
+            return stored;
+        }
         
-        return forecast;
+        ForecastCycle cycle = runModel(region, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        try {
+            store(Map.of(region, cycle));
+        } catch (Exception e) {
+            log.error("Failed to store forecasts for region {}: {}", region, e.getMessage());
+        }
+        return cycle;
     }
     
-    public Map<String, Object> generatePriceForecast(String region, int days) {
-        Map<String, Object> forecast = new HashMap<>();
+    private ForecastCycle runModel(String region, LocalDateTime issuedAt) {
+        LocalDate firstDay = issuedAt.toLocalDate();
+        int days = config.getHorizonDays() + 1;
+        return withScenarios(region, new ForecastCycle(issuedAt, firstDay.toEpochDay(),
+            generateHourlyDemandForecast(region, firstDay, days),
+            generateGenerationForecast(region, firstDay, days),
+            generatePriceForecastData(region, firstDay, days), null));
+    }
+    
+    // Draws the cycle's scenarios from the hour of issue on. Demand varies around the hourly forecast by the
+    // error its confidence implies, wind and cloud cover around the day's forecast weather. The days the
+    // scenarios cover get their price range and their generation and price confidence from the simulated
+    // spread; today counts however few of its hours are left, later days only when covered whole. The seed
+    // comes from region and issue time, so a cycle reloaded from the store gets the bands it was issued with.
+    private ForecastCycle withScenarios(String region, ForecastCycle cycle) {
+        long firstHour = Math.floorDiv(EpochTime.toMillis(cycle.issuedAt()), HOUR_MILLIS);
+        int from = (int) (firstHour - cycle.firstDay() * 24);
+        int hours = Math.min(config.getScenarioHours() + 24, cycle.demand().size() - from);
+        if (config.getScenarios() < 1 || hours < 1) {
+            return cycle;
+        }
+        
+        DemandForecast.HourlyDemand demand = cycle.demand();
+        GenerationForecast.DailyGeneration generation = cycle.generation();
+        PriceForecast.DailyPrice price = cycle.price();
+        double[] expectedDemand = new double[hours];
+        double[] demandError = new double[hours];
+        double[] windSpeed = new double[hours];
+        double[] cloudCover = new double[hours];
+        double[] hourPrice = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            int hour = from + i;
+            int day = hour / 24;
+            expectedDemand[i] = demand.predictedDemand()[hour];
+            // Confidence is one minus the expected absolute percentage error
+            demandError[i] = (1 - demand.confidence()[hour]) * expectedDemand[i] / ABSOLUTE_ERROR_PER_SD;
+            windSpeed[i] = generation.windSpeed()[day];
+            cloudCover[i] = generation.cloudCover()[day];
+            hourPrice[i] = price.predictedPrice()[day];
+            if (Double.isNaN(windSpeed[i]) || Double.isNaN(cloudCover[i])) {
+                log.debug("Forecast cycle {} of region {} has no weather to draw scenarios from", cycle.issuedAt(), region);
+                return cycle;
+            }
+        }
         
-        List<Map<String, Object>> priceForecasts = generatePriceForecastData(region, days);
+        ScenarioSimulator.Bands bands;
+        try {
+            long seed = 31L * region.hashCode() + cycle.issuedAt().toEpochSecond(ZoneOffset.UTC);
+            bands = ScenarioSimulator.simulate(new ScenarioSimulator.Inputs(firstHour, expectedDemand, demandError,
+                windSpeed, cloudCover, hourPrice, getSolarCapacityForRegion(region), getWindCapacityForRegion(region)),
+                config.getScenarios(), seed, scenarioPool);
+        } catch (Exception e) {
+            log.error("Failed to draw forecast scenarios for region {}: {}", region, e.getMessage());
+            return cycle;
+        }
         
-        forecast.put("region", region);
-        forecast.put("forecastPeriod", days + " days");
-        forecast.put("generatedAt", LocalDateTime.now().toString());
-        forecast.put("priceForecasts", priceForecasts);
-        forecast.put("priceAnalysis", generatePriceAnalysis(priceForecasts));
-        forecast.put("marketFactors", generateMarketFactors());
+        int firstDay = (int) (bands.firstDay() - cycle.firstDay());
+        int days = bands.dailyPrice()[0].length;
+        int[] dayHours = new int[days];
+        double[] generationSpread = new double[days];
+        double[] generationMedian = new double[days];
+        for (int i = 0; i < hours; i++) {
+            int d = (int) (Math.floorDiv(firstHour + i, 24L) - bands.firstDay());
+            dayHours[d]++;
+            generationSpread[d] += bands.generation()[2][i] - bands.generation()[0][i];
+            generationMedian[d] += bands.generation()[1][i];
+        }
         
-        return forecast;
+        double[] generationConfidence = generation.confidence().clone();
+        double[] priceConfidence = price.confidence().clone();
+        double[] low = price.low().clone();
+        double[] high = price.high().clone();
+        double[][] dailyPrice = bands.dailyPrice();
+        for (int d = 0; d < days; d++) {
+            if (d > 0 && dayHours[d] < 24) {
+                continue;
+            }
+            int day = firstDay + d;
+            generationConfidence[day] = spreadConfidence(generationSpread[d], generationMedian[d]);
+            priceConfidence[day] = spreadConfidence(dailyPrice[2][d] - dailyPrice[0][d], dailyPrice[1][d]);
+            low[day] = Math.round(dailyPrice[0][d] * 100.0) / 100.0;
+            high[day] = Math.round(dailyPrice[2][d] * 100.0) / 100.0;
+        }
+        
+        return new ForecastCycle(cycle.issuedAt(), cycle.firstDay(), demand,
+            new GenerationForecast.DailyGeneration(generation.epochDays(), generation.solarGeneration(),
+                generation.windGeneration(), generation.sunlightHours(), generation.windSpeed(),
+                generation.cloudCover(), generationConfidence),
+            new PriceForecast.DailyPrice(price.epochDays(), price.predictedPrice(), priceConfidence, low, high),
+            bands);
+    }
+    
+    // One minus the expected absolute percentage error of a normal forecast with this P10-P90 spread
+    private static double spreadConfidence(double spread, double median) {
+        if (median <= 0) {
+            return 0.0;
+        }
+        double error = ABSOLUTE_ERROR_PER_SD * spread / (2 * Z_90) / median;
+        return Math.round(Math.max(0.0, Math.min(1.0, 1 - error)) * 100.0) / 100.0;
+    }
+    
+    private int store(Map<String, ForecastCycle> produced) {
+        List<EnergyForecast> rows = new ArrayList<>();
+        for (Map.Entry<String, ForecastCycle> entry : produced.entrySet()) {
+            String region = entry.getKey();
+            ForecastCycle cycle = entry.getValue();
+            
+            DemandForecast.HourlyDemand demand = cycle.demand();
+            for (int i = 0; i < demand.size(); i++) {
+                EnergyForecast row = newRow(region, cycle.issuedAt(), EpochTime.fromMillis(demand.timestamps()[i]),
+                    DEMAND, demand.confidence()[i]);
+                row.setPredictedDemand(demand.predictedDemand()[i]);
+                rows.add(row);
+            }
+            
+            GenerationForecast.DailyGeneration generation = cycle.generation();
+            for (int i = 0; i < generation.size(); i++) {
+                EnergyForecast row = newRow(region, cycle.issuedAt(),
+                    LocalDate.ofEpochDay(generation.epochDays()[i]).atStartOfDay(), GENERATION, generation.confidence()[i]);
+                row.setPredictedSolarGeneration(generation.solarGeneration()[i]);
+                row.setPredictedWindGeneration(generation.windGeneration()[i]);
+                row.setSunlightHours(generation.sunlightHours()[i]);
+                row.setWindSpeed(generation.windSpeed()[i]);
+                row.setCloudCover(generation.cloudCover()[i]);
+                rows.add(row);
+            }
+            
+            PriceForecast.DailyPrice price = cycle.price();
+            for (int i = 0; i < price.size(); i++) {
+                EnergyForecast row = newRow(region, cycle.issuedAt(),
+                    LocalDate.ofEpochDay(price.epochDays()[i]).atStartOfDay(), PRICE, price.confidence()[i]);
+                row.setPredictedPrice(price.predictedPrice()[i]);
+                rows.add(row);
+            }
+        }
+        return forecastBatchRepository.insertAll(rows);
     }
     
-    public Map<String, Object> getComprehensiveForecast(String region, int days) {
-        Map<String, Object> comprehensive = new HashMap<>();
+    // Values a row type does not predict are stored as 0
+    private static EnergyForecast newRow(String region, LocalDateTime issuedAt, LocalDateTime targetDate,
+                                         String type, double confidence) {
+        EnergyForecast row = new EnergyForecast();
+        row.setRegion(region);
+        row.setForecastDate(issuedAt);
+        row.setTargetDate(targetDate);
+        row.setForecastType(type);
+        row.setPredictedDemand(0.0);
+        row.setPredictedSolarGeneration(0.0);
+        row.setPredictedWindGeneration(0.0);
+        row.setPredictedPrice(0.0);
+        row.setConfidenceLevel(confidence);
+        return row;
+    }
+    
+    // Null when the region has no stored cycle or its latest one is incomplete
+    private ForecastCycle loadLatest(String region) {
+        LocalDateTime issuedAt = forecastRepository.findLatestCycle(region);
+        if (issuedAt == null) {
+            return null;
+        }
         
-        comprehensive.put("region", region);
-        comprehensive.put("forecastPeriod", days + " days");
-        comprehensive.put("generatedAt", LocalDateTime.now().toString());
-        comprehensive.put("demandForecast", generateEnergyDemandForecast(region, days));
-        comprehensive.put("generationForecast", generateWeatherBasedGenerationForecast(region, days));
-        comprehensive.put("priceForecast", generatePriceForecast(region, days));
-        comprehensive.put("riskAssessment", generateRiskAssessment(region, days));
+        List<ForecastPoint> demand = new ArrayList<>();
+        List<ForecastPoint> generation = new ArrayList<>();
+        List<ForecastPoint> price = new ArrayList<>();
+        for (ForecastPoint point : forecastRepository.findCycle(region, issuedAt)) {
+            switch (point.forecastType()) {
+                case DEMAND -> demand.add(point);
+                case GENERATION -> generation.add(point);
+                case PRICE -> price.add(point);
+                default -> { }
+            }
+        }
+        int days = generation.size();
+        if (days == 0 || price.size() != days || demand.size() != days * 24) {
+            log.warn("Ignoring incomplete forecast cycle {} of region {}", issuedAt, region);
+            return null;
+        }
+        
+        long[] timestamps = new long[demand.size()];
+        double[] predictedDemand = new double[demand.size()];
+        double[] demandConfidence = new double[demand.size()];
+        for (int i = 0; i < demand.size(); i++) {
+            ForecastPoint point = demand.get(i);
+            timestamps[i] = EpochTime.toMillis(point.targetDate());
+            predictedDemand[i] = point.predictedDemand();
+            demandConfidence[i] = point.confidenceLevel();
+        }
         
-        return comprehensive;
+        long[] epochDays = new long[days];
+        double[] solar = new double[days];
+        double[] wind = new double[days];
+        double[] sunlightHours = new double[days];
+        double[] windSpeeds = new double[days];
+        double[] cloudCovers = new double[days];
+        double[] generationConfidence = new double[days];
+        double[] prices = new double[days];
+        double[] priceConfidence = new double[days];
+        for (int i = 0; i < days; i++) {
+            ForecastPoint point = generation.get(i);
+            epochDays[i] = point.targetDate().toLocalDate().toEpochDay();
+            solar[i] = point.predictedSolarGeneration();
+            wind[i] = point.predictedWindGeneration();
+            sunlightHours[i] = valueOrNaN(point.sunlightHours());
+            windSpeeds[i] = valueOrNaN(point.windSpeed());
+            cloudCovers[i] = valueOrNaN(point.cloudCover());
+            generationConfidence[i] = point.confidenceLevel();
+            prices[i] = price.get(i).predictedPrice();
+            priceConfidence[i] = price.get(i).confidenceLevel();
+        }
+        
+        return withScenarios(region, new ForecastCycle(issuedAt, epochDays[0],
+            new DemandForecast.HourlyDemand(timestamps, predictedDemand, demandConfidence),
+            new GenerationForecast.DailyGeneration(epochDays, solar, wind, sunlightHours, windSpeeds, cloudCovers,
+                generationConfidence),
+            PriceForecast.DailyPrice.withFixedRange(epochDays.clone(), prices, priceConfidence), null));
     }
     
-    private List<Map<String, Object>> generateHourlyDemandForecast(String region, int days) {
-        List<Map<String, Object>> forecasts = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
+    // From the region's Holt-Winters model. Confidence is one minus the MAPE the walk-forward backtest measured
+    // at the same distance from the last observation, or one minus the model's relative standard error before
+    // the region has been backtested. Regions without enough history fall back to static hour, season and
+    // weekday profiles, which are deterministic and carry STATIC_PROFILE_CONFIDENCE.
+    private DemandForecast.HourlyDemand generateHourlyDemandForecast(String region, LocalDate firstDay, int days) {
+        int points = days * 24;
+        long[] timestamps = new long[points];
+        double[] demand = new double[points];
+        double[] confidences = new double[points];
+        long start = EpochTime.toMillis(firstDay.atStartOfDay());
+        for (int i = 0; i < points; i++) {
+            timestamps[i] = start + i * HOUR_MILLIS;
+        }
+        
+        DemandModelService.DemandOutlook outlook = demandModelService.forecast(region, start, points);
+        if (outlook != null) {
+            BacktestService.Accuracy accuracy = backtestService.accuracy(region);
+            long firstHour = Math.floorDiv(start, HOUR_MILLIS);
+            for (int i = 0; i < points; i++) {
+                double predictedDemand = Math.max(0.0, outlook.demand()[i]);
+                double error = accuracy == null ? Double.NaN : accuracy.mape(firstHour + i - outlook.lastHour());
+                if (Double.isNaN(error)) {
+                    error = predictedDemand == 0 ? 1.0 : outlook.errors()[i] / predictedDemand;
+                }
+                double confidence = Math.max(0.0, Math.min(1.0, 1 - error));
+                demand[i] = Math.round(predictedDemand * 100.0) / 100.0;
+                confidences[i] = Math.round(confidence * 100.0) / 100.0;
+            }
+            return new DemandForecast.HourlyDemand(timestamps, demand, confidences);
+        }
         
+        double baseDemand = getBaseDemandForRegion(region);
         for (int day = 0; day < days; day++) {
+            LocalDateTime targetDate = firstDay.plusDays(day).atStartOfDay();
+            double seasonalFactor = getSeasonalFactor(targetDate) * getWeekdayFactor(targetDate);
             for (int hour = 0; hour < 24; hour++) {
-                LocalDateTime targetTime = now.plusDays(day).withHour(hour).withMinute(0).withSecond(0);
-                
-                // Simulate demand patterns based on time of day and region
-                double baseDemand = getBaseDemandForRegion(region);
-                double hourlyMultiplier = getHourlyDemandMultiplier(hour);
-                double seasonalFactor = getSeasonalFactor(targetTime);
-                double randomVariation = 0.9 + (Math.random() * 0.2); // ±10% variation
-                
-                double predictedDemand = baseDemand * hourlyMultiplier * seasonalFactor * randomVariation;
-                double confidence = 0.75 + (Math.random() * 0.2); // 75-95% confidence
-                
-                Map<String, Object> hourlyForecast = new HashMap<>();
-                hourlyForecast.put("timestamp", targetTime.toString());
-                hourlyForecast.put("predictedDemand", Math.round(predictedDemand * 100.0) / 100.0);
-                hourlyForecast.put("confidence", Math.round(confidence * 100.0) / 100.0);
-                hourlyForecast.put("hour", hour);
-                hourlyForecast.put("day", day + 1);
-                
-                forecasts.add(hourlyForecast);
+                int i = day * 24 + hour;
+                double predictedDemand = baseDemand * getHourlyDemandMultiplier(hour) * seasonalFactor;
+                demand[i] = Math.round(predictedDemand * 100.0) / 100.0;
+                confidences[i] = STATIC_PROFILE_CONFIDENCE;
             }
         }
         
-        return forecasts;
+        return new DemandForecast.HourlyDemand(timestamps, demand, confidences);
     }
     
-    private List<Map<String, Object>> generateDailyDemandForecast(String region, int days) {
-        List<Map<String, Object>> dailyForecasts = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
+    // Daily totals are the sums of the hourly forecasts, so both views of a cycle agree
+    private static DemandForecast.DailyDemand aggregateDailyDemand(DemandForecast.HourlyDemand hourly) {
+        int days = hourly.size() / 24;
+        long[] epochDays = new long[days];
+        double[] demand = new double[days];
+        double[] confidences = new double[days];
         
         for (int day = 0; day < days; day++) {
-            LocalDateTime targetDate = now.plusDays(day);
-            
-            double baseDemand = getBaseDemandForRegion(region) * 24; // Daily total
-            double seasonalFactor = getSeasonalFactor(targetDate);
-            double weekdayFactor = getWeekdayFactor(targetDate);
-            double randomVariation = 0.9 + (Math.random() * 0.2);
-            
-            double predictedDailyDemand = baseDemand * seasonalFactor * weekdayFactor * randomVariation;
-            double confidence = 0.80 + (Math.random() * 0.15);
-            
-            Map<String, Object> dailyForecast = new HashMap<>();
-            dailyForecast.put("date", targetDate.toLocalDate().toString());
-            dailyForecast.put("predictedDemand", Math.round(predictedDailyDemand * 100.0) / 100.0);
-            dailyForecast.put("confidence", Math.round(confidence * 100.0) / 100.0);
-            dailyForecast.put("dayOfWeek", targetDate.getDayOfWeek().toString());
-            
-            dailyForecasts.add(dailyForecast);
+            double total = 0;
+            double confidence = 0;
+            for (int i = day * 24; i < (day + 1) * 24; i++) {
+                total += hourly.predictedDemand()[i];
+                confidence += hourly.confidence()[i];
+            }
+            epochDays[day] = Math.floorDiv(hourly.timestamps()[day * 24], DAY_MILLIS);
+            demand[day] = Math.round(total * 100.0) / 100.0;
+            confidences[day] = Math.round(confidence / 24 * 100.0) / 100.0;
         }
         
-        return dailyForecasts;
+        return new DemandForecast.DailyDemand(epochDays, demand, confidences);
     }
     
-    private List<Map<String, Object>> generateGenerationForecast(String region, int days) {
-        List<Map<String, Object>> forecasts = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
+    private GenerationForecast.DailyGeneration generateGenerationForecast(String region, LocalDate firstDay, int days) {
+        long[] epochDays = new long[days];
+        double[] solar = new double[days];
+        double[] wind = new double[days];
+        double[] sunlightHours = new double[days];
+        double[] windSpeeds = new double[days];
+        double[] cloudCovers = new double[days];
+        double[] confidences = new double[days];
+        
+        // Weather-based generation predictions
+        double solarCapacity = getSolarCapacityForRegion(region);
+        double windCapacity = getWindCapacityForRegion(region);
         
         for (int day = 0; day < days; day++) {
-            LocalDateTime targetDate = now.plusDays(day);
-            
-            // Weather-based generation predictions
-            double solarCapacity = getSolarCapacityForRegion(region);
-            double windCapacity = getWindCapacityForRegion(region);
-            
             double predictedSunlight = 6 + (Math.random() * 6); // 6-12 hours
             double predictedWindSpeed = 5 + (Math.random() * 10); // 5-15 m/s
             double cloudCover = Math.random() * 0.7; // 0-70% cloud cover
             
-            double solarGeneration = solarCapacity * (predictedSunlight / 12) * (1 - cloudCover);
-            double windGeneration = windCapacity * Math.min(predictedWindSpeed / 15, 1.0);
-            
-            Map<String, Object> forecast = new HashMap<>();
-            forecast.put("date", targetDate.toLocalDate().toString());
-            forecast.put("predictedSolarGeneration", Math.round(solarGeneration * 100.0) / 100.0);
-            forecast.put("predictedWindGeneration", Math.round(windGeneration * 100.0) / 100.0);
-            forecast.put("totalGeneration", Math.round((solarGeneration + windGeneration) * 100.0) / 100.0);
-            forecast.put("weatherFactors", Map.of(
-                "sunlightHours", Math.round(predictedSunlight * 10.0) / 10.0,
-                "windSpeed", Math.round(predictedWindSpeed * 10.0) / 10.0,
-                "cloudCover", Math.round(cloudCover * 100.0)
-            ));
-            forecast.put("confidence", 0.70 + (Math.random() * 0.25));
-            
-            forecasts.add(forecast);
+            epochDays[day] = firstDay.plusDays(day).toEpochDay();
+            solar[day] = solarCapacity * (predictedSunlight / 12) * (1 - cloudCover);
+            wind[day] = windCapacity * Math.min(predictedWindSpeed / 15, 1.0);
+            sunlightHours[day] = predictedSunlight;
+            windSpeeds[day] = predictedWindSpeed;
+            cloudCovers[day] = cloudCover * 100;
+            confidences[day] = 0.70 + (Math.random() * 0.25);
         }
         
-        return forecasts;
+        return new GenerationForecast.DailyGeneration(epochDays, solar, wind, sunlightHours, windSpeeds,
+            cloudCovers, confidences);
     }
     
-    private List<Map<String, Object>> generatePriceForecastData(String region, int days) {
-        List<Map<String, Object>> forecasts = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
+    private PriceForecast.DailyPrice generatePriceForecastData(String region, LocalDate firstDay, int days) {
+        long[] epochDays = new long[days];
+        double[] prices = new double[days];
+        double[] confidences = new double[days];
         double basePrice = 45.0 + (Math.random() * 20); // $45-65/MWh base
         
         for (int day = 0; day < days; day++) {
-            LocalDateTime targetDate = now.plusDays(day);
-            
             double demandFactor = 0.9 + (Math.random() * 0.3); // Demand impact
             double supplyFactor = 0.8 + (Math.random() * 0.4); // Supply impact
             double marketVolatility = 0.95 + (Math.random() * 0.1); // Market volatility
@@ -183,19 +644,12 @@ public class ForecastingService {
             double predictedPrice = basePrice * demandFactor * supplyFactor * marketVolatility;
             double confidence = 0.65 + (Math.random() * 0.25);
             
-            Map<String, Object> forecast = new HashMap<>();
-            forecast.put("date", targetDate.toLocalDate().toString());
-            forecast.put("predictedPrice", Math.round(predictedPrice * 100.0) / 100.0);
-            forecast.put("confidence", Math.round(confidence * 100.0) / 100.0);
-            forecast.put("priceRange", Map.of(
-                "low", Math.round((predictedPrice * 0.85) * 100.0) / 100.0,
-                "high", Math.round((predictedPrice * 1.15) * 100.0) / 100.0
-            ));
-            
-            forecasts.add(forecast);
+            epochDays[day] = firstDay.plusDays(day).toEpochDay();
+            prices[day] = Math.round(predictedPrice * 100.0) / 100.0;
+            confidences[day] = Math.round(confidence * 100.0) / 100.0;
         }
         
-        return forecasts;
+        return PriceForecast.DailyPrice.withFixedRange(epochDays, prices, confidences);
     }
     
     // Helper methods for realistic forecasting
@@ -244,65 +698,62 @@ public class ForecastingService {
         return windCapacities.getOrDefault(region, 130.0);
     }
     
-    private Map<String, Object> generateForecastSummary(List<Map<String, Object>> forecasts) {
-        double avgDemand = forecasts.stream()
-            .mapToDouble(f -> (Double) f.get("predictedDemand"))
-            .average().orElse(0.0);
-        
-        double peakDemand = forecasts.stream()
-            .mapToDouble(f -> (Double) f.get("predictedDemand"))
-            .max().orElse(0.0);
+    private static double valueOrNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+    
+    private DemandForecast.Summary generateForecastSummary(DemandForecast.HourlyDemand forecasts) {
+        double[] demand = forecasts.predictedDemand();
+        double sum = 0;
+        double peakDemand = 0;
+        for (double value : demand) {
+            sum += value;
+            peakDemand = Math.max(peakDemand, value);
+        }
+        double avgDemand = demand.length == 0 ? 0.0 : sum / demand.length;
+        double avgConfidence = Arrays.stream(forecasts.confidence()).average().orElse(0.0);
         
-        return Map.of(
-            "averageDemand", Math.round(avgDemand * 100.0) / 100.0,
-            "peakDemand", Math.round(peakDemand * 100.0) / 100.0,
-            "totalForecasts", forecasts.size(),
-            "averageConfidence", 0.85
+        return new DemandForecast.Summary(
+            Math.round(avgDemand * 100.0) / 100.0,
+            Math.round(peakDemand * 100.0) / 100.0,
+            demand.length,
+            Math.round(avgConfidence * 100.0) / 100.0
         );
     }
     
-    private double calculateTotalGeneration(List<Map<String, Object>> forecasts) {
-        return forecasts.stream()
-            .mapToDouble(f -> (Double) f.get("totalGeneration"))
-            .sum();
+    private double calculateTotalGeneration(GenerationForecast.DailyGeneration forecasts) {
+        double total = 0;
+        for (int i = 0; i < forecasts.size(); i++) {
+            total += Math.round(forecasts.totalGeneration(i) * 100.0) / 100.0;
+        }
+        return total;
     }
     
-    private Map<String, Object> generateWeatherFactors() {
-        return Map.of(
-            "expectedSunnyDays", 4 + (int)(Math.random() * 3),
-            "expectedWindyDays", 3 + (int)(Math.random() * 4),
-            "averageCloudCover", Math.round((30 + Math.random() * 40) * 10.0) / 10.0
-        );
+    private GenerationForecast.WeatherFactors generateWeatherFactors(GenerationForecast.DailyGeneration forecasts) {
+        int sunnyDays = 0;
+        int windyDays = 0;
+        double cloudCover = 0;
+        for (int i = 0; i < forecasts.size(); i++) {
+            if (forecasts.sunlightHours()[i] >= 9) sunnyDays++;
+            if (forecasts.windSpeed()[i] >= 10) windyDays++;
+            cloudCover += forecasts.cloudCover()[i];
+        }
+        double averageCloudCover = forecasts.size() == 0 ? 0.0 : cloudCover / forecasts.size();
+        
+        return new GenerationForecast.WeatherFactors(sunnyDays, windyDays, Math.round(averageCloudCover * 10.0) / 10.0);
     }
     
-    private Map<String, Object> generatePriceAnalysis(List<Map<String, Object>> forecasts) {
-        double avgPrice = forecasts.stream()
-            .mapToDouble(f -> (Double) f.get("predictedPrice"))
-            .average().orElse(0.0);
+    private PriceForecast.PriceAnalysis generatePriceAnalysis(PriceForecast.DailyPrice forecasts) {
+        double avgPrice = Arrays.stream(forecasts.predictedPrice()).average().orElse(0.0);
         
-        return Map.of(
-            "averagePrice", Math.round(avgPrice * 100.0) / 100.0,
-            "priceVolatility", "MODERATE",
-            "trend", "STABLE",
-            "riskLevel", "LOW"
-        );
+        return new PriceForecast.PriceAnalysis(Math.round(avgPrice * 100.0) / 100.0, "MODERATE", "STABLE", "LOW");
     }
     
-    private Map<String, Object> generateMarketFactors() {
-        return Map.of(
-            "demandGrowth", "2.3%",
-            "renewableShare", "35%",
-            "gridStability", "HIGH"
-        );
+    private PriceForecast.MarketFactors generateMarketFactors() {
+        return new PriceForecast.MarketFactors("2.3%", "35%", "HIGH");
     }
     
-    private Map<String, Object> generateRiskAssessment(String region, int days) {
-        return Map.of(
-            "supplyRisk", "LOW",
-            "demandRisk", "MODERATE", 
-            "priceRisk", "LOW",
-            "weatherRisk", "MODERATE",
-            "overallRisk", "LOW-MODERATE"
-        );
+    private ComprehensiveForecast.RiskAssessment generateRiskAssessment(String region, int days) {
+        return new ComprehensiveForecast.RiskAssessment("LOW", "MODERATE", "LOW", "MODERATE", "LOW-MODERATE");
     }
-}
\ No newline at end of file
+}
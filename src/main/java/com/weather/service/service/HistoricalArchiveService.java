@@ -0,0 +1,149 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.SeriesArchiveWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Cold days are copied into compressed per-region daily files for offline use: the raw rows stay in the database
+// and every read path queries them there, so nothing in the application reads the archive back. Files can be
+// decoded with SeriesArchiveReader. Timestamps are written as the epoch millis of the instant, like the JSON
+// series, not as the wall-clock keys used in memory.
+@Service
+@Slf4j
+public class HistoricalArchiveService {
+
+    // The derived total is recomputed on read rather than stored
+    private static final HistoricalMetric[] ARCHIVED_METRICS = Arrays.stream(HistoricalMetric.values())
+        .filter(metric -> metric != HistoricalMetric.TOTAL_GENERATION)
+        .toArray(HistoricalMetric[]::new);
+    private static final String[] ARCHIVED_KEYS = Arrays.stream(ARCHIVED_METRICS)
+        .map(HistoricalMetric::getKey)
+        .toArray(String[]::new);
+    private static final String EXTENSION = ".eas";
+    private static final int CATCH_UP_DAYS = 7;
+
+    private final RegionRegistry regionRegistry;
+    private final HistoricalStreamService streamService;
+    private final AppConfig.Archive config;
+
+    public HistoricalArchiveService(RegionRegistry regionRegistry,
+                                    HistoricalStreamService streamService, AppConfig appConfig) {
+        this.regionRegistry = regionRegistry;
+        this.streamService = streamService;
+        this.config = appConfig.getArchive();
+    }
+
+    // Compressed equivalent of the CSV export, written page by page
+    public long exportBinary(String region, int days, OutputStream out) throws IOException {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(days);
+        long rows = writeArchive(region, from, to, out);
+
+        log.info("Exported {} historical rows for region {} covering {} days as binary", rows, region, days);
+        return rows;
+    }
+
+    // Writes one file per region and day once the day has gone cold. Recent days that were
+    // missed (app down at the scheduled time) are picked up on the next run.
+    @Scheduled(cron = "0 30 1 * * *")
+    public void archiveColdDays() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (config.getDirectory() == null || config.getDirectory().isBlank()) {
+            log.warn("Archiving is enabled but app.archive.directory is not set; skipping");
+            return;
+        }
+
+        LocalDate newest = LocalDate.now().minusDays(config.getColdAfterDays());
+        for (String region : regionRegistry.codes()) {
+            for (int i = CATCH_UP_DAYS - 1; i >= 0; i--) {
+                LocalDate day = newest.minusDays(i);
+                try {
+                    archiveDay(region, day);
+                } catch (IOException | UncheckedIOException e) {
+                    log.error("Failed to archive {} for region {}: {}", day, region, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean archiveDay(String region, LocalDate day) throws IOException {
+        Path target = archivePath(region, day);
+        if (Files.exists(target)) {
+            return false;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), day.toString(), ".tmp");
+        long rows;
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            rows = writeArchive(region, day.atStartOfDay(), day.plusDays(1).atStartOfDay(), out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (rows == 0) {
+            Files.delete(temp);
+            return false;
+        }
+        // Readers never observe a partially written archive
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived {} rows for region {} on {} ({} bytes)", rows, region, day, Files.size(target));
+        return true;
+    }
+
+    private long writeArchive(String region, LocalDateTime from, LocalDateTime to, OutputStream out)
+            throws IOException {
+        SeriesArchiveWriter writer = new SeriesArchiveWriter(out, region, ARCHIVED_KEYS, config.getBlockSize());
+        double[] values = new double[ARCHIVED_METRICS.length];
+
+        try {
+            streamService.forEachPage(region, from, to, HistoricalStreamService.DEFAULT_PAGE_SIZE, page -> {
+                for (HistoricalWeatherData data : page) {
+                    for (int m = 0; m < ARCHIVED_METRICS.length; m++) {
+                        values[m] = ARCHIVED_METRICS[m].valueOf(data);
+                    }
+                    try {
+                        writer.append(EpochTime.toInstantMillis(EpochTime.toMillis(data.getTimestamp())), values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.finish();
+        return writer.getSampleCount();
+    }
+
+    private Path archivePath(String region, LocalDate day) {
+        if (config.getDirectory() == null || config.getDirectory().isBlank()) {
+            throw new IllegalStateException("app.archive.directory is not set");
+        }
+        // The code becomes a directory name, so anything that could leave the archive directory is refused
+        if (!RegionRegistry.isValidCode(region)) {
+            throw new IllegalArgumentException("Invalid region code: " + region);
+        }
+        return Paths.get(config.getDirectory(), region, day + EXTENSION);
+    }
+}
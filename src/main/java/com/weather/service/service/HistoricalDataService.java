@@ -2,11 +2,25 @@ package com.weather.service.service;
 
 import com.weather.service.entity.HistoricalWeatherData;
 import com.weather.service.repository.HistoricalWeatherDataRepository;
+import com.weather.service.repository.projection.BucketAggregate;
+import com.weather.service.repository.projection.HistoricalAggregate;
+import com.weather.service.timeseries.DownsampledSeries;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import com.weather.service.timeseries.SampleRingBuffer;
+import com.weather.service.timeseries.SeriesDownsampler;
+import com.weather.service.timeseries.StatsWindow;
+import com.weather.service.timeseries.WelfordStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -16,11 +30,28 @@ import java.util.HashMap;
 @Slf4j
 public class HistoricalDataService {
     
+    private static final int MIN_SERIES_POINTS = 3;
+    private static final int MAX_SERIES_POINTS = 10000;
+    private static final List<HistoricalMetric> DEFAULT_PERCENTILE_METRICS = List.of(
+        HistoricalMetric.TOTAL_CONSUMPTION, HistoricalMetric.EFFICIENCY, HistoricalMetric.TOTAL_GENERATION);
+    private static final List<Double> DEFAULT_QUANTILES = List.of(0.5, 0.95, 0.99);
+    
     private final HistoricalWeatherDataRepository repository;
+    private final HistoricalIngestionService ingestionService;
+    private final RecentSampleBufferService sampleBufferService;
+    private final RollupService rollupService;
+    private final RunningStatsService runningStatsService;
+    private final CorrelationMatrixService correlationMatrixService;
+    private final TrendService trendService;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final PercentileService percentileService;
+    private final RegionRegistry regionRegistry;
+    private final HistoricalStreamService streamService;
     
     public void saveWeatherData(String region, Map<String, Object> weatherData, Map<String, Object> energyData) {
         HistoricalWeatherData data = new HistoricalWeatherData();
         data.setRegion(region);
+        data.setRegionId(regionRegistry.idFor(region));
         data.setTimestamp(LocalDateTime.now());
         data.setTemperature((Double) weatherData.get("temperature"));
         data.setWindSpeed((Double) weatherData.get("windSpeed"));
@@ -31,30 +62,234 @@ public class HistoricalDataService {
         data.setTotalConsumption((Double) energyData.get("consumption"));
         data.setEfficiency((Double) energyData.get("efficiency"));
         
-        repository.save(data);
+        ingestionService.enqueue(data);
+        sampleBufferService.append(data);
+        runningStatsService.record(data);
+        correlationMatrixService.record(data);
+        anomalyDetectionService.record(data);
     }
     
-    public List<HistoricalWeatherData> getHistoricalData(String region, int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        return repository.findRecentDataByRegion(region, since);
+    // Grouped while streaming the rows in timestamp order, so only one hour's values are held at a time and the
+    // query stays portable across PostgreSQL and H2. The 95th percentile interpolates like PERCENTILE_CONT.
+    public List<BucketAggregate> getHourlyGeneration(String region, int hours) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BucketAggregate> buckets = new ArrayList<>();
+        HourlyGeneration current = new HourlyGeneration();
+        streamService.stream(region, now.minusHours(hours), now, row -> {
+            LocalDateTime hour = RollupResolution.HOUR.bucketStart(row.getTimestamp());
+            if (current.hour != null && !hour.equals(current.hour)) {
+                buckets.add(current.finish());
+            }
+            current.hour = hour;
+            current.rows++;
+            if (row.getSolarGeneration() != null && row.getWindGeneration() != null) {
+                current.add(row.getSolarGeneration() + row.getWindGeneration());
+            }
+        });
+        if (current.hour != null) {
+            buckets.add(current.finish());
+        }
+        return buckets;
+    }
+    
+    private static final class HourlyGeneration {
+        private LocalDateTime hour;
+        private long rows;
+        private double[] values = new double[64];
+        private int size;
+        
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        BucketAggregate finish() {
+            BucketAggregate bucket;
+            if (size == 0) {
+                bucket = new BucketAggregate(hour, rows, null, null, null);
+            } else {
+                Arrays.sort(values, 0, size);
+                double sum = 0;
+                for (int i = 0; i < size; i++) {
+                    sum += values[i];
+                }
+                double position = 0.95 * (size - 1);
+                int lower = (int) position;
+                double p95 = lower + 1 < size
+                    ? values[lower] + (position - lower) * (values[lower + 1] - values[lower])
+                    : values[lower];
+                bucket = new BucketAggregate(hour, rows, sum / size, values[size - 1], p95);
+            }
+            rows = 0;
+            size = 0;
+            return bucket;
+        }
     }
     
     public Map<String, Object> getHistoricalAnalytics(String region, int days) {
         LocalDateTime since = LocalDateTime.now().minusDays(days);
-        List<HistoricalWeatherData> data = repository.findRecentDataByRegion(region, since);
         
-        if (data.isEmpty()) {
+        // 1, 7 and 30 day windows are maintained incrementally at ingest
+        StatsWindow window = StatsWindow.forDays(days);
+        WelfordStats stats = window == null ? null : runningStatsService.snapshot(region, window);
+        int efficiency = HistoricalMetric.EFFICIENCY.ordinal();
+        if (stats != null && stats.count(efficiency) > 0) {
+            return buildAnalytics(region, days, stats.count(efficiency),
+                stats.mean(efficiency), stats.max(HistoricalMetric.TOTAL_GENERATION.ordinal()));
+        }
+        
+        // Other recent windows are answered from the in-memory buffer without touching the database
+        SampleRingBuffer.WindowSummary summary = sampleBufferService.summarize(region, since);
+        if (summary != null && summary.count() > 0) {
+            return buildAnalytics(region, days, summary.count(),
+                summary.mean(HistoricalMetric.EFFICIENCY), summary.max(HistoricalMetric.TOTAL_GENERATION));
+        }
+        
+        // Longer windows read hourly or daily rollups instead of scanning raw rows
+        Map<String, RollupService.MetricSummary> rollups =
+            rollupService.summarize(RollupSource.WEATHER, region, since, LocalDateTime.now());
+        RollupService.MetricSummary efficiencySummary = rollups.get(HistoricalMetric.EFFICIENCY.getKey());
+        RollupService.MetricSummary generationSummary = rollups.get(HistoricalMetric.TOTAL_GENERATION.getKey());
+        if (efficiencySummary != null && generationSummary != null) {
+            return buildAnalytics(region, days, efficiencySummary.count(), efficiencySummary.mean(),
+                generationSummary.max());
+        }
+        
+        // Raw fallback aggregates in the database and reads back a single row
+        HistoricalAggregate aggregate = repository.summarizeRange(regionRegistry.lookup(region), since, LocalDateTime.now());
+        if (aggregate.getSampleCount() == 0) {
             return generateMockHistoricalAnalytics(region, days);
         }
         
+        return buildAnalytics(region, days, aggregate.getSampleCount(),
+            aggregate.getAverageEfficiency(), aggregate.getPeakGeneration());
+    }
+    
+    // Chart-ready series: at most maxPoints per metric, reduced while streaming the raw rows
+    public Map<String, Object> getDownsampledSeries(String region, int days, int maxPoints, String mode,
+                                                    List<String> metricKeys) {
+        HistoricalMetric[] metrics = metricKeys == null || metricKeys.isEmpty()
+            ? HistoricalMetric.values()
+            : metricKeys.stream().map(HistoricalMetric::fromKey).toArray(HistoricalMetric[]::new);
+        int points = Math.max(MIN_SERIES_POINTS, Math.min(maxPoints, MAX_SERIES_POINTS));
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(days);
+        
+        SeriesDownsampler downsampler = SeriesDownsampler.create(mode, EpochTime.toMillis(from),
+            EpochTime.toMillis(to), points, metrics.length);
+        double[] values = new double[metrics.length];
+        streamService.stream(region, from, to, row -> {
+            for (int m = 0; m < metrics.length; m++) {
+                values[m] = metrics[m].valueOf(row);
+            }
+            downsampler.add(EpochTime.toMillis(row.getTimestamp()), values);
+        });
+        DownsampledSeries series = downsampler.finish();
+        
+        Map<String, Object> byMetric = new HashMap<>();
+        for (int m = 0; m < metrics.length; m++) {
+            Map<String, Object> metricSeries = new HashMap<>();
+            metricSeries.put("timestamps", EpochTime.toInstantMillis(series.timestamps(m)));
+            metricSeries.put("values", series.values(m));
+            byMetric.put(metrics[m].getKey(), metricSeries);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("region", region);
+        result.put("period", days + " days");
+        result.put("mode", mode.toLowerCase());
+        result.put("maxPoints", points);
+        result.put("rawPoints", series.inputPoints());
+        result.put("series", byMetric);
+        return result;
+    }
+    
+    public Map<String, Object> getRunningStatistics(String region, String windowKey) {
+        StatsWindow window = StatsWindow.fromKey(windowKey);
+        WelfordStats stats = runningStatsService.snapshot(region, window);
+        
+        Map<String, Object> metrics = new HashMap<>();
+        if (stats != null) {
+            for (HistoricalMetric metric : HistoricalMetric.values()) {
+                int m = metric.ordinal();
+                if (stats.count(m) == 0) {
+                    continue;
+                }
+                Map<String, Object> values = new HashMap<>();
+                values.put("count", stats.count(m));
+                values.put("sum", stats.sum(m));
+                values.put("mean", stats.mean(m));
+                values.put("variance", stats.variance(m));
+                values.put("stdDev", stats.stdDev(m));
+                values.put("min", stats.min(m));
+                values.put("max", stats.max(m));
+                metrics.put(metric.getKey(), values);
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("region", region);
+        result.put("window", window.getKey());
+        result.put("metrics", metrics);
+        return result;
+    }
+    
+    // regionsParam may list several regions separated by commas; their distributions are merged
+    public Map<String, Object> getPercentiles(String regionsParam, int days, List<String> metricKeys,
+                                              List<Double> quantiles) {
+        List<String> regions = Arrays.stream(regionsParam.split(",")).map(String::trim)
+            .filter(r -> !r.isEmpty()).distinct().toList();
+        if (regions.isEmpty()) {
+            throw new IllegalArgumentException("At least one region is required");
+        }
+        List<HistoricalMetric> metrics = metricKeys == null || metricKeys.isEmpty()
+            ? DEFAULT_PERCENTILE_METRICS
+            : metricKeys.stream().map(HistoricalMetric::fromKey).toList();
+        List<Double> qs = quantiles == null || quantiles.isEmpty() ? DEFAULT_QUANTILES : quantiles;
+        
+        int period = Math.max(1, days);
+        LocalDateTime to = LocalDateTime.now();
+        PercentileService.Distribution distribution =
+            percentileService.distribution(regions, metrics, to.minusDays(period), to);
+        
+        Map<String, Object> byMetric = new HashMap<>();
+        distribution.digests().forEach((metric, digest) -> {
+            Map<String, Object> values = new HashMap<>();
+            values.put("count", digest.count());
+            if (digest.count() > 0) {
+                values.put("min", digest.min());
+                values.put("max", digest.max());
+                for (double q : qs) {
+                    values.put(percentileKey(q), digest.quantile(q));
+                }
+            }
+            byMetric.put(metric.getKey(), values);
+        });
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("regions", regions);
+        result.put("period", period + " days");
+        result.put("resolution", distribution.resolution().name().toLowerCase());
+        result.put("metrics", byMetric);
+        return result;
+    }
+    
+    // 0.5 -> "p50", 0.999 -> "p99.9"
+    private static String percentileKey(double quantile) {
+        return "p" + BigDecimal.valueOf(quantile * 100).stripTrailingZeros().toPlainString();
+    }
+    
+    private Map<String, Object> buildAnalytics(String region, int days, long totalRecords,
+                                               double averageEfficiency, double peakGeneration) {
         Map<String, Object> analytics = new HashMap<>();
-        analytics.put("totalRecords", data.size());
-        analytics.put("averageEfficiency", calculateAverageEfficiency(data));
-        analytics.put("peakGeneration", calculatePeakGeneration(data));
-        analytics.put("trends", calculateTrends(data));
+        analytics.put("totalRecords", totalRecords);
+        analytics.put("averageEfficiency", averageEfficiency);
+        analytics.put("peakGeneration", peakGeneration);
+        analytics.put("trends", calculateTrends(region, days));
         analytics.put("region", region);
         analytics.put("period", days + " days");
-        
         return analytics;
     }
     
@@ -88,23 +323,20 @@ public class HistoricalDataService {
         return analytics;
     }
     
-    private Double calculateAverageEfficiency(List<HistoricalWeatherData> data) {
-        return data.stream().mapToDouble(HistoricalWeatherData::getEfficiency).average().orElse(0.0);
-    }
-    
-    private Double calculatePeakGeneration(List<HistoricalWeatherData> data) {
-        return data.stream().mapToDouble(d -> d.getSolarGeneration() + d.getWindGeneration()).max().orElse(0.0);
-    }
-    
-    private Map<String, String> calculateTrends(List<HistoricalWeatherData> data) {
-        // Simple trend analysis - in production, use more sophisticated algorithms
+    private Map<String, String> calculateTrends(String region, int days) {
+        TrendService.TrendReport report = trendService.trends(region, Math.max(1, Math.min(days, TrendService.MAX_DAYS)));
         return Map.of(
-            "efficiency", "stable",
-            "generation", "increasing", 
-            "consumption", "stable"
+            "efficiency", direction(report, HistoricalMetric.EFFICIENCY),
+            "generation", direction(report, HistoricalMetric.TOTAL_GENERATION),
+            "consumption", direction(report, HistoricalMetric.TOTAL_CONSUMPTION)
         );
     }
     
+    private static String direction(TrendService.TrendReport report, HistoricalMetric metric) {
+        TrendService.MetricTrend trend = report.get(metric);
+        return trend == null ? "unknown" : trend.direction();
+    }
+    
     private Map<String, Object> generateRealtimeWeatherData() {
         int hour = LocalDateTime.now().getHour();
         Map<String, Object> data = new HashMap<>();
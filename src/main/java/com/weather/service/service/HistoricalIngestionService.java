@@ -0,0 +1,282 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.repository.HistoricalWeatherDataBatchRepository;
+import com.weather.service.timeseries.RollupSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Accepted samples are written in batches by a flusher thread. A failed write is retried with backoff; a batch
+// the database rejects is halved until the offending rows are isolated, and only those are dead-lettered. When
+// the database itself is failing, the unwritten rows are kept and written first on the next flush. Producers
+// never write or retry themselves: a full queue is their only back-pressure.
+@Service
+@Slf4j
+public class HistoricalIngestionService {
+
+    private final HistoricalWeatherDataBatchRepository batchRepository;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppConfig.Ingest config;
+    private final BlockingQueue<HistoricalWeatherData> queue;
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+    private final AtomicLong deadLetteredRows = new AtomicLong();
+    // Rows whose write failed for reasons other than their content; guarded by itself
+    private final Deque<HistoricalWeatherData> deferred = new ArrayDeque<>();
+    // Most recent rows the database rejected; guarded by itself
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    public record DeadLetter(HistoricalWeatherData data, String error, LocalDateTime rejectedAt) {
+    }
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public HistoricalIngestionService(HistoricalWeatherDataBatchRepository batchRepository,
+                                      RollupService rollupService, ApplicationEventPublisher eventPublisher,
+                                      AppConfig appConfig) {
+        this.batchRepository = batchRepository;
+        this.rollupService = rollupService;
+        this.eventPublisher = eventPublisher;
+        this.config = appConfig.getIngest();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "historical-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever is still queued is written on the shutdown thread so nothing accepted is lost
+        int flushed = flushAll();
+        synchronized (deferred) {
+            droppedRows.addAndGet(deferred.size() + queue.size());
+        }
+        log.info("Historical ingest stopped: {} rows flushed on shutdown, {} written, {} dead-lettered, {} dropped",
+            flushed, writtenRows.get(), deadLetteredRows.get(), droppedRows.get());
+    }
+
+    // Incomplete samples are refused here rather than reaching the database, so a write failure that is not a
+    // database rejection points at the code, not the data
+    public void enqueue(HistoricalWeatherData data) {
+        validate(data);
+        try {
+            // The queue is full while the flusher is falling behind or the database is down; the sample is
+            // refused rather than parking the caller until it recovers
+            if (!queue.offer(data, config.getOfferTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Historical ingest queue is full, rejected data for " + data.getRegion());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing historical data for " + data.getRegion(), e);
+        }
+
+        if (queue.size() >= config.getBatchSize()) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private static void validate(HistoricalWeatherData data) {
+        List<String> missing = new ArrayList<>();
+        require(missing, "region", data.getRegion());
+        require(missing, "timestamp", data.getTimestamp());
+        require(missing, "temperature", data.getTemperature());
+        require(missing, "windSpeed", data.getWindSpeed());
+        require(missing, "solarIrradiance", data.getSolarIrradiance());
+        require(missing, "cloudCover", data.getCloudCover());
+        require(missing, "solarGeneration", data.getSolarGeneration());
+        require(missing, "windGeneration", data.getWindGeneration());
+        require(missing, "totalConsumption", data.getTotalConsumption());
+        require(missing, "efficiency", data.getEfficiency());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Historical data for region " + data.getRegion() + " is missing " + missing);
+        }
+    }
+
+    private static void require(List<String> missing, String field, Object value) {
+        if (value == null) {
+            missing.add(field);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    // Rows still unwritten at shutdown
+    public long getDroppedRows() {
+        return droppedRows.get();
+    }
+
+    public long getDeadLetteredRows() {
+        return deadLetteredRows.get();
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                flushAll();
+            } catch (Exception e) {
+                log.error("Historical ingest flush failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int flushAll() {
+        int total = 0;
+        int flushed;
+        do {
+            flushed = flushBatch();
+            total += flushed;
+        } while (flushed > 0);
+        return total;
+    }
+
+    private int flushBatch() {
+        List<HistoricalWeatherData> batch = takeBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> regions = new HashSet<>();
+        int handled = write(batch, regions);
+        if (handled < batch.size()) {
+            List<HistoricalWeatherData> rest = batch.subList(handled, batch.size());
+            synchronized (deferred) {
+                for (int i = rest.size() - 1; i >= 0; i--) {
+                    deferred.addFirst(rest.get(i));
+                }
+            }
+            log.error("Failed to write {} historical rows, keeping them for the next flush", rest.size());
+        }
+        if (!regions.isEmpty()) {
+            eventPublisher.publishEvent(new RegionDataChangedEvent(regions));
+        }
+        return handled;
+    }
+
+    // Deferred rows go first, so a recovered database gets the oldest rows before new ones
+    private List<HistoricalWeatherData> takeBatch() {
+        List<HistoricalWeatherData> batch = new ArrayList<>(config.getBatchSize());
+        synchronized (deferred) {
+            while (batch.size() < config.getBatchSize() && !deferred.isEmpty()) {
+                batch.add(deferred.pollFirst());
+            }
+        }
+        if (batch.isEmpty()) {
+            queue.drainTo(batch, config.getBatchSize());
+        }
+        return batch;
+    }
+
+    // Writes rows in order and returns how many leading rows were dealt with, either written or dead-lettered.
+    // A batch the database rejects is split in halves until single rows are left; any other failure stops
+    // the write so the remaining rows can be retried.
+    private int write(List<HistoricalWeatherData> rows, Set<String> regions) {
+        RuntimeException failure = insertWithRetry(rows);
+        if (failure == null) {
+            writtenRows.addAndGet(rows.size());
+            for (HistoricalWeatherData data : rows) {
+                rollupService.markDirty(RollupSource.WEATHER, data.getRegion(), data.getTimestamp());
+                regions.add(data.getRegion());
+            }
+            return rows.size();
+        }
+        if (!isRejection(failure)) {
+            return 0;
+        }
+        if (rows.size() == 1) {
+            deadLetter(rows.get(0), failure);
+            return 1;
+        }
+        int mid = rows.size() / 2;
+        int handled = write(rows.subList(0, mid), regions);
+        return handled < mid ? handled : mid + write(rows.subList(mid, rows.size()), regions);
+    }
+
+    // Null once written; otherwise the last failure. Rejections are not retried, they would fail the same way.
+    private RuntimeException insertWithRetry(List<HistoricalWeatherData> rows) {
+        long backoffMs = config.getRetryBackoffMs();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                batchRepository.insertAll(rows);
+                return null;
+            } catch (RuntimeException e) {
+                if (isRejection(e) || attempt >= config.getWriteAttempts()) {
+                    return e;
+                }
+                log.warn("Writing {} historical rows failed (attempt {}), retrying in {} ms: {}",
+                    rows.size(), attempt, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    // The rows themselves are at fault: a constraint or data error from the database. Anything else, including
+    // a bug on our side, leaves the rows queued and is logged instead of dead-lettering valid data.
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException;
+    }
+
+    private void deadLetter(HistoricalWeatherData data, RuntimeException failure) {
+        deadLetteredRows.incrementAndGet();
+        log.error("Dead-lettered historical row for region {} at {}: {}", data.getRegion(), data.getTimestamp(),
+            failure.getMessage());
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= config.getDeadLetterCapacity()) {
+                deadLetters.pollFirst();
+            }
+            deadLetters.addLast(new DeadLetter(data, failure.getMessage(), LocalDateTime.now()));
+        }
+    }
+}
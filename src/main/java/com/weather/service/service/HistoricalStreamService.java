@@ -0,0 +1,71 @@
+package com.weather.service.service;
+
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.repository.HistoricalWeatherDataRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class HistoricalStreamService {
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final HistoricalWeatherDataRepository repository;
+    private final RegionRegistry regionRegistry;
+    private final EntityManager entityManager;
+
+    // Visits every row of [from, to) in timestamp order over a single cursor.
+    // Rows are detached as they are consumed so the persistence context stays empty.
+    @Transactional(readOnly = true)
+    public long stream(String region, LocalDateTime from, LocalDateTime to, Consumer<HistoricalWeatherData> consumer) {
+        long count = 0;
+        try (Stream<HistoricalWeatherData> rows = repository.streamByRegionAndTimestampRange(regionRegistry.lookup(region), from, to)) {
+            var iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                HistoricalWeatherData row = iterator.next();
+                consumer.accept(row);
+                entityManager.detach(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Keyset pagination for consumers that write to slow sinks (HTTP responses) and
+    // should not hold a cursor and transaction open between pages
+    public long forEachPage(String region, LocalDateTime from, LocalDateTime to, int pageSize,
+                            Consumer<List<HistoricalWeatherData>> consumer) {
+        // Starting "after" (from, MIN) makes the first page include rows stamped exactly at from
+        int regionId = regionRegistry.lookup(region);
+        LocalDateTime afterTimestamp = from;
+        Long afterId = Long.MIN_VALUE;
+        long count = 0;
+
+        while (true) {
+            List<HistoricalWeatherData> page =
+                repository.findPageAfter(regionId, afterTimestamp, afterId, to, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                return count;
+            }
+
+            consumer.accept(page);
+            count += page.size();
+
+            HistoricalWeatherData last = page.get(page.size() - 1);
+            afterTimestamp = last.getTimestamp();
+            afterId = last.getId();
+            if (page.size() < pageSize) {
+                return count;
+            }
+        }
+    }
+}
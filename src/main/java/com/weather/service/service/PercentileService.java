@@ -0,0 +1,57 @@
+package com.weather.service.service;
+
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import com.weather.service.timeseries.TDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Merged t-digests of historical metrics over a range and any set of regions. Ranges long enough for
+// rollups merge one stored sketch per bucket; short ranges build the digest from raw rows.
+@Service
+@RequiredArgsConstructor
+public class PercentileService {
+
+    private final MetricRollupBatchRepository rollupRepository;
+    private final RollupService rollupService;
+    private final RegionRegistry regionRegistry;
+
+    public record Distribution(RollupResolution resolution, Map<HistoricalMetric, TDigest> digests) {
+    }
+
+    public Distribution distribution(List<String> regions, Collection<HistoricalMetric> metrics,
+                                     LocalDateTime from, LocalDateTime to) {
+        Map<HistoricalMetric, TDigest> digests = new EnumMap<>(HistoricalMetric.class);
+        for (HistoricalMetric metric : metrics) {
+            digests.put(metric, new TDigest());
+        }
+
+        RollupResolution resolution = rollupService.resolutionFor(from, to);
+        if (resolution == RollupResolution.RAW) {
+            for (String region : regions) {
+                rollupRepository.scanRaw(RollupSource.WEATHER, regionRegistry.lookup(region), from, to,
+                    (timestamp, values) -> digests.forEach((metric, digest) -> digest.add(values[metric.ordinal()])));
+            }
+            return new Distribution(resolution, digests);
+        }
+
+        // Like the other rollup reads, the first bucket is taken whole
+        List<Integer> regionIds = regions.stream().map(regionRegistry::lookup).toList();
+        rollupRepository.scanSketches(RollupSource.WEATHER, regionIds, resolution, resolution.bucketStart(from), to,
+            (regionId, metricKey, sketch) -> {
+                TDigest digest = digests.get(HistoricalMetric.fromKey(metricKey));
+                if (digest != null) {
+                    digest.merge(sketch);
+                }
+            });
+        return new Distribution(resolution, digests);
+    }
+}
@@ -0,0 +1,119 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.SampleRingBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class RecentSampleBufferService {
+
+    private final RegionRegistry regionRegistry;
+    private final HistoricalStreamService streamService;
+    private final AppConfig.SampleBuffer config;
+    private final ConcurrentHashMap<String, SampleRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    public RecentSampleBufferService(RegionRegistry regionRegistry,
+                                     HistoricalStreamService streamService, AppConfig appConfig) {
+        this.regionRegistry = regionRegistry;
+        this.streamService = streamService;
+        this.config = appConfig.getSampleBuffer();
+    }
+
+    public void append(HistoricalWeatherData data) {
+        long timestamp = EpochTime.toMillis(data.getTimestamp());
+        double[] values = HistoricalMetric.valuesOf(data);
+        // A buffer being replaced by reload refuses samples; the next lookup returns its replacement
+        while (!bufferFor(data.getRegion()).append(timestamp, values)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Null when the window reaches further back than the buffered span
+    public SampleRingBuffer.WindowSummary summarize(String region, LocalDateTime since) {
+        SampleRingBuffer buffer = buffers.get(region);
+        return buffer == null ? null : buffer.summarize(EpochTime.toMillis(since));
+    }
+
+    // Newest buffered sample of the region, or null when nothing is buffered
+    public LatestSample latest(String region) {
+        SampleRingBuffer buffer = buffers.get(region);
+        if (buffer == null) {
+            return null;
+        }
+        synchronized (buffer) {
+            double[] values = buffer.lastValues();
+            return values == null ? null : new LatestSample(EpochTime.fromMillis(buffer.lastTimestamp()), values);
+        }
+    }
+
+    // values is indexed by HistoricalMetric ordinal and copied on the way out
+    public record LatestSample(LocalDateTime timestamp, double[] values) {
+
+        @Override
+        public double[] values() {
+            return values.clone();
+        }
+
+        public double get(HistoricalMetric metric) {
+            return values[metric.ordinal()];
+        }
+    }
+
+    // Runs after DataInitializer so seeded rows are part of the buffered span
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String region : regionRegistry.codes()) {
+            warm(region, bufferFor(region));
+        }
+    }
+    
+    // Rebuilds a region's buffer from the database after out-of-band writes (backfills). The live buffer keeps
+    // serving until the rebuilt one is warm; the swap then carries over live samples the database does not
+    // have yet, both those still queued for writing and those appended during the scan.
+    public void reload(String region) {
+        SampleRingBuffer rebuilt = new SampleRingBuffer(config.getCapacity());
+        if (warm(region, rebuilt)) {
+            buffers.compute(region, (r, live) -> {
+                if (live != null) {
+                    rebuilt.absorb(live);
+                }
+                return rebuilt;
+            });
+        }
+    }
+
+    private boolean warm(String region, SampleRingBuffer buffer) {
+        LocalDateTime since = LocalDateTime.now().minusDays(config.getWarmupDays());
+        try {
+            List<Long> timestamps = new ArrayList<>();
+            List<double[]> values = new ArrayList<>();
+            streamService.stream(region, since, LocalDateTime.now(), row -> {
+                timestamps.add(EpochTime.toMillis(row.getTimestamp()));
+                values.add(HistoricalMetric.valuesOf(row));
+            });
+            buffer.backfill(EpochTime.toMillis(since),
+                timestamps.stream().mapToLong(Long::longValue).toArray(), values.toArray(new double[0][]));
+            log.info("Warmed recent sample buffer for region {} with {} rows", region, timestamps.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to warm recent sample buffer for region {}: {}", region, e.getMessage());
+            return false;
+        }
+    }
+
+    private SampleRingBuffer bufferFor(String region) {
+        return buffers.computeIfAbsent(region, r -> new SampleRingBuffer(config.getCapacity()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.weather.service.service;
+
+import java.util.Set;
+
+// Published once new raw rows or refreshed rollups of these regions are visible to readers
+public record RegionDataChangedEvent(Set<String> regions) {
+}
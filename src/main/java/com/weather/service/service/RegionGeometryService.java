@@ -0,0 +1,105 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.entity.Region;
+import com.weather.service.geo.Geohash;
+import com.weather.service.geo.RegionPolygon;
+import com.weather.service.geo.RegionSpatialIndex;
+import com.weather.service.repository.RegionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Resolves coordinates to an energy region and to the weather grid cell they fall in. Region boundaries live
+// in the regions table; lookups go through an immutable geohash index that is swapped whole on every change.
+@Service
+@Slf4j
+public class RegionGeometryService {
+
+    // region is null outside every known boundary; the cell centre is where its weather is fetched
+    public record Location(String region, String cell, double cellLatitude, double cellLongitude) {
+    }
+
+    private final RegionRepository regionRepository;
+    private final RegionRegistry regionRegistry;
+    private final AppConfig.Geo config;
+
+    private volatile RegionSpatialIndex index;
+
+    public RegionGeometryService(RegionRepository regionRepository, RegionRegistry regionRegistry, AppConfig appConfig) {
+        this.regionRepository = regionRepository;
+        this.regionRegistry = regionRegistry;
+        this.config = appConfig.getGeo();
+        this.index = RegionSpatialIndex.empty(config.getIndexPrecision());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Map.Entry<String, String> configured : config.getBoundaries().entrySet()) {
+            try {
+                String code = configured.getKey();
+                regionRegistry.idFor(code);
+                Region region = regionRepository.findByCode(code).orElseThrow();
+                if (region.getBoundary() == null) {
+                    region.setBoundary(RegionPolygon.parse(code, configured.getValue()).format());
+                    regionRepository.save(region);
+                    log.info("Stored configured boundary for region {}", code);
+                }
+            } catch (Exception e) {
+                log.error("Failed to apply configured boundary for region {}: {}", configured.getKey(), e.getMessage());
+            }
+        }
+        reload();
+    }
+
+    // Picks up boundaries changed by other instances
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public synchronized void reload() {
+        try {
+            List<RegionPolygon> polygons = new ArrayList<>();
+            for (Region region : regionRepository.findAll()) {
+                if (region.getBoundary() == null || region.getBoundary().isBlank()) {
+                    continue;
+                }
+                try {
+                    polygons.add(RegionPolygon.parse(region.getCode(), region.getBoundary()));
+                } catch (IllegalArgumentException e) {
+                    log.error("Ignoring invalid boundary of region {}: {}", region.getCode(), e.getMessage());
+                }
+            }
+            index = RegionSpatialIndex.build(polygons, config.getIndexPrecision());
+            log.debug("Region index rebuilt: {} regions over {} cells", polygons.size(), index.cellCount());
+        } catch (Exception e) {
+            log.error("Failed to rebuild region index: {}", e.getMessage());
+        }
+    }
+
+    public Location locate(double latitude, double longitude) {
+        if (!(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        int precision = config.getWeatherCellPrecision();
+        long cell = Geohash.encode(latitude, longitude, precision);
+        double[] bounds = Geohash.bounds(cell, precision);
+        return new Location(index.locate(latitude, longitude), Geohash.toString(cell, precision),
+            (bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2);
+    }
+
+    // vertices are [latitude, longitude] pairs; registers the region if it is new
+    public synchronized RegionPolygon updateBoundary(String code, List<double[]> vertices) {
+        RegionPolygon polygon = RegionPolygon.of(code, vertices);
+        regionRegistry.idFor(code);
+        Region region = regionRepository.findByCode(code).orElseThrow();
+        region.setBoundary(polygon.format());
+        regionRepository.save(region);
+        reload();
+        log.info("Updated boundary of region {} ({} vertices)", code, vertices.size());
+        return polygon;
+    }
+}
@@ -0,0 +1,120 @@
+package com.weather.service.service;
+
+import com.weather.service.entity.Region;
+import com.weather.service.repository.RegionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// In-memory view of the regions table. Writers register codes with idFor; readers use lookup,
+// which never creates rows, so arbitrary region path variables cannot grow the dimension.
+@Service
+@Slf4j
+public class RegionRegistry {
+
+    // Matches no rows, so queries for unknown regions come back empty
+    public static final int UNKNOWN_ID = -1;
+
+    private static final String[] REGION_TABLES = {"historical_weather_data", "energy_data"};
+    // Codes end up in file paths (archives) and cache keys, so they are limited to a safe alphabet
+    private static final Pattern CODE = Pattern.compile("[a-z0-9_-]{1,50}");
+
+    private final RegionRepository regionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> codes = new ConcurrentHashMap<>();
+
+    public RegionRegistry(RegionRepository regionRepository, JdbcTemplate jdbcTemplate) {
+        this.regionRepository = regionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            regionRepository.findAll().forEach(this::cache);
+            log.info("Loaded {} regions", ids.size());
+        } catch (Exception e) {
+            log.error("Failed to load regions: {}", e.getMessage());
+        }
+    }
+
+    public int idFor(String code) {
+        Integer id = ids.get(code);
+        return id != null ? id : register(code);
+    }
+
+    public static boolean isValidCode(String code) {
+        return code != null && CODE.matcher(code).matches();
+    }
+
+    public int lookup(String code) {
+        return ids.getOrDefault(code, UNKNOWN_ID);
+    }
+
+    public String codeOf(int id) {
+        return codes.get(id);
+    }
+
+    public List<String> codes() {
+        return new ArrayList<>(ids.keySet());
+    }
+
+    // Rows written before the dimension existed (or by other writers) carry only the code.
+    // Runs ahead of every other ready listener because they read raw rows by region id.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        for (String table : REGION_TABLES) {
+            try {
+                List<String> unassigned = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT region FROM " + table + " WHERE region_id IS NULL", String.class);
+                for (String code : unassigned) {
+                    int updated = jdbcTemplate.update(
+                        "UPDATE " + table + " SET region_id = ? WHERE region = ? AND region_id IS NULL", idFor(code), code);
+                    log.info("Assigned region id to {} {} rows for region {}", updated, table, code);
+                }
+            } catch (Exception e) {
+                log.error("Failed to backfill region ids in {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized int register(String code) {
+        Integer id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        if (!isValidCode(code)) {
+            throw new IllegalArgumentException("Invalid region code: " + code);
+        }
+
+        Region region;
+        try {
+            region = regionRepository.findByCode(code)
+                .orElseGet(() -> regionRepository.save(new Region(null, code, null)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance registered it first
+            region = regionRepository.findByCode(code).orElseThrow(() -> e);
+        }
+        cache(region);
+        log.info("Registered region {} with id {}", code, region.getId());
+        return region.getId();
+    }
+
+    private void cache(Region region) {
+        ids.put(region.getCode(), region.getId());
+        codes.put(region.getId(), region.getCode());
+    }
+}
@@ -0,0 +1,203 @@
+package com.weather.service.service;
+
+import com.weather.service.config.AppConfig;
+import com.weather.service.repository.EnergyDataRepository;
+import com.weather.service.repository.projection.EnergyReading;
+import com.weather.service.timeseries.HistoricalMetric;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Current generation, consumption and weather of every registered region, rebuilt once per tick by a single
+// writer. Readers take the published map without locking, so the dashboard, alerts and websocket all see the
+// same numbers. The tick has its own thread: it must neither wait behind the application's scheduled jobs nor
+// hold them up.
+@Service
+@Slf4j
+public class RegionStateStore {
+
+    private final EnergyDataRepository energyRepository;
+    private final RecentSampleBufferService sampleBufferService;
+    private final RegionRegistry regionRegistry;
+    private final long tickMillis;
+    private final List<Consumer<Map<String, RegionState>>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "region-state");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<String, RegionState> states = Map.of();
+
+    // energyPrice is NaN when the region has no stored reading; simulated marks regions with no data at all
+    public record RegionState(String region, LocalDateTime timestamp, boolean simulated,
+                              double solarGeneration, double windGeneration, double consumption, double energyPrice,
+                              double temperature, double windSpeed, double solarIrradiance, double cloudCover) {
+
+        public double totalGeneration() {
+            return solarGeneration + windGeneration;
+        }
+
+        public double efficiency() {
+            return consumption == 0 ? 0.0 : Math.round((totalGeneration() / consumption) * 100 * 100.0) / 100.0;
+        }
+
+        public double riskScore() {
+            // Simple risk: higher when consumption > generation
+            if (consumption > totalGeneration()) {
+                return Math.min(((consumption - totalGeneration()) / consumption) * 100, 100.0);
+            }
+            return 10.0; // Base risk when generation meets demand
+        }
+    }
+
+    public RegionStateStore(EnergyDataRepository energyRepository, RecentSampleBufferService sampleBufferService,
+                            RegionRegistry regionRegistry, AppConfig appConfig) {
+        this.energyRepository = energyRepository;
+        this.sampleBufferService = sampleBufferService;
+        this.regionRegistry = regionRegistry;
+        this.tickMillis = appConfig.getDashboard().getLiveTickMs();
+    }
+
+    @PostConstruct
+    public void start() {
+        // An exception escaping a run would cancel the schedule
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                log.error("Failed to publish live region state: {}", e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    // Regions outside the registry are not tracked; they get a state computed for the call
+    public RegionState current(String region) {
+        RegionState state = states.get(region);
+        if (state != null) {
+            return state;
+        }
+        return regionRegistry.lookup(region) == RegionRegistry.UNKNOWN_ID
+            ? compute(region, LocalDateTime.now())
+            : publish(region);
+    }
+
+    public Map<String, RegionState> snapshot() {
+        return states;
+    }
+
+    // Listeners run on the tick thread after each publish and must hand slow work off
+    public void subscribe(Consumer<Map<String, RegionState>> listener) {
+        listeners.add(listener);
+    }
+
+    synchronized void tick() {
+        List<String> regions = regionRegistry.codes();
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, RegionState> previous = states;
+        Map<String, RegionState> next = new HashMap<>();
+        for (String region : regions) {
+            try {
+                next.put(region, compute(region, now));
+            } catch (Exception e) {
+                log.error("Failed to refresh live state for region {}: {}", region, e.getMessage());
+                if (previous.containsKey(region)) {
+                    next.put(region, previous.get(region));
+                }
+            }
+        }
+        states = Map.copyOf(next);
+
+        Map<String, RegionState> published = states;
+        for (Consumer<Map<String, RegionState>> listener : listeners) {
+            try {
+                listener.accept(published);
+            } catch (Exception e) {
+                log.error("Region state listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // First read of a registered region not yet published (registered since the last tick); goes through the
+    // same writer lock as the tick
+    private synchronized RegionState publish(String region) {
+        RegionState state = states.get(region);
+        if (state != null) {
+            return state;
+        }
+
+        state = compute(region, LocalDateTime.now());
+        Map<String, RegionState> next = new HashMap<>(states);
+        next.put(region, state);
+        states = Map.copyOf(next);
+        return state;
+    }
+
+    private RegionState compute(String region, LocalDateTime now) {
+        int regionId = regionRegistry.lookup(region);
+        List<EnergyReading> latest = regionId == RegionRegistry.UNKNOWN_ID
+            ? List.of()
+            : energyRepository.findLatestReadings(regionId, Limit.of(1));
+        RecentSampleBufferService.LatestSample sample = sampleBufferService.latest(region);
+
+        double[] weather = sample != null
+            ? new double[]{sample.get(HistoricalMetric.TEMPERATURE), sample.get(HistoricalMetric.WIND_SPEED),
+                sample.get(HistoricalMetric.SOLAR_IRRADIANCE), sample.get(HistoricalMetric.CLOUD_COVER)}
+            : simulateWeather(now);
+
+        if (!latest.isEmpty()) {
+            EnergyReading reading = latest.get(0);
+            return new RegionState(region, reading.timestamp(), false,
+                valueOrZero(reading.solarGeneration()), valueOrZero(reading.windGeneration()),
+                valueOrZero(reading.totalConsumption()),
+                reading.energyPrice() == null ? Double.NaN : reading.energyPrice(),
+                weather[0], weather[1], weather[2], weather[3]);
+        }
+        if (sample != null) {
+            return new RegionState(region, sample.timestamp(), false,
+                sample.get(HistoricalMetric.SOLAR_GENERATION), sample.get(HistoricalMetric.WIND_GENERATION),
+                sample.get(HistoricalMetric.TOTAL_CONSUMPTION), Double.NaN,
+                weather[0], weather[1], weather[2], weather[3]);
+        }
+
+        // No data for the region yet: weather-driven simulation, generated once per tick for every reader
+        double solarGeneration = Math.max(0, (weather[2] / 10) * (1 - weather[3] / 150));
+        double windGeneration = Math.pow(weather[1], 2) * 2.5;
+        double tempAdjustment = weather[0] > 25 ? (weather[0] - 25) * 8 : 0;
+        double consumption = 150 + tempAdjustment + (Math.random() * 30 - 15);
+        return new RegionState(region, now, true, solarGeneration, windGeneration, consumption, Double.NaN,
+            weather[0], weather[1], weather[2], weather[3]);
+    }
+
+    private static double[] simulateWeather(LocalDateTime now) {
+        int hour = now.getHour();
+        return new double[]{
+            20 + Math.sin((hour - 6) * Math.PI / 12) * 8 + (Math.random() * 4 - 2),
+            5 + Math.random() * 10,
+            Math.max(0, 800 * Math.sin((hour - 6) * Math.PI / 12) + (Math.random() * 200 - 100)),
+            20 + Math.random() * 60
+        };
+    }
+
+    private static double valueOrZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+}
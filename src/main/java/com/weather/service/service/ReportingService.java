@@ -1,65 +1,117 @@
 package com.weather.service.service;
 
-import lombok.RequiredArgsConstructor;
+import com.weather.service.config.AppConfig;
+import com.weather.service.dto.ComprehensiveForecast;
+import com.weather.service.dto.DemandForecast;
+import com.weather.service.dto.EnergyReport;
+import com.weather.service.entity.HistoricalWeatherData;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ReportingService {
     
     private final EnergyAnalyticsService analyticsService;
     private final HistoricalDataService historicalDataService;
     private final ForecastingService forecastingService;
+    private final HistoricalStreamService historicalStreamService;
+    private final AppConfig.Report config;
+    private final ThreadPoolExecutor executor;
     
-    public Map<String, Object> generateEnergyReport(String region, String reportType, int days) {
-        Map<String, Object> report = new HashMap<>();
-        
+    public ReportingService(EnergyAnalyticsService analyticsService, HistoricalDataService historicalDataService,
+                            ForecastingService forecastingService, HistoricalStreamService historicalStreamService,
+                            AppConfig appConfig) {
+        this.analyticsService = analyticsService;
+        this.historicalDataService = historicalDataService;
+        this.forecastingService = forecastingService;
+        this.historicalStreamService = historicalStreamService;
+        this.config = appConfig.getReport();
+        
+        AtomicInteger threads = new AtomicInteger();
+        int size = Math.max(1, config.getThreads());
+        // A full queue rejects the section, which is then left out like one that timed out; running it on the
+        // request thread instead would put it beyond the reach of the section deadline
+        this.executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+            r -> {
+                Thread thread = new Thread(r, "report-section-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    // The dashboard, historical analytics and forecast are independent, so they are built concurrently and the
+    // report takes as long as the slowest of them. A section that fails, times out or finds the pool full is
+    // left out; one that times out is interrupted.
+    public EnergyReport generateEnergyReport(String region, String reportType, int days) {
         try {
-            // Report metadata
-            report.put("reportId", UUID.randomUUID().toString());
-            report.put("reportType", reportType);
-            report.put("region", region);
-            report.put("period", days + " days");
-            report.put("generatedAt", LocalDateTime.now().toString());
-            report.put("generatedBy", "Energy Analytics System");
-            
-            // Current analytics
-            Map<String, Object> currentData = analyticsService.getEnergyDashboard(region);
-            report.put("currentAnalytics", currentData);
+            long started = System.nanoTime();
+            Map<String, String> sectionErrors = new LinkedHashMap<>();
+            Future<Map<String, Object>> currentSection = submit("currentAnalytics",
+                () -> analyticsService.getEnergyDashboard(region), sectionErrors);
+            Future<Map<String, Object>> historicalSection = submit("historicalAnalytics",
+                () -> historicalDataService.getHistoricalAnalytics(region, days), sectionErrors);
+            Future<ComprehensiveForecast> forecastSection = submit("forecastAnalytics",
+                () -> forecastingService.getComprehensiveForecast(region,
+                    Math.max(1, Math.min(days, forecastingService.getHorizonDays()))), sectionErrors);
             
-            // Historical data
-            Map<String, Object> historicalData = historicalDataService.getHistoricalAnalytics(region, days);
-            report.put("historicalAnalytics", historicalData);
-            
-            // Forecasting data
-            Map<String, Object> forecastData = forecastingService.getComprehensiveForecast(region, Math.min(days, 14));
-            report.put("forecastAnalytics", forecastData);
-            
-            // Report summary
-            report.put("summary", generateReportSummary(currentData, historicalData, forecastData));
+            long deadline = started + TimeUnit.MILLISECONDS.toNanos(config.getSectionTimeoutMs());
+            Map<String, Object> currentData = await("currentAnalytics", currentSection, deadline, sectionErrors);
+            Map<String, Object> historicalData = await("historicalAnalytics", historicalSection, deadline, sectionErrors);
+            ComprehensiveForecast forecastData = await("forecastAnalytics", forecastSection, deadline, sectionErrors);
+            if (sectionErrors.size() == 3) {
+                throw new IllegalStateException("No report section could be built: " + sectionErrors);
+            }
             
-            // Recommendations
-            report.put("recommendations", generateRecommendations(currentData, historicalData, forecastData));
+            Map<String, Object> current = currentData != null ? currentData : Map.of();
+            Map<String, Object> historical = historicalData != null ? historicalData : Map.of();
+            EnergyReport report = new EnergyReport(UUID.randomUUID().toString(), reportType, region, days + " days",
+                LocalDateTime.now(), "Energy Analytics System", currentData, historicalData, forecastData,
+                generateReportSummary(current, historical, forecastData),
+                generateRecommendations(current, historical, forecastData), sectionErrors);
             
-            log.info("Generated {} report for region {} covering {} days", reportType, region, days);
+            log.info("Generated {} report for region {} covering {} days in {} ms{}", reportType, region, days,
+                (System.nanoTime() - started) / 1_000_000,
+                sectionErrors.isEmpty() ? "" : " without " + sectionErrors.keySet());
+            return report;
             
         } catch (Exception e) {
             log.error("Error generating report: {}", e.getMessage());
             throw new RuntimeException("Failed to generate report: " + e.getMessage());
         }
-        
-        return report;
     }
     
     public byte[] generatePdfReport(String region, String reportType, int days) {
         try {
-            Map<String, Object> reportData = generateEnergyReport(region, reportType, days);
+            EnergyReport reportData = generateEnergyReport(region, reportType, days);
             
             // Mock PDF generation - in production, use iText, Apache PDFBox, etc.
             String pdfContent = generatePdfContent(reportData);
@@ -77,7 +129,7 @@ public class ReportingService {
     
     public byte[] generateExcelReport(String region, String reportType, int days) {
         try {
-            Map<String, Object> reportData = generateEnergyReport(region, reportType, days);
+            EnergyReport reportData = generateEnergyReport(region, reportType, days);
             
             // Mock Excel generation - in production, use Apache POI
             String csvContent = generateCsvContent(reportData);
@@ -93,6 +145,28 @@ public class ReportingService {
         }
     }
     
+    // Writes raw history page by page so exports of any length use constant memory
+    public long exportHistoricalCsv(String region, int days, OutputStream out) throws IOException {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(days);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        
+        writer.write("timestamp,region,temperature,windSpeed,solarIrradiance,cloudCover," +
+            "solarGeneration,windGeneration,totalConsumption,efficiency\n");
+        
+        long rows;
+        try {
+            rows = historicalStreamService.forEachPage(region, from, to, HistoricalStreamService.DEFAULT_PAGE_SIZE,
+                page -> writeCsvRows(writer, page));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        
+        log.info("Exported {} historical rows for region {} covering {} days", rows, region, days);
+        return rows;
+    }
+    
     public List<Map<String, Object>> getAvailableReportTemplates() {
         List<Map<String, Object>> templates = new ArrayList<>();
         
@@ -150,50 +224,74 @@ public class ReportingService {
         return scheduledReport;
     }
     
-    private Map<String, Object> generateReportSummary(Map<String, Object> current, 
-                                                     Map<String, Object> historical, 
-                                                     Map<String, Object> forecast) {
-        Map<String, Object> summary = new HashMap<>();
-        
-        // Current performance
-        summary.put("currentEfficiency", current.get("efficiency"));
-        summary.put("currentGeneration", current.get("totalGeneration"));
-        summary.put("currentConsumption", current.get("consumption"));
-        
-        // Historical trends
-        summary.put("averageHistoricalEfficiency", historical.get("averageEfficiency"));
-        summary.put("peakHistoricalGeneration", historical.get("peakGeneration"));
-        
-        // Forecast insights
-        Map<String, Object> forecastSummary = (Map<String, Object>) forecast.get("demandForecast");
-        if (forecastSummary != null) {
-            Map<String, Object> forecastSummaryData = (Map<String, Object>) forecastSummary.get("summary");
-            if (forecastSummaryData != null) {
-                summary.put("predictedAverageDemand", forecastSummaryData.get("averageDemand"));
-                summary.put("predictedPeakDemand", forecastSummaryData.get("peakDemand"));
-            }
+    // Null when the section failed or missed the deadline; the reason goes to errors
+    // Null when the pool is full
+    private <T> Future<T> submit(String section, Callable<T> task, Map<String, String> errors) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            errors.put(section, "Too many reports in progress");
+            return null;
         }
-        
-        // Performance indicators
-        summary.put("performanceRating", calculatePerformanceRating(current, historical));
-        summary.put("riskLevel", "LOW"); // From forecast risk assessment
-        
-        return summary;
+    }
+    
+    private <T> T await(String section, Future<T> future, long deadline, Map<String, String> errors) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            errors.put(section, "Timed out");
+        } catch (ExecutionException e) {
+            log.error("Failed to build report section {}: {}", section, e.getCause().getMessage());
+            errors.put(section, String.valueOf(e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building report", e);
+        }
+        return null;
+    }
+    
+    private EnergyReport.Summary generateReportSummary(Map<String, Object> current, 
+                                                      Map<String, Object> historical, 
+                                                      ComprehensiveForecast forecast) {
+        // Forecast insights
+        DemandForecast.Summary forecastSummary = forecast == null ? null : forecast.demandForecast().summary();
+        Map<?, ?> currentGeneration = (Map<?, ?>) current.get("currentGeneration");
+        
+        return new EnergyReport.Summary(
+            // Current performance
+            (Double) current.get("efficiency"),
+            currentGeneration == null ? null : (Double) currentGeneration.get("total"),
+            (Double) current.get("consumption"),
+            // Historical trends
+            (Double) historical.get("averageEfficiency"),
+            (Double) historical.get("peakGeneration"),
+            forecastSummary == null ? null : forecastSummary.averageDemand(),
+            forecastSummary == null ? null : forecastSummary.peakDemand(),
+            // Performance indicators
+            calculatePerformanceRating(current, historical),
+            "LOW" // From forecast risk assessment
+        );
     }
     
     private List<String> generateRecommendations(Map<String, Object> current, 
                                                Map<String, Object> historical, 
-                                               Map<String, Object> forecast) {
+                                               ComprehensiveForecast forecast) {
         List<String> recommendations = new ArrayList<>();
         
         Double currentEfficiency = (Double) current.get("efficiency");
         Double historicalEfficiency = (Double) historical.get("averageEfficiency");
         
-        if (currentEfficiency < historicalEfficiency * 0.9) {
+        if (currentEfficiency != null && historicalEfficiency != null && currentEfficiency < historicalEfficiency * 0.9) {
             recommendations.add("Current efficiency is below historical average. Consider optimizing energy distribution.");
         }
         
-        if (currentEfficiency > 90) {
+        if (currentEfficiency == null) {
+            recommendations.add("Current efficiency is unavailable. Review this report again once live data is back.");
+        } else if (currentEfficiency > 90) {
             recommendations.add("Excellent efficiency performance. Maintain current operational practices.");
         } else if (currentEfficiency > 75) {
             recommendations.add("Good efficiency levels. Look for opportunities to optimize peak hour performance.");
@@ -211,34 +309,35 @@ public class ReportingService {
     private String calculatePerformanceRating(Map<String, Object> current, Map<String, Object> historical) {
         Double currentEfficiency = (Double) current.get("efficiency");
         
+        if (currentEfficiency == null) return "UNKNOWN";
         if (currentEfficiency >= 90) return "EXCELLENT";
         if (currentEfficiency >= 80) return "GOOD";
         if (currentEfficiency >= 70) return "FAIR";
         return "NEEDS_IMPROVEMENT";
     }
     
-    private String generatePdfContent(Map<String, Object> reportData) {
+    private String generatePdfContent(EnergyReport reportData) {
         StringBuilder pdf = new StringBuilder();
         
         pdf.append("ENERGY ANALYTICS REPORT\n");
         pdf.append("======================\n\n");
-        pdf.append("Report ID: ").append(reportData.get("reportId")).append("\n");
-        pdf.append("Region: ").append(reportData.get("region")).append("\n");
-        pdf.append("Period: ").append(reportData.get("period")).append("\n");
-        pdf.append("Generated: ").append(reportData.get("generatedAt")).append("\n\n");
+        pdf.append("Report ID: ").append(reportData.reportId()).append("\n");
+        pdf.append("Region: ").append(reportData.region()).append("\n");
+        pdf.append("Period: ").append(reportData.period()).append("\n");
+        pdf.append("Generated: ").append(reportData.generatedAt()).append("\n\n");
         
         pdf.append("EXECUTIVE SUMMARY\n");
         pdf.append("-----------------\n");
-        Map<String, Object> summary = (Map<String, Object>) reportData.get("summary");
+        EnergyReport.Summary summary = reportData.summary();
         if (summary != null) {
-            pdf.append("Performance Rating: ").append(summary.get("performanceRating")).append("\n");
-            pdf.append("Current Efficiency: ").append(summary.get("currentEfficiency")).append("%\n");
-            pdf.append("Risk Level: ").append(summary.get("riskLevel")).append("\n\n");
+            pdf.append("Performance Rating: ").append(summary.performanceRating()).append("\n");
+            pdf.append("Current Efficiency: ").append(summary.currentEfficiency()).append("%\n");
+            pdf.append("Risk Level: ").append(summary.riskLevel()).append("\n\n");
         }
         
         pdf.append("RECOMMENDATIONS\n");
         pdf.append("---------------\n");
-        List<String> recommendations = (List<String>) reportData.get("recommendations");
+        List<String> recommendations = reportData.recommendations();
         if (recommendations != null) {
             for (int i = 0; i < recommendations.size(); i++) {
                 pdf.append((i + 1)).append(". ").append(recommendations.get(i)).append("\n");
@@ -250,35 +349,68 @@ public class ReportingService {
         return pdf.toString();
     }
     
-    private String generateCsvContent(Map<String, Object> reportData) {
+    private String generateCsvContent(EnergyReport reportData) {
         StringBuilder csv = new StringBuilder();
         
         csv.append("Report Type,Region,Period,Generated At\n");
-        csv.append(reportData.get("reportType")).append(",");
-        csv.append(reportData.get("region")).append(",");
-        csv.append(reportData.get("period")).append(",");
-        csv.append(reportData.get("generatedAt")).append("\n\n");
+        csv.append(csvField(reportData.reportType())).append(",");
+        csv.append(csvField(reportData.region())).append(",");
+        csv.append(csvField(reportData.period())).append(",");
+        csv.append(reportData.generatedAt()).append("\n\n");
         
         csv.append("Metric,Current Value,Historical Average,Forecast\n");
         
-        Map<String, Object> current = (Map<String, Object>) reportData.get("currentAnalytics");
-        Map<String, Object> historical = (Map<String, Object>) reportData.get("historicalAnalytics");
-        Map<String, Object> summary = (Map<String, Object>) reportData.get("summary");
+        Map<String, Object> historical = reportData.historicalAnalytics();
+        EnergyReport.Summary summary = reportData.summary();
         
-        if (current != null && historical != null && summary != null) {
-            csv.append("Efficiency (%),").append(current.get("efficiency")).append(",")
+        if (historical != null && summary != null) {
+            csv.append("Efficiency (%),").append(summary.currentEfficiency()).append(",")
                .append(historical.get("averageEfficiency")).append(",").append("N/A").append("\n");
             
-            csv.append("Generation (MW),").append(current.get("totalGeneration")).append(",")
-               .append("N/A").append(",").append(summary.get("predictedAverageDemand")).append("\n");
+            csv.append("Generation (MW),").append(summary.currentGeneration()).append(",")
+               .append("N/A").append(",").append(summary.predictedAverageDemand()).append("\n");
             
-            csv.append("Consumption (MW),").append(current.get("consumption")).append(",")
-               .append("N/A").append(",").append(summary.get("predictedPeakDemand")).append("\n");
+            csv.append("Consumption (MW),").append(summary.currentConsumption()).append(",")
+               .append("N/A").append(",").append(summary.predictedPeakDemand()).append("\n");
         }
         
         return csv.toString();
     }
     
+    private void writeCsvRows(BufferedWriter writer, List<HistoricalWeatherData> page) {
+        try {
+            for (HistoricalWeatherData row : page) {
+                writer.write(row.getTimestamp().toString());
+                writer.write(',');
+                writer.write(csvField(row.getRegion()));
+                for (Double value : new Double[] {row.getTemperature(), row.getWindSpeed(), row.getSolarIrradiance(),
+                        row.getCloudCover(), row.getSolarGeneration(), row.getWindGeneration(),
+                        row.getTotalConsumption(), row.getEfficiency()}) {
+                    writer.write(',');
+                    if (value != null) {
+                        writer.write(value.toString());
+                    }
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // RFC 4180: a field holding a comma, quote or line break is quoted, with its quotes doubled
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
     private String calculateNextRun(String frequency) {
         LocalDateTime now = LocalDateTime.now();
         
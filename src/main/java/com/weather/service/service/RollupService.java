@@ -0,0 +1,226 @@
+package com.weather.service.service;
+
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.repository.MetricRollupBatchRepository.RollupRow;
+import com.weather.service.repository.MetricRollupRepository;
+import com.weather.service.timeseries.BucketAccumulator;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+
+    private final MetricRollupBatchRepository batchRepository;
+    private final MetricRollupRepository rollupRepository;
+    private final RegionRegistry regionRegistry;
+    private final TrendService trendService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Set<DirtyBucket> dirtyBuckets = ConcurrentHashMap.newKeySet();
+
+    public record MetricSummary(long count, double sum, double min, double max) {
+        public double mean() {
+            return count == 0 ? 0.0 : sum / count;
+        }
+    }
+
+    private record DirtyBucket(RollupSource source, String region, LocalDateTime hour) {
+    }
+
+    public void markDirty(RollupSource source, String region, LocalDateTime timestamp) {
+        dirtyBuckets.add(new DirtyBucket(source, region, RollupResolution.HOUR.bucketStart(timestamp)));
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void refreshDirtyBuckets() {
+        List<DirtyBucket> pending = new ArrayList<>(dirtyBuckets);
+        dirtyBuckets.removeAll(pending);
+
+        Set<String> refreshedRegions = new HashSet<>();
+        Set<String> changedRegions = new HashSet<>();
+        for (DirtyBucket bucket : pending) {
+            try {
+                rebuild(bucket.source(), bucket.region(), bucket.hour(), bucket.hour().plusHours(1));
+                changedRegions.add(bucket.region());
+                if (bucket.source() == RollupSource.WEATHER) {
+                    refreshedRegions.add(bucket.region());
+                }
+            } catch (Exception e) {
+                dirtyBuckets.add(bucket);
+                log.error("Failed to refresh {} rollup for region {} at {}: {}",
+                    bucket.source(), bucket.region(), bucket.hour(), e.getMessage());
+            }
+        }
+        trendService.refresh(refreshedRegions);
+        // Results read from rollups are stale until now, even though the raw rows changed earlier
+        if (!changedRegions.isEmpty()) {
+            eventPublisher.publishEvent(new RegionDataChangedEvent(changedRegions));
+        }
+    }
+
+    // Brings rollups up to date with raw rows written while the application was down.
+    // Runs right after the region id backfill and before the other ready listeners,
+    // because running statistics are rebuilt from rollups.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void catchUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (RollupSource source : RollupSource.values()) {
+            for (String region : regionRegistry.codes()) {
+                try {
+                    int regionId = regionRegistry.lookup(region);
+                    LocalDateTime from = batchRepository.findLatestBucket(source, regionId, RollupResolution.HOUR);
+                    if (from == null) {
+                        from = batchRepository.findEarliestRaw(source, regionId);
+                    }
+                    if (from != null) {
+                        rebuild(source, region, from, now);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to catch up {} rollups for region {}: {}", source, region, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Recomputes hourly buckets covering [from, to) from raw rows, one day at a time, then the daily buckets
+    public void rebuild(RollupSource source, String region, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = RollupResolution.HOUR.bucketStart(from);
+        LocalDateTime end = RollupResolution.HOUR.bucketStart(to.minusNanos(1)).plusHours(1);
+        int regionId = regionRegistry.lookup(region);
+
+        while (start.isBefore(end)) {
+            LocalDateTime dayStart = RollupResolution.DAY.bucketStart(start);
+            LocalDateTime sliceEnd = dayStart.plusDays(1).isBefore(end) ? dayStart.plusDays(1) : end;
+
+            List<RollupRow> rows = computeHourBuckets(source, regionId, start, sliceEnd);
+            batchRepository.replaceBuckets(source, regionId, RollupResolution.HOUR, start, sliceEnd, rows);
+            batchRepository.rollUp(source, regionId, RollupResolution.HOUR, RollupResolution.DAY, dayStart);
+
+            start = sliceEnd;
+        }
+        if (source == RollupSource.WEATHER) {
+            trendService.invalidate(region);
+        }
+    }
+
+    public RollupResolution resolutionFor(LocalDateTime from, LocalDateTime to) {
+        return RollupResolution.forRange(Duration.between(from, to));
+    }
+
+    // Per-metric totals for [from, to) from the coarsest rollup that fits it; empty when raw rows are needed.
+    // Only buckets lying wholly inside the range are read at that resolution: the partial days at either end
+    // come from hourly buckets, and the partial hours from raw rows.
+    public Map<String, MetricSummary> summarize(RollupSource source, String region, LocalDateTime from, LocalDateTime to) {
+        RollupResolution resolution = resolutionFor(from, to);
+        if (resolution == RollupResolution.RAW) {
+            return Map.of();
+        }
+
+        Map<String, MetricSummary> summaries = new HashMap<>();
+        int regionId = regionRegistry.lookup(region);
+        LocalDateTime hourStart = ceil(RollupResolution.HOUR, from);
+        LocalDateTime hourEnd = RollupResolution.HOUR.bucketStart(to);
+        if (resolution == RollupResolution.DAY) {
+            LocalDateTime dayStart = ceil(RollupResolution.DAY, from);
+            LocalDateTime dayEnd = RollupResolution.DAY.bucketStart(to);
+            summarizeBuckets(source, regionId, RollupResolution.DAY, dayStart, dayEnd, summaries);
+            summarizeBuckets(source, regionId, RollupResolution.HOUR, hourStart, dayStart, summaries);
+            summarizeBuckets(source, regionId, RollupResolution.HOUR, dayEnd, hourEnd, summaries);
+        } else {
+            summarizeBuckets(source, regionId, RollupResolution.HOUR, hourStart, hourEnd, summaries);
+        }
+        summarizeRaw(source, regionId, from, hourStart, summaries);
+        summarizeRaw(source, regionId, hourEnd, to, summaries);
+        return summaries;
+    }
+
+    // Buckets starting in [start, end); end is a bucket boundary, so each of them ends by it
+    private void summarizeBuckets(RollupSource source, int regionId, RollupResolution resolution,
+                                  LocalDateTime start, LocalDateTime end, Map<String, MetricSummary> summaries) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        for (Object[] row : rollupRepository.summarizeRange(source.name(), regionId, resolution.name(), start, end)) {
+            merge(summaries, (String) row[0], new MetricSummary(((Number) row[1]).longValue(),
+                ((Number) row[2]).doubleValue(), ((Number) row[3]).doubleValue(), ((Number) row[4]).doubleValue()));
+        }
+    }
+
+    private void summarizeRaw(RollupSource source, int regionId, LocalDateTime start, LocalDateTime end,
+                              Map<String, MetricSummary> summaries) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        BucketAccumulator accumulator = new BucketAccumulator(source.metricCount());
+        batchRepository.scanRaw(source, regionId, start, end, (timestamp, values) -> accumulator.add(values));
+        for (int m = 0; m < accumulator.metrics(); m++) {
+            if (accumulator.count(m) > 0) {
+                merge(summaries, source.metricKey(m), new MetricSummary(accumulator.count(m),
+                    accumulator.sum(m), accumulator.min(m), accumulator.max(m)));
+            }
+        }
+    }
+
+    private static void merge(Map<String, MetricSummary> summaries, String metric, MetricSummary summary) {
+        summaries.merge(metric, summary, (a, b) -> new MetricSummary(a.count() + b.count(), a.sum() + b.sum(),
+            Math.min(a.min(), b.min()), Math.max(a.max(), b.max())));
+    }
+
+    private static LocalDateTime ceil(RollupResolution resolution, LocalDateTime timestamp) {
+        LocalDateTime start = resolution.bucketStart(timestamp);
+        return start.equals(timestamp) ? start : start.plus(resolution.getBucket());
+    }
+
+    private List<RollupRow> computeHourBuckets(RollupSource source, int regionId,
+                                               LocalDateTime start, LocalDateTime end) {
+        List<RollupRow> rows = new ArrayList<>();
+        BucketAccumulator accumulator = new BucketAccumulator(source.metricCount());
+        LocalDateTime[] current = new LocalDateTime[1];
+
+        batchRepository.scanRaw(source, regionId, start, end, (timestamp, values) -> {
+            LocalDateTime hour = RollupResolution.HOUR.bucketStart(timestamp);
+            if (current[0] != null && !hour.equals(current[0])) {
+                emit(source, current[0], accumulator, rows);
+                accumulator.reset();
+            }
+            current[0] = hour;
+            accumulator.add(values);
+        });
+        if (current[0] != null) {
+            emit(source, current[0], accumulator, rows);
+        }
+        return rows;
+    }
+
+    private void emit(RollupSource source, LocalDateTime bucketStart, BucketAccumulator accumulator,
+                      List<RollupRow> rows) {
+        for (int m = 0; m < accumulator.metrics(); m++) {
+            if (accumulator.count(m) > 0) {
+                rows.add(new RollupRow(bucketStart, source.metricKey(m), accumulator.count(m),
+                    accumulator.sum(m), accumulator.m2(m), accumulator.min(m), accumulator.max(m),
+                    accumulator.sketch(m)));
+            }
+        }
+    }
+}
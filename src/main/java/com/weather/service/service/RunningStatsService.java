@@ -0,0 +1,165 @@
+package com.weather.service.service;
+
+import com.weather.service.entity.HistoricalWeatherData;
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.repository.MetricRollupBatchRepository.RollupRow;
+import com.weather.service.timeseries.EpochTime;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollingWindowStats;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import com.weather.service.timeseries.StatsWindow;
+import com.weather.service.timeseries.WelfordStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-region mean/variance/min/max of every historical metric over 1h, 24h, 7d and 30d,
+// updated as samples are ingested so analytics reads never rescan the window
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RunningStatsService {
+
+    private final MetricRollupBatchRepository rollupRepository;
+    private final RegionRegistry regionRegistry;
+    private final ConcurrentHashMap<String, RegionStats> regions = new ConcurrentHashMap<>();
+
+    // Rows newer than this many hours before the current hour are read raw on reload, since their hourly
+    // rollups may not be refreshed yet; recorded samples are kept as long so a reload can replay them
+    private static final int RAW_HOURS = 1;
+    private static final long JOURNAL_MILLIS = Duration.ofHours(RAW_HOURS + 1).toMillis();
+
+    private record RecordedSample(long timestamp, double[] values) {
+    }
+
+    private static final class RegionStats {
+        private final RollingWindowStats[] windows = new RollingWindowStats[StatsWindow.values().length];
+        // Recently recorded samples: they may still be queued for the database when a reload scans it
+        private final ArrayDeque<RecordedSample> journal = new ArrayDeque<>();
+        private boolean retired;
+
+        RegionStats() {
+            for (StatsWindow window : StatsWindow.values()) {
+                windows[window.ordinal()] = new RollingWindowStats(window, HistoricalMetric.count());
+            }
+        }
+
+        // False once a reload has replaced this instance; the caller records into the new one
+        synchronized boolean add(long timestamp, double[] values) {
+            if (retired) {
+                return false;
+            }
+            for (RollingWindowStats window : windows) {
+                window.add(timestamp, values);
+            }
+            journal.addLast(new RecordedSample(timestamp, values));
+            while (journal.peekFirst().timestamp() < timestamp - JOURNAL_MILLIS) {
+                journal.removeFirst();
+            }
+            return true;
+        }
+
+        synchronized WelfordStats snapshot(StatsWindow window, long now) {
+            return windows[window.ordinal()].snapshot(now);
+        }
+
+        // Retires this instance and hands over its journaled samples from the given time on
+        synchronized List<RecordedSample> retire(long from) {
+            retired = true;
+            List<RecordedSample> samples = new ArrayList<>();
+            for (RecordedSample sample : journal) {
+                if (sample.timestamp() >= from) {
+                    samples.add(sample);
+                }
+            }
+            return samples;
+        }
+    }
+
+    public void record(HistoricalWeatherData data) {
+        long timestamp = EpochTime.toMillis(data.getTimestamp());
+        double[] values = HistoricalMetric.valuesOf(data);
+        while (!regions.computeIfAbsent(data.getRegion(), r -> new RegionStats()).add(timestamp, values)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Null until the region has been seen
+    public WelfordStats snapshot(String region, StatsWindow window) {
+        RegionStats stats = regions.get(region);
+        return stats == null ? null : stats.snapshot(window, EpochTime.toMillis(LocalDateTime.now()));
+    }
+
+    // Rollups are caught up by an earlier ApplicationReadyEvent listener (RollupService.catchUp)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String region : regionRegistry.codes()) {
+            reload(region);
+        }
+    }
+
+    // Rebuilds a region's windows: older hours from hourly rollups, the last hours from raw rows. Samples recorded
+    // meanwhile, or still queued for the database, are replayed from the live instance's journal unless the scan
+    // already saw a row with the same timestamp.
+    public void reload(String region) {
+        try {
+            RegionStats stats = new RegionStats();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime rawFrom = RollupResolution.HOUR.bucketStart(now).minusHours(RAW_HOURS);
+            int regionId = regionRegistry.lookup(region);
+
+            LocalDateTime from = RollupResolution.HOUR.bucketStart(now.minus(StatsWindow.MONTH.getWindow()));
+            int rows = 0;
+            for (RollupRow row : rollupRepository.findBuckets(RollupSource.WEATHER, regionId, RollupResolution.HOUR,
+                    from, rawFrom)) {
+                int metric = HistoricalMetric.fromKey(row.metric()).ordinal();
+                long bucketStart = EpochTime.toMillis(row.bucketStart());
+                for (StatsWindow window : StatsWindow.values()) {
+                    if (window != StatsWindow.HOUR) {
+                        stats.windows[window.ordinal()].addAggregate(bucketStart, metric, row.count(),
+                            row.sum(), row.m2(), row.min(), row.max());
+                    }
+                }
+                rows++;
+            }
+
+            Set<Long> scanned = new HashSet<>();
+            rollupRepository.scanRaw(RollupSource.WEATHER, regionId, rawFrom, now.plusHours(1),
+                (timestamp, values) -> {
+                    long millis = EpochTime.toMillis(timestamp);
+                    scanned.add(millis);
+                    for (RollingWindowStats window : stats.windows) {
+                        window.add(millis, values);
+                    }
+                });
+
+            long rawFromMillis = EpochTime.toMillis(rawFrom);
+            regions.compute(region, (r, live) -> {
+                if (live != null) {
+                    for (RecordedSample sample : live.retire(rawFromMillis)) {
+                        if (!scanned.contains(sample.timestamp())) {
+                            stats.add(sample.timestamp(), sample.values());
+                        }
+                    }
+                }
+                return stats;
+            });
+            log.info("Rebuilt running statistics for region {} from {} hourly rollup rows and {} raw rows",
+                region, rows, scanned.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild running statistics for region {}: {}", region, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.weather.service.service;
+
+import com.weather.service.repository.MetricRollupBatchRepository;
+import com.weather.service.repository.MetricRollupBatchRepository.RollupRow;
+import com.weather.service.timeseries.HistoricalMetric;
+import com.weather.service.timeseries.RollupResolution;
+import com.weather.service.timeseries.RollupSource;
+import com.weather.service.timeseries.TrendStatistics;
+import com.weather.service.timeseries.TrendStatistics.LinearFit;
+import com.weather.service.timeseries.TrendStatistics.MannKendall;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Per-metric trend of a region over hourly (up to 30 days) or daily rollups: least-squares slope,
+// Mann-Kendall significance and the slope left after removing the daily or weekly cycle.
+// Reports are cached per (region, days) until the region's rollups are rebuilt.
+@Service
+@Slf4j
+public class TrendService {
+
+    public static final int MAX_DAYS = 365;
+
+    private static final int HOURLY_MAX_DAYS = 30;
+    private static final int MIN_POINTS = 3;
+    private static final double SIGNIFICANCE = 0.05;
+    private static final int[] PRECOMPUTED_DAYS = {7, 30};
+
+    private final MetricRollupBatchRepository rollupRepository;
+    private final RegionRegistry regionRegistry;
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TrendKey, CachedReport> cache = new ConcurrentHashMap<>();
+
+    public record MetricTrend(HistoricalMetric metric, String direction, double slopePerDay,
+                              double deseasonalizedSlopePerDay, double rSquared, double mannKendallZ,
+                              double pValue, boolean significant, double changePercent, int points) {
+    }
+
+    public record TrendReport(String region, int days, RollupResolution resolution, LocalDateTime computedAt,
+                              Map<HistoricalMetric, MetricTrend> metrics) {
+        public MetricTrend get(HistoricalMetric metric) {
+            return metrics.get(metric);
+        }
+    }
+
+    private record TrendKey(String region, int days) {
+    }
+
+    private record CachedReport(long version, TrendReport report) {
+    }
+
+    public TrendService(MetricRollupBatchRepository rollupRepository, RegionRegistry regionRegistry) {
+        this.rollupRepository = rollupRepository;
+        this.regionRegistry = regionRegistry;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public TrendReport trends(String region, int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_DAYS);
+        }
+
+        TrendKey key = new TrendKey(region, days);
+        long version = version(region).get();
+        CachedReport cached = cache.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached.report();
+        }
+
+        // Stamped with the version read before loading, so a rebuild that lands meanwhile forces a recompute
+        TrendReport report = compute(region, days);
+        cache.put(key, new CachedReport(version, report));
+        return report;
+    }
+
+    public void invalidate(String region) {
+        version(region).incrementAndGet();
+    }
+
+    // Recomputes the commonly polled windows of regions whose rollups just changed, off the caller's thread
+    public void refresh(Collection<String> regions) {
+        if (regions.isEmpty()) {
+            return;
+        }
+        pool.execute(() -> regions.parallelStream().forEach(region -> {
+            for (int days : PRECOMPUTED_DAYS) {
+                try {
+                    trends(region, days);
+                } catch (Exception e) {
+                    log.error("Failed to refresh {}-day trends for region {}: {}", days, region, e.getMessage());
+                }
+            }
+        }));
+    }
+
+    private AtomicLong version(String region) {
+        return versions.computeIfAbsent(region, r -> new AtomicLong());
+    }
+
+    private TrendReport compute(String region, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        RollupResolution resolution = days <= HOURLY_MAX_DAYS ? RollupResolution.HOUR : RollupResolution.DAY;
+        List<RollupRow> rows = rollupRepository.findBuckets(RollupSource.WEATHER, regionRegistry.lookup(region), resolution,
+            resolution.bucketStart(now.minusDays(days)), now);
+
+        int metrics = HistoricalMetric.count();
+        double[][] x = new double[metrics][rows.size()];
+        double[][] y = new double[metrics][rows.size()];
+        int[][] phase = new int[metrics][rows.size()];
+        int[] counts = new int[metrics];
+        LocalDateTime origin = rows.isEmpty() ? now : rows.get(0).bucketStart();
+
+        for (RollupRow row : rows) {
+            int m = HistoricalMetric.fromKey(row.metric()).ordinal();
+            int i = counts[m]++;
+            x[m][i] = Duration.between(origin, row.bucketStart()).toMinutes() / (24.0 * 60.0);
+            y[m][i] = row.sum() / row.count();
+            phase[m][i] = resolution == RollupResolution.HOUR
+                ? row.bucketStart().getHour()
+                : row.bucketStart().getDayOfWeek().getValue() - 1;
+        }
+
+        int period = resolution == RollupResolution.HOUR ? 24 : 7;
+        Map<HistoricalMetric, MetricTrend> trends = pool.submit(() -> IntStream.range(0, metrics).parallel()
+            .filter(m -> counts[m] >= MIN_POINTS)
+            .mapToObj(m -> analyze(HistoricalMetric.byIndex(m), x[m], y[m], phase[m], counts[m], period))
+            .collect(() -> new EnumMap<HistoricalMetric, MetricTrend>(HistoricalMetric.class),
+                (map, trend) -> map.put(trend.metric(), trend), Map::putAll)).join();
+
+        return new TrendReport(region, days, resolution, now, trends);
+    }
+
+    private static MetricTrend analyze(HistoricalMetric metric, double[] x, double[] y, int[] phase, int n, int period) {
+        LinearFit raw = TrendStatistics.leastSquares(x, y, n);
+        double[] adjusted = TrendStatistics.deseasonalize(y, phase, n, period);
+        LinearFit trend = TrendStatistics.leastSquares(x, adjusted, n);
+        MannKendall mannKendall = TrendStatistics.mannKendall(adjusted, n);
+
+        boolean significant = mannKendall.significant(SIGNIFICANCE);
+        String direction = !significant || trend.slope() == 0.0 ? "stable"
+            : trend.slope() > 0 ? "increasing" : "decreasing";
+
+        // Fitted change over the window relative to the fitted starting level
+        double startLevel = trend.intercept() + trend.slope() * x[0];
+        double change = trend.slope() * (x[n - 1] - x[0]);
+        double changePercent = Math.abs(startLevel) < 1e-9 ? 0.0 : change / Math.abs(startLevel) * 100.0;
+
+        return new MetricTrend(metric, direction, raw.slope(), trend.slope(), raw.rSquared(), mannKendall.z(),
+            mannKendall.pValue(), significant, changePercent, n);
+    }
+}
@@ -6,24 +6,40 @@ import com.weather.service.dto.OpenWeatherResponse;
 import com.weather.service.dto.OpenWeatherForecastResponse;
 import com.weather.service.dto.WeatherResponse;
 
-import lombok.RequiredArgsConstructor;
+import com.weather.service.config.AppConfig;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Service;
 
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 
 public class WeatherService {
     
     private final OpenWeatherClient openWeatherClient;
-
+    private final RegionGeometryService regionGeometryService;
+    private final AppConfig.Geo geoConfig;
+    private final Map<String, CellWeather> cellWeather = new ConcurrentHashMap<>();
+    
+    private record CellWeather(long expiresAtNanos, CompletableFuture<WeatherResponse> weather) {
+    }
+    
+    public WeatherService(OpenWeatherClient openWeatherClient, RegionGeometryService regionGeometryService,
+                          AppConfig appConfig) {
+        this.openWeatherClient = openWeatherClient;
+        this.regionGeometryService = regionGeometryService;
+        this.geoConfig = appConfig.getGeo();
+    }
     
     public WeatherResponse getCurrentWeather(String city) {
         try {
@@ -39,7 +55,55 @@ public class WeatherService {
         return null;
     }
     
+    // Coordinates are snapped to their weather cell; every lookup in a cell shares one cached API response
     public WeatherResponse getCurrentWeatherByCoordinates(double lat, double lon) {
+        RegionGeometryService.Location location = regionGeometryService.locate(lat, lon);
+        WeatherResponse weather = getCellWeather(location);
+        return weather == null ? null : weather.toBuilder()
+            .region(location.region())
+            .cell(location.cell())
+            .build();
+    }
+    
+    // Concurrent misses on a cell wait for the first caller's request; failed lookups are not cached
+    private WeatherResponse getCellWeather(RegionGeometryService.Location location) {
+        long now = System.nanoTime();
+        CellWeather entry = cellWeather.get(location.cell());
+        if (entry != null && entry.expiresAtNanos() - now > 0) {
+            return entry.weather().join();
+        }
+        
+        CellWeather fresh = new CellWeather(now + TimeUnit.SECONDS.toNanos(geoConfig.getWeatherCellTtlSeconds()),
+            new CompletableFuture<>());
+        entry = cellWeather.compute(location.cell(),
+            (cell, existing) -> existing != null && existing.expiresAtNanos() - now > 0 ? existing : fresh);
+        if (entry != fresh) {
+            return entry.weather().join();
+        }
+        
+        evictExpiredCells(now);
+        WeatherResponse weather = fetchWeatherByCoordinates(location.cellLatitude(), location.cellLongitude());
+        if (weather == null) {
+            cellWeather.remove(location.cell(), fresh);
+        }
+        fresh.weather().complete(weather);
+        return weather;
+    }
+    
+    private void evictExpiredCells(long now) {
+        if (cellWeather.size() < geoConfig.getMaxWeatherCells()) {
+            return;
+        }
+        cellWeather.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+        Iterator<CellWeather> iterator = cellWeather.values().iterator();
+        while (cellWeather.size() >= geoConfig.getMaxWeatherCells() && iterator.hasNext()) {
+            if (iterator.next().weather().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    private WeatherResponse fetchWeatherByCoordinates(double lat, double lon) {
         try {
             OpenWeatherResponse apiResponse = openWeatherClient.getCurrentWeatherByCoordinates(lat, lon).block();
             
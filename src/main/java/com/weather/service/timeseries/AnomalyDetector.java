@@ -0,0 +1,131 @@
+package com.weather.service.timeseries;
+
+// Online anomaly scoring for every metric of one region. Each metric keeps an exponentially weighted
+// mean and variance plus an hour-of-day baseline (mean and spread per hour), so state is constant
+// per series and a sample costs a handful of arithmetic operations. Not thread-safe.
+public class AnomalyDetector {
+
+    public static final String EWMA = "ewma";
+    public static final String SEASONAL = "seasonal";
+
+    private static final int SLOTS = 24;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final double LEVEL_ALPHA = 0.05;
+    private static final double SEASONAL_ALPHA = 0.05;
+    private static final int LEVEL_WARMUP = 36;
+    private static final int SLOT_WARMUP = 24;
+    // Residual spread never counts as smaller than this share of the metric's overall spread,
+    // so flat stretches (solar at night) do not turn every small wobble into an anomaly
+    private static final double MIN_RESIDUAL_SHARE = 0.1;
+
+    private final int metrics;
+    private final double threshold;
+
+    private final long[] count;
+    private final double[] mean;
+    private final double[] variance;
+    private final int[][] slotCount;
+    private final double[][] slotMean;
+    private final double[][] slotVariance;
+
+    // Scores written by the last call to score(), indexed by metric; NaN where a metric was not scored
+    private final double[] lastScore;
+    private final double[] lastExpected;
+    private final boolean[] lastSeasonal;
+
+    public AnomalyDetector(int metrics, double threshold) {
+        this.metrics = metrics;
+        this.threshold = threshold;
+        this.count = new long[metrics];
+        this.mean = new double[metrics];
+        this.variance = new double[metrics];
+        this.slotCount = new int[metrics][SLOTS];
+        this.slotMean = new double[metrics][SLOTS];
+        this.slotVariance = new double[metrics][SLOTS];
+        this.lastScore = new double[metrics];
+        this.lastExpected = new double[metrics];
+        this.lastSeasonal = new boolean[metrics];
+    }
+
+    // Scores the sample against the state built so far, then folds it in. Returns how many metrics
+    // crossed the threshold; details are read back with score(m), expected(m) and detector(m).
+    public int score(long timestamp, double[] values) {
+        int slot = (int) Math.floorMod(Math.floorDiv(timestamp, HOUR_MILLIS), (long) SLOTS);
+        int anomalies = 0;
+
+        for (int m = 0; m < metrics; m++) {
+            double x = values[m];
+            lastScore[m] = Double.NaN;
+            lastExpected[m] = Double.NaN;
+            lastSeasonal[m] = false;
+            if (Double.isNaN(x)) {
+                continue;
+            }
+
+            double overallStd = Math.sqrt(variance[m]);
+            double expected = Double.NaN;
+            double std = Double.NaN;
+            if (slotCount[m][slot] >= SLOT_WARMUP && count[m] >= LEVEL_WARMUP) {
+                expected = slotMean[m][slot];
+                std = Math.max(Math.sqrt(slotVariance[m][slot]), Math.max(MIN_RESIDUAL_SHARE * overallStd, 1e-9));
+                lastSeasonal[m] = true;
+            } else if (count[m] >= LEVEL_WARMUP) {
+                expected = mean[m];
+                std = Math.max(overallStd, 1e-9);
+            }
+            double score = (x - expected) / std;
+            lastScore[m] = score;
+            lastExpected[m] = expected;
+
+            boolean anomalous = Math.abs(score) >= threshold;
+            if (anomalous) {
+                anomalies++;
+            }
+            // Outliers are folded in clipped to the threshold so one spike does not drag a trained baseline;
+            // while the hour-of-day baseline is still warming up it takes every value as is
+            update(m, slot, anomalous && lastSeasonal[m] ? expected + Math.copySign(threshold * std, score) : x);
+        }
+        return anomalies;
+    }
+
+    public double score(int metric) {
+        return lastScore[metric];
+    }
+
+    public double expected(int metric) {
+        return lastExpected[metric];
+    }
+
+    public String detector(int metric) {
+        return lastSeasonal[metric] ? SEASONAL : EWMA;
+    }
+
+    public boolean isAnomalous(int metric) {
+        return Math.abs(lastScore[metric]) >= threshold;
+    }
+
+    private void update(int m, int slot, double x) {
+        if (count[m] == 0) {
+            mean[m] = x;
+        } else {
+            // West's exponentially weighted mean and variance
+            double delta = x - mean[m];
+            mean[m] += LEVEL_ALPHA * delta;
+            variance[m] = (1 - LEVEL_ALPHA) * (variance[m] + LEVEL_ALPHA * delta * delta);
+        }
+        count[m]++;
+
+        if (slotCount[m][slot] == 0) {
+            slotMean[m][slot] = x;
+        } else {
+            // Early samples of a slot get plain averaging, later ones exponential forgetting
+            double alpha = Math.max(SEASONAL_ALPHA, 1.0 / (slotCount[m][slot] + 1));
+            double residual = x - slotMean[m][slot];
+            slotMean[m][slot] += alpha * residual;
+            slotVariance[m][slot] = (1 - alpha) * (slotVariance[m][slot] + alpha * residual * residual);
+        }
+        if (slotCount[m][slot] < Integer.MAX_VALUE) {
+            slotCount[m][slot]++;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.weather.service.timeseries;
+
+import java.nio.ByteBuffer;
+
+// Reads a bit stream written by BitWriter from a region of a ByteBuffer (heap or memory-mapped)
+public final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private long bitPosition;
+
+    public BitReader(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public boolean readBit() {
+        return readBits(1) == 1;
+    }
+
+    public long readBits(int bits) {
+        long result = 0;
+        while (bits > 0) {
+            int current = buffer.get(offset + (int) (bitPosition >>> 3)) & 0xFF;
+            int available = 8 - (int) (bitPosition & 7);
+            int take = Math.min(available, bits);
+            int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+            result = (result << take) | chunk;
+            bitPosition += take;
+            bits -= take;
+        }
+        return result;
+    }
+}
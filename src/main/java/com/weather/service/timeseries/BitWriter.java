@@ -0,0 +1,52 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Append-only bit stream, most significant bit first
+public final class BitWriter {
+
+    private byte[] buffer;
+    private long bitPosition;
+
+    public BitWriter(int initialBytes) {
+        buffer = new byte[Math.max(16, initialBytes)];
+    }
+
+    public void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    // Writes the low 'bits' bits of value
+    public void writeBits(long value, int bits) {
+        ensureCapacity(bitPosition + bits);
+        while (bits > 0) {
+            int byteIndex = (int) (bitPosition >>> 3);
+            int free = 8 - (int) (bitPosition & 7);
+            int take = Math.min(free, bits);
+            int chunk = (int) ((value >>> (bits - take)) & ((1 << take) - 1));
+            buffer[byteIndex] |= (byte) (chunk << (free - take));
+            bitPosition += take;
+            bits -= take;
+        }
+    }
+
+    public int byteLength() {
+        return (int) ((bitPosition + 7) >>> 3);
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public void reset() {
+        Arrays.fill(buffer, 0, byteLength(), (byte) 0);
+        bitPosition = 0;
+    }
+
+    private void ensureCapacity(long bits) {
+        int required = (int) ((bits + 7) >>> 3);
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Per-metric count/sum/M2/min/max and a t-digest for one time bucket; NaN values (NULL columns) are skipped.
+// M2 (the sum of squared deviations from the mean) is kept with Welford's update rather than as a raw sum of
+// squares, which loses the variance to cancellation when values are large relative to their spread.
+public class BucketAccumulator {
+
+    private final long[] count;
+    private final double[] sum;
+    private final double[] mean;
+    private final double[] m2;
+    private final double[] min;
+    private final double[] max;
+    private final TDigest[] digests;
+
+    public BucketAccumulator(int metrics) {
+        count = new long[metrics];
+        sum = new double[metrics];
+        mean = new double[metrics];
+        m2 = new double[metrics];
+        min = new double[metrics];
+        max = new double[metrics];
+        digests = new TDigest[metrics];
+        reset();
+    }
+
+    public void add(double[] values) {
+        for (int m = 0; m < values.length; m++) {
+            double value = values[m];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            long n = ++count[m];
+            sum[m] += value;
+            double delta = value - mean[m];
+            mean[m] += delta / n;
+            m2[m] += delta * (value - mean[m]);
+            if (value < min[m]) min[m] = value;
+            if (value > max[m]) max[m] = value;
+            if (digests[m] == null) {
+                digests[m] = new TDigest();
+            }
+            digests[m].add(value);
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(count, 0);
+        Arrays.fill(sum, 0.0);
+        Arrays.fill(mean, 0.0);
+        Arrays.fill(m2, 0.0);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        Arrays.fill(digests, null);
+    }
+
+    public int metrics() {
+        return count.length;
+    }
+
+    public long count(int metric) {
+        return count[metric];
+    }
+
+    public double sum(int metric) {
+        return sum[metric];
+    }
+
+    public double m2(int metric) {
+        return m2[metric];
+    }
+
+    public double min(int metric) {
+        return min[metric];
+    }
+
+    public double max(int metric) {
+        return max[metric];
+    }
+
+    // Serialized digest of the metric's values, or null when the bucket has none
+    public byte[] sketch(int metric) {
+        return digests[metric] == null ? null : digests[metric].toBytes();
+    }
+}
@@ -0,0 +1,45 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Growable columnar buffer: one timestamp column and one double column per metric
+public final class ColumnBuffer {
+
+    private long[] timestamps;
+    private final double[][] columns;
+    private int size;
+
+    public ColumnBuffer(int metrics, int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        timestamps = new long[capacity];
+        columns = new double[metrics][capacity];
+    }
+
+    public void add(long timestamp, double[] values) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            for (int m = 0; m < columns.length; m++) {
+                columns[m] = Arrays.copyOf(columns[m], capacity);
+            }
+        }
+        timestamps[size] = timestamp;
+        for (int m = 0; m < columns.length; m++) {
+            columns[m][size] = values[m];
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Backing arrays: valid up to size()
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    public double[] column(int metric) {
+        return columns[metric];
+    }
+}
@@ -0,0 +1,101 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Correlation coefficients over primitive columns. Undefined coefficients (fewer than two
+// samples or a constant column) are reported as 0.
+public final class Correlation {
+
+    private Correlation() {
+    }
+
+    // Single pass with running co-moments, which stays stable where the naive sum-of-products form cancels
+    public static double pearson(double[] x, double[] y, int n) {
+        double meanX = 0;
+        double meanY = 0;
+        double coMoment = 0;
+        double m2x = 0;
+        double m2y = 0;
+        int count = 0;
+
+        for (int i = 0; i < n; i++) {
+            double xi = x[i];
+            double yi = y[i];
+            if (Double.isNaN(xi) || Double.isNaN(yi)) {
+                continue;
+            }
+            count++;
+            double dx = xi - meanX;
+            double dy = yi - meanY;
+            meanX += dx / count;
+            meanY += dy / count;
+            coMoment += dx * (yi - meanY);
+            m2x += dx * (xi - meanX);
+            m2y += dy * (yi - meanY);
+        }
+
+        if (count < 2 || m2x <= 0 || m2y <= 0) {
+            return 0.0;
+        }
+        return coMoment / Math.sqrt(m2x * m2y);
+    }
+
+    // Pearson over precomputed ranks (see ranks)
+    public static double spearman(double[] xRanks, double[] yRanks, int n) {
+        return pearson(xRanks, yRanks, n);
+    }
+
+    // Fractional ranks (1-based, ties share their average rank). NaN stays NaN.
+    public static double[] ranks(double[] values, int n) {
+        double[] sorted = new double[n];
+        int valid = 0;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(values[i])) {
+                sorted[valid++] = values[i];
+            }
+        }
+        Arrays.sort(sorted, 0, valid);
+
+        // A value's ties occupy [first, last] of the sorted values; they share the average of those ranks
+        double[] ranks = new double[n];
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                ranks[i] = Double.NaN;
+            } else {
+                int first = lowerBound(sorted, valid, value);
+                int last = upperBound(sorted, valid, value) - 1;
+                ranks[i] = (first + last) / 2.0 + 1;
+            }
+        }
+        return ranks;
+    }
+
+    private static int lowerBound(double[] sorted, int size, double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted, int size, double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,41 @@
+package com.weather.service.timeseries;
+
+// Weather driver / energy response pairs reported by the correlation analysis
+public enum CorrelationPair {
+    TEMPERATURE_CONSUMPTION("temperatureVsConsumption", "Temperature vs Consumption",
+        HistoricalMetric.TEMPERATURE, HistoricalMetric.TOTAL_CONSUMPTION),
+    WIND_SPEED_WIND_GENERATION("windSpeedVsWindGeneration", "Wind Speed vs Wind Generation",
+        HistoricalMetric.WIND_SPEED, HistoricalMetric.WIND_GENERATION),
+    SOLAR_IRRADIANCE_SOLAR_GENERATION("solarIrradianceVsSolarGeneration", "Solar Irradiance vs Solar Generation",
+        HistoricalMetric.SOLAR_IRRADIANCE, HistoricalMetric.SOLAR_GENERATION),
+    CLOUD_COVER_SOLAR_GENERATION("cloudCoverVsSolarGeneration", "Cloud Cover vs Solar Generation",
+        HistoricalMetric.CLOUD_COVER, HistoricalMetric.SOLAR_GENERATION);
+
+    private final String key;
+    private final String label;
+    private final HistoricalMetric x;
+    private final HistoricalMetric y;
+
+    CorrelationPair(String key, String label, HistoricalMetric x, HistoricalMetric y) {
+        this.key = key;
+        this.label = label;
+        this.x = x;
+        this.y = y;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public HistoricalMetric getX() {
+        return x;
+    }
+
+    public HistoricalMetric getY() {
+        return y;
+    }
+}
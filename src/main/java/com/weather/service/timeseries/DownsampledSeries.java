@@ -0,0 +1,49 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Output of a downsampler: one (timestamps, values) pair per metric, since each metric keeps its own points
+public final class DownsampledSeries {
+
+    private final long[][] timestamps;
+    private final double[][] values;
+    private final int[] sizes;
+    private long inputPoints;
+
+    DownsampledSeries(int metrics, int expectedPoints) {
+        timestamps = new long[metrics][Math.max(4, expectedPoints)];
+        values = new double[metrics][Math.max(4, expectedPoints)];
+        sizes = new int[metrics];
+    }
+
+    void add(int metric, long timestamp, double value) {
+        int size = sizes[metric];
+        if (size == timestamps[metric].length) {
+            timestamps[metric] = Arrays.copyOf(timestamps[metric], size * 2);
+            values[metric] = Arrays.copyOf(values[metric], size * 2);
+        }
+        timestamps[metric][size] = timestamp;
+        values[metric][size] = value;
+        sizes[metric] = size + 1;
+    }
+
+    void setInputPoints(long inputPoints) {
+        this.inputPoints = inputPoints;
+    }
+
+    public int metrics() {
+        return sizes.length;
+    }
+
+    public long inputPoints() {
+        return inputPoints;
+    }
+
+    public long[] timestamps(int metric) {
+        return Arrays.copyOf(timestamps[metric], sizes[metric]);
+    }
+
+    public double[] values(int metric) {
+        return Arrays.copyOf(values[metric], sizes[metric]);
+    }
+}
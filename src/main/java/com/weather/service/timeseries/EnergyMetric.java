@@ -0,0 +1,26 @@
+package com.weather.service.timeseries;
+
+public enum EnergyMetric {
+    SOLAR_GENERATION("solarGeneration", "solar_generation"),
+    WIND_GENERATION("windGeneration", "wind_generation"),
+    TOTAL_CONSUMPTION("totalConsumption", "total_consumption"),
+    GRID_DEMAND("gridDemand", "grid_demand"),
+    ENERGY_PRICE("energyPrice", "energy_price"),
+    TOTAL_GENERATION("totalGeneration", "solar_generation + wind_generation");
+
+    private final String key;
+    private final String sqlExpression;
+
+    EnergyMetric(String key, String sqlExpression) {
+        this.key = key;
+        this.sqlExpression = sqlExpression;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getSqlExpression() {
+        return sqlExpression;
+    }
+}
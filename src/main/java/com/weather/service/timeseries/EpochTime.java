@@ -0,0 +1,36 @@
+package com.weather.service.timeseries;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Timestamps are stored as zone-less server-local LocalDateTime. Primitive series key them by wall-clock millis
+// (the local date and time read as if it were UTC), so hour and day arithmetic follows the local calendar.
+// Those keys are not instants: anything sent to a client goes through toInstantMillis.
+public final class EpochTime {
+
+    private EpochTime() {
+    }
+
+    public static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    // The epoch millis of the instant a wall-clock key names in the server's zone
+    public static long toInstantMillis(long wallClockMillis) {
+        return fromMillis(wallClockMillis).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Converts wall-clock keys in place and returns the array
+    public static long[] toInstantMillis(long[] wallClockMillis) {
+        for (int i = 0; i < wallClockMillis.length; i++) {
+            wallClockMillis[i] = toInstantMillis(wallClockMillis[i]);
+        }
+        return wallClockMillis;
+    }
+}
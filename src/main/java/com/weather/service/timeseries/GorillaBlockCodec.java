@@ -0,0 +1,130 @@
+package com.weather.service.timeseries;
+
+// One block of a multi-metric series: delta-of-delta timestamps followed by one
+// XOR-compressed column per metric (Pelkonen et al., "Gorilla", VLDB 2015)
+public final class GorillaBlockCodec {
+
+    private GorillaBlockCodec() {
+    }
+
+    public static void encode(long[] timestamps, double[][] columns, int count, BitWriter out) {
+        out.writeBits(timestamps[0], 64);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            writeDeltaOfDelta(out, delta - previousDelta);
+            previousDelta = delta;
+            previous = timestamps[i];
+        }
+
+        for (double[] column : columns) {
+            encodeColumn(column, count, out);
+        }
+    }
+
+    public static void decode(BitReader in, int count, long[] timestamps, double[][] columns) {
+        timestamps[0] = in.readBits(64);
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(in);
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+
+        for (double[] column : columns) {
+            decodeColumn(in, count, column);
+        }
+    }
+
+    private static void writeDeltaOfDelta(BitWriter out, long dod) {
+        if (dod == 0) {
+            out.writeBits(0b0, 1);
+        } else if (dod >= -63 && dod <= 64) {
+            out.writeBits(0b10, 2);
+            out.writeBits(dod + 63, 7);
+        } else if (dod >= -255 && dod <= 256) {
+            out.writeBits(0b110, 3);
+            out.writeBits(dod + 255, 9);
+        } else if (dod >= -2047 && dod <= 2048) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(dod + 2047, 12);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (!in.readBit()) {
+            return 0;
+        }
+        if (!in.readBit()) {
+            return in.readBits(7) - 63;
+        }
+        if (!in.readBit()) {
+            return in.readBits(9) - 255;
+        }
+        if (!in.readBit()) {
+            return in.readBits(12) - 2047;
+        }
+        return in.readBits(64);
+    }
+
+    private static void encodeColumn(double[] column, int count, BitWriter out) {
+        long previous = Double.doubleToRawLongBits(column[0]);
+        out.writeBits(previous, 64);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+
+        for (int i = 1; i < count; i++) {
+            long bits = Double.doubleToRawLongBits(column[i]);
+            long xor = bits ^ previous;
+            previous = bits;
+
+            if (xor == 0) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Meaningful bits fit inside the previous window
+                out.writeBit(false);
+                out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                out.writeBits(significant == 64 ? 0 : significant, 6);
+                out.writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    private static void decodeColumn(BitReader in, int count, double[] column) {
+        long previous = in.readBits(64);
+        column[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+
+        for (int i = 1; i < count; i++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6);
+                    if (significant == 0) {
+                        significant = 64;
+                    }
+                    trailing = 64 - leading - significant;
+                }
+                long xor = in.readBits(64 - leading - trailing) << trailing;
+                previous ^= xor;
+            }
+            column[i] = Double.longBitsToDouble(previous);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.weather.service.timeseries;
+
+import com.weather.service.entity.HistoricalWeatherData;
+
+import java.util.function.Function;
+
+public enum HistoricalMetric {
+    TEMPERATURE("temperature", "temperature", HistoricalWeatherData::getTemperature),
+    WIND_SPEED("windSpeed", "wind_speed", HistoricalWeatherData::getWindSpeed),
+    SOLAR_IRRADIANCE("solarIrradiance", "solar_irradiance", HistoricalWeatherData::getSolarIrradiance),
+    CLOUD_COVER("cloudCover", "cloud_cover", HistoricalWeatherData::getCloudCover),
+    SOLAR_GENERATION("solarGeneration", "solar_generation", HistoricalWeatherData::getSolarGeneration),
+    WIND_GENERATION("windGeneration", "wind_generation", HistoricalWeatherData::getWindGeneration),
+    TOTAL_CONSUMPTION("totalConsumption", "total_consumption", HistoricalWeatherData::getTotalConsumption),
+    EFFICIENCY("efficiency", "efficiency", HistoricalWeatherData::getEfficiency),
+    // Derived so that peaks of combined output survive aggregation
+    TOTAL_GENERATION("totalGeneration", "solar_generation + wind_generation",
+        d -> d.getSolarGeneration() == null || d.getWindGeneration() == null
+            ? null : d.getSolarGeneration() + d.getWindGeneration());
+
+    private static final HistoricalMetric[] VALUES = values();
+
+    private final String key;
+    private final String sqlExpression;
+    private final Function<HistoricalWeatherData, Double> extractor;
+
+    HistoricalMetric(String key, String sqlExpression, Function<HistoricalWeatherData, Double> extractor) {
+        this.key = key;
+        this.sqlExpression = sqlExpression;
+        this.extractor = extractor;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getSqlExpression() {
+        return sqlExpression;
+    }
+
+    // NaN where the column is NULL, as scanRaw reads it
+    public double valueOf(HistoricalWeatherData data) {
+        Double value = extractor.apply(data);
+        return value == null ? Double.NaN : value;
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static HistoricalMetric byIndex(int index) {
+        return VALUES[index];
+    }
+
+    public static HistoricalMetric fromKey(String key) {
+        for (HistoricalMetric metric : VALUES) {
+            if (metric.key.equalsIgnoreCase(key) || metric.name().equalsIgnoreCase(key)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown metric: " + key);
+    }
+
+    public static double[] valuesOf(HistoricalWeatherData data) {
+        double[] values = new double[VALUES.length];
+        for (int i = 0; i < VALUES.length; i++) {
+            values[i] = VALUES[i].valueOf(data);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,204 @@
+package com.weather.service.timeseries;
+
+// Additive Holt-Winters for hourly series with a damped trend and two seasonal cycles, hour of day and hour of
+// week (Taylor's double-seasonal form). Seasonal offsets are indexed by absolute epoch hour, so folding in one
+// observation and forecasting any horizon touch a handful of doubles. Not thread-safe.
+public class HoltWinters {
+
+    public static final int DAY = 24;
+    public static final int WEEK = 168;
+
+    private static final double DAMPING = 0.98;
+    private static final double[] SMOOTHING_GRID = {0.02, 0.05, 0.1, 0.2, 0.4};
+    private static final double[] TREND_GRID = {0.0, 0.01, 0.05};
+    // Weight of each new one-step error in the running error estimate
+    private static final double ERROR_ALPHA = 0.02;
+
+    public record Parameters(double alpha, double beta, double gamma, double omega) {
+    }
+
+    private final Parameters parameters;
+    private double level;
+    private double trend;
+    private final double[] daily = new double[DAY];
+    private final double[] weekly = new double[WEEK];
+    private long lastHour;
+
+    private double meanSquaredError = Double.NaN;
+    private double fitSquaredError;
+    private int fitErrors;
+
+    private HoltWinters(Parameters parameters, long lastHour, double level, double trend,
+                        double[] daily, double[] weekly) {
+        this.parameters = parameters;
+        this.lastHour = lastHour;
+        this.level = level;
+        this.trend = trend;
+        System.arraycopy(daily, 0, this.daily, 0, DAY);
+        System.arraycopy(weekly, 0, this.weekly, 0, WEEK);
+    }
+
+    // y[i] is the value of epoch hour firstHour + i, NaN where missing. Initial state comes from the first two
+    // weeks; every parameter set on the grid is then run over the whole series and the one with the smallest
+    // one-step error after the first week is kept. Null when fewer than two weeks are covered.
+    public static HoltWinters fit(long firstHour, double[] y) {
+        int n = y.length;
+        if (n < 2 * WEEK || observed(y, 0, n) < WEEK) {
+            return null;
+        }
+
+        double firstWeek = mean(y, 0, WEEK);
+        double secondWeek = mean(y, WEEK, 2 * WEEK);
+        if (Double.isNaN(firstWeek) || Double.isNaN(secondWeek)) {
+            return null;
+        }
+        double level = firstWeek;
+        double trend = (secondWeek - firstWeek) / WEEK;
+
+        double[] daily = new double[DAY];
+        int[] dailyCount = new int[DAY];
+        for (int i = 0; i < 2 * WEEK; i++) {
+            if (!Double.isNaN(y[i])) {
+                int slot = slot(firstHour + i, DAY);
+                daily[slot] += y[i] - (i < WEEK ? firstWeek : secondWeek);
+                dailyCount[slot]++;
+            }
+        }
+        for (int h = 0; h < DAY; h++) {
+            daily[h] = dailyCount[h] == 0 ? 0.0 : daily[h] / dailyCount[h];
+        }
+
+        double[] weekly = new double[WEEK];
+        int[] weeklyCount = new int[WEEK];
+        for (int i = 0; i < 2 * WEEK; i++) {
+            if (!Double.isNaN(y[i])) {
+                long hour = firstHour + i;
+                weekly[slot(hour, WEEK)] += y[i] - (i < WEEK ? firstWeek : secondWeek) - daily[slot(hour, DAY)];
+                weeklyCount[slot(hour, WEEK)]++;
+            }
+        }
+        for (int w = 0; w < WEEK; w++) {
+            weekly[w] = weeklyCount[w] == 0 ? 0.0 : weekly[w] / weeklyCount[w];
+        }
+
+        HoltWinters best = null;
+        double bestError = Double.POSITIVE_INFINITY;
+        for (double alpha : SMOOTHING_GRID) {
+            for (double beta : TREND_GRID) {
+                for (double gamma : SMOOTHING_GRID) {
+                    for (double omega : SMOOTHING_GRID) {
+                        HoltWinters model = new HoltWinters(new Parameters(alpha, beta, gamma, omega),
+                            firstHour - 1, level - trend * DAMPING, trend, daily, weekly);
+                        for (int i = 0; i < n; i++) {
+                            model.update(firstHour + i, y[i], i >= WEEK);
+                        }
+                        double error = model.fitErrors == 0 ? Double.POSITIVE_INFINITY
+                            : model.fitSquaredError / model.fitErrors;
+                        if (error < bestError) {
+                            bestError = error;
+                            best = model;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    public Parameters parameters() {
+        return parameters;
+    }
+
+    public long lastHour() {
+        return lastHour;
+    }
+
+    // Folds in the observation of an epoch hour after lastHour; earlier hours and NaN values are ignored
+    public void update(long hour, double value) {
+        update(hour, value, true);
+    }
+
+    // Fills out with the forecasts of epoch hours startHour, startHour + 1, ...; hours already observed get the
+    // level and seasonal offsets without trend
+    public void forecast(long startHour, double[] out) {
+        double dampedSum = 0;
+        double damping = 1;
+        long hour = startHour;
+        for (long h = lastHour + 1; h < startHour; h++) {
+            damping *= DAMPING;
+            dampedSum += damping;
+        }
+        for (int i = 0; i < out.length; i++, hour++) {
+            if (hour > lastHour) {
+                damping *= DAMPING;
+                dampedSum += damping;
+            }
+            out[i] = level + dampedSum * trend + daily[slot(hour, DAY)] + weekly[slot(hour, WEEK)];
+        }
+    }
+
+    // Standard error of the forecast for an hour steps ahead of the last observation, from the running
+    // one-step error; NaN until an error has been measured
+    public double forecastError(long steps) {
+        double alpha = parameters.alpha();
+        return Math.sqrt(meanSquaredError * (1 + Math.max(0, steps - 1) * alpha * alpha));
+    }
+
+    private void update(long hour, double value, boolean scored) {
+        if (hour <= lastHour || Double.isNaN(value)) {
+            return;
+        }
+        // Hours without an observation move the level along the damped trend
+        long gap = hour - lastHour - 1;
+        if (gap > 0) {
+            double decay = Math.pow(DAMPING, Math.min(gap, 10 * WEEK));
+            level += trend * DAMPING * (1 - decay) / (1 - DAMPING);
+            trend *= decay;
+        }
+
+        int d = slot(hour, DAY);
+        int w = slot(hour, WEEK);
+        double expected = level + DAMPING * trend + daily[d] + weekly[w];
+        double error = value - expected;
+        if (scored) {
+            fitSquaredError += error * error;
+            fitErrors++;
+            meanSquaredError = Double.isNaN(meanSquaredError) ? error * error
+                : meanSquaredError + ERROR_ALPHA * (error * error - meanSquaredError);
+        }
+
+        double previousLevel = level;
+        level = parameters.alpha() * (value - daily[d] - weekly[w])
+            + (1 - parameters.alpha()) * (level + DAMPING * trend);
+        trend = parameters.beta() * (level - previousLevel) + (1 - parameters.beta()) * DAMPING * trend;
+        daily[d] = parameters.gamma() * (value - level - weekly[w]) + (1 - parameters.gamma()) * daily[d];
+        weekly[w] = parameters.omega() * (value - level - daily[d]) + (1 - parameters.omega()) * weekly[w];
+        lastHour = hour;
+    }
+
+    private static int slot(long hour, int period) {
+        return (int) Math.floorMod(hour, (long) period);
+    }
+
+    private static double mean(double[] y, int from, int to) {
+        double sum = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (!Double.isNaN(y[i])) {
+                sum += y[i];
+                count++;
+            }
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    private static int observed(double[] y, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (!Double.isNaN(y[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,251 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Largest-Triangle-Three-Buckets (Steinarsson, 2013) over equal time buckets, applied per metric.
+// Each metric keeps its first and last non-NaN values; NaN values are never selected. A bucket's point can only be chosen once the average
+// of the following bucket is known, so two buckets are buffered: memory is O(samples per bucket),
+// not O(series).
+public final class LttbDownsampler implements SeriesDownsampler {
+
+    private final long from;
+    private final long span;
+    private final int buckets;
+    private final int metrics;
+    private final DownsampledSeries series;
+
+    private final boolean[] anchored;
+    private final long[] anchorTimestamp;
+    private final double[] anchorValue;
+    private final boolean[] hasEnd;
+    private final long[] endTimestamp;
+    private final double[] endValue;
+    private final double[] sample;
+    private final double[] nextTimestamp;
+    private final double[] nextValue;
+
+    private Bucket pending;
+    private Bucket current;
+    private long currentIndex = -1;
+
+    private boolean hasLast;
+    private long lastTimestamp;
+    private final double[] lastValues;
+    private long inputPoints;
+
+    public LttbDownsampler(long from, long to, int maxPoints, int metrics) {
+        this.from = from;
+        this.span = Math.max(1, to - from);
+        this.buckets = Math.max(1, maxPoints - 2);
+        this.metrics = metrics;
+        this.series = new DownsampledSeries(metrics, buckets + 2);
+        this.anchored = new boolean[metrics];
+        this.anchorTimestamp = new long[metrics];
+        this.anchorValue = new double[metrics];
+        this.hasEnd = new boolean[metrics];
+        this.endTimestamp = new long[metrics];
+        this.endValue = new double[metrics];
+        this.sample = new double[metrics];
+        this.nextTimestamp = new double[metrics];
+        this.nextValue = new double[metrics];
+        this.lastValues = new double[metrics];
+        this.pending = new Bucket(metrics);
+        this.current = new Bucket(metrics);
+    }
+
+    @Override
+    public void add(long timestamp, double[] values) {
+        inputPoints++;
+        // A metric's first non-NaN value is its first point; it is emitted here and kept out of the buckets
+        boolean remaining = false;
+        for (int m = 0; m < metrics; m++) {
+            double value = values[m];
+            if (Double.isNaN(value)) {
+                sample[m] = Double.NaN;
+            } else if (!anchored[m]) {
+                series.add(m, timestamp, value);
+                anchored[m] = true;
+                anchorTimestamp[m] = timestamp;
+                anchorValue[m] = value;
+                sample[m] = Double.NaN;
+            } else {
+                sample[m] = value;
+                hasEnd[m] = true;
+                endTimestamp[m] = timestamp;
+                endValue[m] = value;
+                remaining = true;
+            }
+        }
+        if (!remaining) {
+            return;
+        }
+
+        // The newest sample might be the last one; it only joins a bucket once another arrives
+        if (hasLast) {
+            place(lastTimestamp, lastValues);
+        }
+        lastTimestamp = timestamp;
+        System.arraycopy(sample, 0, lastValues, 0, metrics);
+        hasLast = true;
+    }
+
+    @Override
+    public DownsampledSeries finish() {
+        // A metric's last point is its last non-NaN value, which is not necessarily in the final sample.
+        // Where it already sits in a buffered bucket it is taken out, so the bucket cannot select it too.
+        for (int m = 0; m < metrics; m++) {
+            if (hasEnd[m] && !(hasLast && !Double.isNaN(lastValues[m])) && !current.clearLast(m)) {
+                pending.clearLast(m);
+            }
+        }
+
+        if (!current.isEmpty()) {
+            if (!pending.isEmpty()) {
+                current.average(nextTimestamp, nextValue);
+                select(pending);
+            }
+            setNextToLast();
+            select(current);
+        } else if (!pending.isEmpty()) {
+            setNextToLast();
+            select(pending);
+        }
+
+        // An end point in an already selected bucket may have been chosen there
+        for (int m = 0; m < metrics; m++) {
+            if (hasEnd[m] && (anchorTimestamp[m] != endTimestamp[m] || anchorValue[m] != endValue[m])) {
+                series.add(m, endTimestamp[m], endValue[m]);
+            }
+        }
+        series.setInputPoints(inputPoints);
+        return series;
+    }
+
+    private void place(long timestamp, double[] values) {
+        long index = Math.min(Math.max(0, timestamp - from), span - 1) * buckets / span;
+        if (index != currentIndex) {
+            if (!current.isEmpty()) {
+                if (!pending.isEmpty()) {
+                    current.average(nextTimestamp, nextValue);
+                    select(pending);
+                }
+                Bucket completed = current;
+                current = pending;
+                pending = completed;
+                current.clear();
+            }
+            currentIndex = index;
+        }
+        current.add(timestamp, values);
+    }
+
+    private void setNextToLast() {
+        for (int m = 0; m < metrics; m++) {
+            nextTimestamp[m] = hasEnd[m] ? endTimestamp[m] : anchorTimestamp[m];
+            nextValue[m] = hasEnd[m] ? endValue[m] : anchorValue[m];
+        }
+    }
+
+    // Picks, per metric, the point of the bucket forming the largest triangle with the previous
+    // selection and the next bucket's average
+    private void select(Bucket bucket) {
+        for (int m = 0; m < metrics; m++) {
+            double ax = anchorTimestamp[m] - from;
+            double ay = anchorValue[m];
+            double cx = nextTimestamp[m] - from;
+            double cy = nextValue[m];
+            if (Double.isNaN(cy) && bucket.size > 0) {
+                // The next bucket has no value for this metric: keep the point furthest from the previous one
+                cx = bucket.timestamps[bucket.size - 1] - from;
+                cy = ay;
+            }
+
+            int best = -1;
+            double bestArea = -1;
+            for (int i = 0; i < bucket.size; i++) {
+                double by = bucket.values[m][i];
+                if (Double.isNaN(by)) {
+                    continue;
+                }
+                double bx = bucket.timestamps[i] - from;
+                double area = Math.abs((ax - cx) * (by - ay) - (ax - bx) * (cy - ay));
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = i;
+                }
+            }
+
+            if (best >= 0) {
+                series.add(m, bucket.timestamps[best], bucket.values[m][best]);
+                anchorTimestamp[m] = bucket.timestamps[best];
+                anchorValue[m] = bucket.values[m][best];
+            }
+        }
+        bucket.clear();
+    }
+
+    private static final class Bucket {
+        private long[] timestamps = new long[64];
+        private final double[][] values;
+        private int size;
+
+        Bucket(int metrics) {
+            values = new double[metrics][64];
+        }
+
+        void add(long timestamp, double[] sample) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                for (int m = 0; m < values.length; m++) {
+                    values[m] = Arrays.copyOf(values[m], size * 2);
+                }
+            }
+            timestamps[size] = timestamp;
+            for (int m = 0; m < values.length; m++) {
+                values[m][size] = sample[m];
+            }
+            size++;
+        }
+
+        // Mean timestamp and per-metric mean value (NaN skipped)
+        void average(double[] timestampOut, double[] valueOut) {
+            // Offsets from the first sample keep the sum well inside double precision
+            double offsetSum = 0;
+            for (int i = 0; i < size; i++) {
+                offsetSum += timestamps[i] - timestamps[0];
+            }
+            double meanTimestamp = timestamps[0] + offsetSum / size;
+            for (int m = 0; m < values.length; m++) {
+                double sum = 0;
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    if (!Double.isNaN(values[m][i])) {
+                        sum += values[m][i];
+                        count++;
+                    }
+                }
+                timestampOut[m] = meanTimestamp;
+                valueOut[m] = count == 0 ? Double.NaN : sum / count;
+            }
+        }
+
+        // Blanks the metric's latest non-NaN value; false when the bucket has none
+        boolean clearLast(int metric) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (!Double.isNaN(values[metric][i])) {
+                    values[metric][i] = Double.NaN;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
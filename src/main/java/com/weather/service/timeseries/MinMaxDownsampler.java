@@ -0,0 +1,88 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Keeps the minimum and maximum of each metric per time bucket, emitted in time order.
+// Preserves every spike, at two points per bucket; state is O(metrics).
+public final class MinMaxDownsampler implements SeriesDownsampler {
+
+    private final long from;
+    private final long span;
+    private final int buckets;
+    private final DownsampledSeries series;
+
+    private final long[] minTimestamp;
+    private final double[] minValue;
+    private final long[] maxTimestamp;
+    private final double[] maxValue;
+    private long currentBucket = -1;
+    private long inputPoints;
+
+    public MinMaxDownsampler(long from, long to, int maxPoints, int metrics) {
+        this.from = from;
+        this.span = Math.max(1, to - from);
+        this.buckets = Math.max(1, maxPoints / 2);
+        this.series = new DownsampledSeries(metrics, buckets * 2);
+        this.minTimestamp = new long[metrics];
+        this.minValue = new double[metrics];
+        this.maxTimestamp = new long[metrics];
+        this.maxValue = new double[metrics];
+    }
+
+    @Override
+    public void add(long timestamp, double[] values) {
+        inputPoints++;
+        long bucket = bucketOf(timestamp);
+        if (bucket != currentBucket) {
+            emit();
+            currentBucket = bucket;
+            Arrays.fill(minValue, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxValue, Double.NEGATIVE_INFINITY);
+        }
+
+        for (int m = 0; m < values.length; m++) {
+            double value = values[m];
+            if (value < minValue[m]) {
+                minValue[m] = value;
+                minTimestamp[m] = timestamp;
+            }
+            if (value > maxValue[m]) {
+                maxValue[m] = value;
+                maxTimestamp[m] = timestamp;
+            }
+        }
+    }
+
+    @Override
+    public DownsampledSeries finish() {
+        emit();
+        currentBucket = -1;
+        series.setInputPoints(inputPoints);
+        return series;
+    }
+
+    private long bucketOf(long timestamp) {
+        long offset = Math.min(Math.max(0, timestamp - from), span - 1);
+        return offset * buckets / span;
+    }
+
+    private void emit() {
+        if (currentBucket < 0) {
+            return;
+        }
+        for (int m = 0; m < minValue.length; m++) {
+            if (minValue[m] == Double.POSITIVE_INFINITY) {
+                continue; // only NaN seen
+            }
+            if (minTimestamp[m] == maxTimestamp[m]) {
+                series.add(m, minTimestamp[m], minValue[m]);
+            } else if (minTimestamp[m] < maxTimestamp[m]) {
+                series.add(m, minTimestamp[m], minValue[m]);
+                series.add(m, maxTimestamp[m], maxValue[m]);
+            } else {
+                series.add(m, maxTimestamp[m], maxValue[m]);
+                series.add(m, minTimestamp[m], minValue[m]);
+            }
+        }
+    }
+}
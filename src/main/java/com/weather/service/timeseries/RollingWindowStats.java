@@ -0,0 +1,81 @@
+package com.weather.service.timeseries;
+
+// WelfordStats over a sliding window held as a ring of fixed-width buckets keyed by epoch millis.
+// The merge of the closed buckets is cached until the window advances, so a read costs one
+// merge with the open bucket regardless of how many buckets the window has.
+// Not thread-safe; callers synchronize.
+public final class RollingWindowStats {
+
+    private final long bucketMillis;
+    private final long[] bucketIds;
+    private final WelfordStats[] buckets;
+    private final int metrics;
+
+    private WelfordStats closed;
+    private long closedFor = Long.MIN_VALUE;
+
+    public RollingWindowStats(StatsWindow window, int metrics) {
+        this.bucketMillis = window.getBucket().toMillis();
+        this.metrics = metrics;
+        int count = window.bucketCount();
+        this.bucketIds = new long[count];
+        this.buckets = new WelfordStats[count];
+        for (int i = 0; i < count; i++) {
+            bucketIds[i] = Long.MIN_VALUE;
+            buckets[i] = new WelfordStats(metrics);
+        }
+    }
+
+    public void add(long timestamp, double[] values) {
+        WelfordStats bucket = bucketFor(timestamp);
+        if (bucket != null) {
+            bucket.add(values);
+        }
+    }
+
+    public void addAggregate(long timestamp, int metric, long count, double sum, double m2,
+                             double min, double max) {
+        WelfordStats bucket = bucketFor(timestamp);
+        if (bucket != null) {
+            bucket.addAggregate(metric, count, sum, m2, min, max);
+        }
+    }
+
+    public WelfordStats snapshot(long now) {
+        long current = Math.floorDiv(now, bucketMillis);
+        if (closedFor != current) {
+            closed = new WelfordStats(metrics);
+            for (int i = 0; i < buckets.length; i++) {
+                if (bucketIds[i] < current && bucketIds[i] > current - buckets.length) {
+                    closed.merge(buckets[i]);
+                }
+            }
+            closedFor = current;
+        }
+
+        WelfordStats result = closed.copy();
+        int slot = (int) Math.floorMod(current, (long) buckets.length);
+        if (bucketIds[slot] == current) {
+            result.merge(buckets[slot]);
+        }
+        return result;
+    }
+
+    private WelfordStats bucketFor(long timestamp) {
+        long id = Math.floorDiv(timestamp, bucketMillis);
+        int slot = (int) Math.floorMod(id, (long) buckets.length);
+        if (bucketIds[slot] != id) {
+            if (bucketIds[slot] > id) {
+                // Older than the window the ring already holds
+                return null;
+            }
+            buckets[slot].reset();
+            bucketIds[slot] = id;
+        }
+        if (id < closedFor) {
+            // A closed bucket changed (late sample or warm-up); rebuild the cached merge on next read
+            closedFor = Long.MIN_VALUE;
+        }
+        return buckets[slot];
+    }
+}
@@ -0,0 +1,41 @@
+package com.weather.service.timeseries;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupResolution {
+    RAW(Duration.ZERO, ChronoUnit.NANOS),
+    HOUR(Duration.ofHours(1), ChronoUnit.HOURS),
+    DAY(Duration.ofDays(1), ChronoUnit.DAYS);
+
+    // A resolution is only used when the range still spans at least this many buckets
+    public static final int MIN_BUCKETS = 24;
+
+    private final Duration bucket;
+    private final ChronoUnit unit;
+
+    RollupResolution(Duration bucket, ChronoUnit unit) {
+        this.bucket = bucket;
+        this.unit = unit;
+    }
+
+    public Duration getBucket() {
+        return bucket;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    // Coarsest resolution that still resolves the range into MIN_BUCKETS points
+    public static RollupResolution forRange(Duration range) {
+        if (range.compareTo(DAY.bucket.multipliedBy(MIN_BUCKETS)) >= 0) {
+            return DAY;
+        }
+        if (range.compareTo(HOUR.bucket.multipliedBy(MIN_BUCKETS)) >= 0) {
+            return HOUR;
+        }
+        return RAW;
+    }
+}
@@ -0,0 +1,39 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Raw time-series tables that are rolled up into metric_rollups
+public enum RollupSource {
+    WEATHER("historical_weather_data",
+        Arrays.stream(HistoricalMetric.values()).map(HistoricalMetric::getKey).toArray(String[]::new),
+        Arrays.stream(HistoricalMetric.values()).map(HistoricalMetric::getSqlExpression).toArray(String[]::new)),
+    ENERGY("energy_data",
+        Arrays.stream(EnergyMetric.values()).map(EnergyMetric::getKey).toArray(String[]::new),
+        Arrays.stream(EnergyMetric.values()).map(EnergyMetric::getSqlExpression).toArray(String[]::new));
+
+    private final String table;
+    private final String[] metricKeys;
+    private final String[] sqlExpressions;
+
+    RollupSource(String table, String[] metricKeys, String[] sqlExpressions) {
+        this.table = table;
+        this.metricKeys = metricKeys;
+        this.sqlExpressions = sqlExpressions;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public int metricCount() {
+        return metricKeys.length;
+    }
+
+    public String metricKey(int index) {
+        return metricKeys[index];
+    }
+
+    public String selectList() {
+        return String.join(", ", sqlExpressions);
+    }
+}
@@ -0,0 +1,233 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Fixed-capacity columnar buffer of the most recent samples for one region.
+// Appends are expected in timestamp order; the oldest slot is overwritten once full. A buffer that has been
+// absorbed by a replacement is retired and refuses further appends.
+public class SampleRingBuffer {
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[][] columns;
+
+    private int head;
+    private int size;
+    private boolean wrapped;
+    // Earliest instant from which the buffer holds every sample; older windows must go to the database
+    private long coveredFrom = Long.MAX_VALUE;
+    private boolean retired;
+
+    public SampleRingBuffer(int capacity) {
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.columns = new double[HistoricalMetric.count()][capacity];
+    }
+
+    // False when the buffer is retired; the sample belongs in its replacement
+    public synchronized boolean append(long timestamp, double[] values) {
+        if (retired) {
+            return false;
+        }
+        put(timestamp, values);
+        return true;
+    }
+
+    private void put(long timestamp, double[] values) {
+        if (size == capacity) {
+            // Overwriting the oldest slot moves coverage up to the next retained sample
+            wrapped = true;
+            coveredFrom = timestamps[(head + 1) % capacity];
+        } else {
+            size++;
+            if (coveredFrom == Long.MAX_VALUE) {
+                coveredFrom = timestamp;
+            }
+        }
+
+        timestamps[head] = timestamp;
+        for (int m = 0; m < columns.length; m++) {
+            columns[m][head] = values[m];
+        }
+        head = (head + 1) % capacity;
+    }
+
+    // Merges samples loaded from the database that are older than anything buffered so far.
+    // Every stored sample since 'from' must be supplied, in ascending order.
+    public synchronized void backfill(long from, long[] olderTimestamps, double[][] olderValues) {
+        int existing = size;
+        long[] liveTimestamps = new long[existing];
+        double[][] liveValues = new double[existing][];
+        int start = (head - size + capacity) % capacity;
+        for (int i = 0; i < existing; i++) {
+            int slot = (start + i) % capacity;
+            liveTimestamps[i] = timestamps[slot];
+            liveValues[i] = row(slot);
+        }
+
+        long oldestLive = existing == 0 ? Long.MAX_VALUE : liveTimestamps[0];
+        head = 0;
+        size = 0;
+        wrapped = false;
+        coveredFrom = Long.MAX_VALUE;
+
+        for (int i = 0; i < olderTimestamps.length; i++) {
+            if (olderTimestamps[i] < oldestLive) {
+                put(olderTimestamps[i], olderValues[i]);
+            }
+        }
+        for (int i = 0; i < existing; i++) {
+            put(liveTimestamps[i], liveValues[i]);
+        }
+        if (!wrapped) {
+            coveredFrom = Math.min(coveredFrom, from);
+        }
+    }
+
+    // Takes over from the buffer this one replaces: live is retired, so nothing can be appended to it after the
+    // copy, and its samples are merged in by timestamp. A timestamp held by both keeps this buffer's sample.
+    public void absorb(SampleRingBuffer live) {
+        long[] liveTimestamps;
+        double[][] liveValues;
+        synchronized (live) {
+            live.retired = true;
+            liveTimestamps = live.orderedTimestamps();
+            liveValues = live.orderedRows();
+        }
+
+        synchronized (this) {
+            long[] ownTimestamps = orderedTimestamps();
+            double[][] ownValues = orderedRows();
+            long from = coveredFrom;
+            head = 0;
+            size = 0;
+            wrapped = false;
+            coveredFrom = Long.MAX_VALUE;
+
+            int i = 0;
+            int j = 0;
+            while (i < ownTimestamps.length || j < liveTimestamps.length) {
+                if (j == liveTimestamps.length || (i < ownTimestamps.length && ownTimestamps[i] <= liveTimestamps[j])) {
+                    if (j < liveTimestamps.length && ownTimestamps[i] == liveTimestamps[j]) {
+                        j++;
+                    }
+                    put(ownTimestamps[i], ownValues[i]);
+                    i++;
+                } else {
+                    put(liveTimestamps[j], liveValues[j]);
+                    j++;
+                }
+            }
+            if (!wrapped) {
+                coveredFrom = Math.min(coveredFrom, from);
+            }
+        }
+    }
+
+    private long[] orderedTimestamps() {
+        long[] ordered = new long[size];
+        int start = (head - size + capacity) % capacity;
+        for (int i = 0; i < size; i++) {
+            ordered[i] = timestamps[(start + i) % capacity];
+        }
+        return ordered;
+    }
+
+    private double[][] orderedRows() {
+        double[][] ordered = new double[size][];
+        int start = (head - size + capacity) % capacity;
+        for (int i = 0; i < size; i++) {
+            ordered[i] = row((start + i) % capacity);
+        }
+        return ordered;
+    }
+
+    public synchronized boolean covers(long from) {
+        return size > 0 && from >= coveredFrom;
+    }
+
+    public synchronized long lastTimestamp() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[(head - 1 + capacity) % capacity];
+    }
+
+    // Values of the newest sample, or null when the buffer is empty
+    public synchronized double[] lastValues() {
+        return size == 0 ? null : row((head - 1 + capacity) % capacity);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private double[] row(int slot) {
+        double[] values = new double[columns.length];
+        for (int m = 0; m < columns.length; m++) {
+            values[m] = columns[m][slot];
+        }
+        return values;
+    }
+
+    // Returns null when the window starts before the buffered span
+    public synchronized WindowSummary summarize(long from) {
+        if (!covers(from)) {
+            return null;
+        }
+
+        int metrics = columns.length;
+        double[] sum = new double[metrics];
+        double[] min = new double[metrics];
+        double[] max = new double[metrics];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+
+        int count = 0;
+        int slot = (head - 1 + capacity) % capacity;
+        for (int i = 0; i < size && timestamps[slot] >= from; i++) {
+            for (int m = 0; m < metrics; m++) {
+                double value = columns[m][slot];
+                sum[m] += value;
+                if (value < min[m]) min[m] = value;
+                if (value > max[m]) max[m] = value;
+            }
+            count++;
+            slot = slot == 0 ? capacity - 1 : slot - 1;
+        }
+
+        return new WindowSummary(count, sum, min, max);
+    }
+
+    // The arrays are copied on the way out, so no caller can alter a summary another one holds
+    public record WindowSummary(int count, double[] sum, double[] min, double[] max) {
+
+        @Override
+        public double[] sum() {
+            return sum.clone();
+        }
+
+        @Override
+        public double[] min() {
+            return min.clone();
+        }
+
+        @Override
+        public double[] max() {
+            return max.clone();
+        }
+
+        public double mean(HistoricalMetric metric) {
+            return count == 0 ? 0.0 : sum[metric.ordinal()] / count;
+        }
+
+        public double min(HistoricalMetric metric) {
+            return count == 0 ? 0.0 : min[metric.ordinal()];
+        }
+
+        public double max(HistoricalMetric metric) {
+            return count == 0 ? 0.0 : max[metric.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.weather.service.timeseries;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Monte Carlo scenarios of a region's hourly demand, renewable generation and price. Each scenario is a path:
+// the demand error and the weather deviations persist from hour to hour (AR(1)), so a scenario that runs high
+// stays high for a while instead of averaging out. Scenario ranges are split on a fork-join pool; every range
+// draws from its own SplittableRandom split off its parent's and writes only its own scenarios' values, so
+// workers share neither a generator nor a lock, and a seed always yields the same bands however the work was
+// scheduled. Bands are exact quantiles across all scenarios.
+public final class ScenarioSimulator {
+
+    public static final double[] QUANTILES = {0.1, 0.5, 0.9};
+
+    private static final int LEAF_SCENARIOS = 256;
+    private static final int LEAF_ROWS = 8;
+    // Correlation of each deviation with its value one hour earlier
+    private static final double DEMAND_PERSISTENCE = 0.8;
+    private static final double WEATHER_PERSISTENCE = 0.9;
+    private static final double WIND_SPEED_ERROR = 2.5;
+    private static final double CLOUD_COVER_ERROR = 20.0;
+    // Wind turbines reach their capacity at this speed (m/s), as in the daily generation forecast
+    private static final double RATED_WIND_SPEED = 15.0;
+    // Price moves with demand to this power, and falls by this share of a renewable surplus relative to demand
+    private static final double PRICE_DEMAND_ELASTICITY = 1.5;
+    private static final double PRICE_RENEWABLE_EFFECT = 0.5;
+    private static final double MIN_PRICE_FACTOR = 0.1;
+
+    private ScenarioSimulator() {
+    }
+
+    // Expected values of hours firstHour, firstHour + 1, ...: demand and its standard error, wind speed
+    // (m/s), cloud cover (%) and the price of the hour's day. Hours are EpochTime wall-clock keys divided into
+    // hours, so days and daylight follow the server's local time.
+    public record Inputs(long firstHour, double[] demand, double[] demandError, double[] windSpeed,
+                         double[] cloudCover, double[] price, double solarCapacity, double windCapacity) {
+
+        public int hours() {
+            return demand.length;
+        }
+    }
+
+    // demand[q][i] is quantile QUANTILES[q] of hour firstHour + i, likewise generation and price.
+    // dailyPrice[q][d] is that quantile of the mean price over the simulated hours of local day d, counted from
+    // the day of firstHour.
+    public record Bands(long firstHour, int scenarios, double[][] demand, double[][] generation,
+                        double[][] price, double[][] dailyPrice) {
+
+        public int hours() {
+            return demand[0].length;
+        }
+
+        public long firstDay() {
+            return Math.floorDiv(firstHour, 24L);
+        }
+    }
+
+    public static Bands simulate(Inputs inputs, int scenarios, long seed, ForkJoinPool pool) {
+        if (scenarios < 1 || inputs.hours() == 0) {
+            throw new IllegalArgumentException("At least one scenario and one hour are required");
+        }
+        Paths paths = new Paths(inputs, scenarios);
+        pool.invoke(new Simulation(paths, new SplittableRandom(seed), 0, scenarios));
+        return new Bands(inputs.firstHour(), scenarios,
+            quantiles(paths.demand, scenarios, pool),
+            quantiles(paths.generation, scenarios, pool),
+            quantiles(paths.price, scenarios, pool),
+            quantiles(paths.dailyPrice, scenarios, pool));
+    }
+
+    // Solar output follows the sun between 06:00 and 18:00 local time and drops with cloud cover; wind output rises
+    // linearly up to the rated speed
+    private static double generation(Inputs inputs, double daylight, double windSpeed, double cloudCover) {
+        return inputs.solarCapacity() * daylight * (1 - cloudCover / 100)
+            + inputs.windCapacity() * Math.min(windSpeed / RATED_WIND_SPEED, 1.0);
+    }
+
+    private static double daylight(long hour) {
+        return Math.max(0, Math.sin(Math.PI * (Math.floorMod(hour, 24L) - 6) / 12));
+    }
+
+    // Inputs and per-scenario values laid out hour by hour: values[i * scenarios + s] is scenario s at hour i
+    // (or day i for dailyPrice), so a range of scenarios writes one contiguous run per hour
+    private static final class Paths {
+        private final Inputs inputs;
+        private final int scenarios;
+        private final int days;
+        private final double[] daylight;
+        private final double[] expectedGeneration;
+        private final float[] demand;
+        private final float[] generation;
+        private final float[] price;
+        private final float[] dailyPrice;
+
+        Paths(Inputs inputs, int scenarios) {
+            int hours = inputs.hours();
+            this.inputs = inputs;
+            this.scenarios = scenarios;
+            this.days = (int) (Math.floorDiv(inputs.firstHour() + hours - 1, 24L) - Math.floorDiv(inputs.firstHour(), 24L)) + 1;
+            this.daylight = new double[hours];
+            this.expectedGeneration = new double[hours];
+            for (int i = 0; i < hours; i++) {
+                daylight[i] = daylight(inputs.firstHour() + i);
+                expectedGeneration[i] = generation(inputs, daylight[i], Math.max(0, inputs.windSpeed()[i]),
+                    Math.min(100, Math.max(0, inputs.cloudCover()[i])));
+            }
+            this.demand = new float[hours * scenarios];
+            this.generation = new float[hours * scenarios];
+            this.price = new float[hours * scenarios];
+            this.dailyPrice = new float[days * scenarios];
+        }
+
+        void simulate(SplittableRandom random, int from, int to) {
+            int n = to - from;
+            double demandShock = Math.sqrt(1 - DEMAND_PERSISTENCE * DEMAND_PERSISTENCE);
+            double weatherShock = Math.sqrt(1 - WEATHER_PERSISTENCE * WEATHER_PERSISTENCE);
+            // Standardised deviations, started from their stationary distribution
+            double[] demandDeviation = new double[n];
+            double[] windDeviation = new double[n];
+            double[] cloudDeviation = new double[n];
+            double[] priceSum = new double[n];
+            for (int k = 0; k < n; k++) {
+                demandDeviation[k] = random.nextGaussian();
+                windDeviation[k] = random.nextGaussian();
+                cloudDeviation[k] = random.nextGaussian();
+            }
+
+            long firstDay = Math.floorDiv(inputs.firstHour(), 24L);
+            int day = 0;
+            int dayHours = 0;
+            for (int i = 0; i < inputs.hours(); i++) {
+                int hourDay = (int) (Math.floorDiv(inputs.firstHour() + i, 24L) - firstDay);
+                if (hourDay != day) {
+                    closeDay(day, dayHours, priceSum, from);
+                    day = hourDay;
+                    dayHours = 0;
+                }
+                dayHours++;
+
+                double expectedDemand = inputs.demand()[i];
+                double demandError = inputs.demandError()[i];
+                double windSpeed = inputs.windSpeed()[i];
+                double cloudCover = inputs.cloudCover()[i];
+                double hourPrice = inputs.price()[i];
+                int offset = i * scenarios + from;
+                for (int k = 0; k < n; k++) {
+                    double d = Math.max(0, expectedDemand + demandError * demandDeviation[k]);
+                    double g = generation(inputs, daylight[i],
+                        Math.max(0, windSpeed + WIND_SPEED_ERROR * windDeviation[k]),
+                        Math.min(100, Math.max(0, cloudCover + CLOUD_COVER_ERROR * cloudDeviation[k])));
+                    double p = hourPrice;
+                    if (expectedDemand > 0) {
+                        p *= Math.pow(d / expectedDemand, PRICE_DEMAND_ELASTICITY) * Math.max(MIN_PRICE_FACTOR,
+                            1 - PRICE_RENEWABLE_EFFECT * (g - expectedGeneration[i]) / expectedDemand);
+                    }
+                    demand[offset + k] = (float) d;
+                    generation[offset + k] = (float) g;
+                    price[offset + k] = (float) p;
+                    priceSum[k] += p;
+
+                    demandDeviation[k] = DEMAND_PERSISTENCE * demandDeviation[k] + demandShock * random.nextGaussian();
+                    windDeviation[k] = WEATHER_PERSISTENCE * windDeviation[k] + weatherShock * random.nextGaussian();
+                    cloudDeviation[k] = WEATHER_PERSISTENCE * cloudDeviation[k] + weatherShock * random.nextGaussian();
+                }
+            }
+            closeDay(day, dayHours, priceSum, from);
+        }
+
+        private void closeDay(int day, int hours, double[] priceSum, int from) {
+            int offset = day * scenarios + from;
+            for (int k = 0; k < priceSum.length; k++) {
+                dailyPrice[offset + k] = (float) (priceSum[k] / hours);
+                priceSum[k] = 0;
+            }
+        }
+    }
+
+    // Halves the scenario range until it is small; the right half draws from a generator split off the left's
+    private static final class Simulation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Paths paths;
+        private final SplittableRandom random;
+        private final int from;
+        private final int to;
+
+        Simulation(Paths paths, SplittableRandom random, int from, int to) {
+            this.paths = paths;
+            this.random = random;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SCENARIOS) {
+                paths.simulate(random, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Simulation(paths, random, from, mid), new Simulation(paths, random.split(), mid, to));
+        }
+    }
+
+    // Reads the quantiles of each row of scenario values, reordering the row in place; rows are independent
+    private static final class RowQuantiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] values;
+        private final int scenarios;
+        private final double[][] out;
+        private final int from;
+        private final int to;
+
+        RowQuantiles(float[] values, int scenarios, double[][] out, int from, int to) {
+            this.values = values;
+            this.scenarios = scenarios;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_ROWS) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowQuantiles(values, scenarios, out, from, mid),
+                    new RowQuantiles(values, scenarios, out, mid, to));
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                int start = row * scenarios;
+                int end = start + scenarios;
+                // Quantiles ascend, so each selection only searches above the previous one
+                int searchFrom = start;
+                for (int q = 0; q < QUANTILES.length; q++) {
+                    double position = QUANTILES[q] * (scenarios - 1);
+                    int lower = start + (int) position;
+                    select(values, searchFrom, end, lower);
+                    double value = values[lower];
+                    double fraction = position - (int) position;
+                    if (fraction > 0) {
+                        value += fraction * (min(values, lower + 1, end) - value);
+                    }
+                    out[q][row] = value;
+                    searchFrom = lower;
+                }
+            }
+        }
+    }
+
+    private static double[][] quantiles(float[] values, int scenarios, ForkJoinPool pool) {
+        int rows = values.length / scenarios;
+        double[][] out = new double[QUANTILES.length][rows];
+        pool.invoke(new RowQuantiles(values, scenarios, out, 0, rows));
+        return out;
+    }
+
+    // Quickselect: moves the element that sorts at index k of [from, to) there, with nothing larger before it
+    // and nothing smaller after it. Expected linear time, where sorting the row would cost n log n.
+    private static void select(float[] a, int from, int to, int k) {
+        int lo = from;
+        int hi = to - 1;
+        while (hi > lo) {
+            int mid = (lo + hi) >>> 1;
+            // Median of three as the pivot keeps already ordered runs from going quadratic
+            if (a[mid] < a[lo]) swap(a, mid, lo);
+            if (a[hi] < a[lo]) swap(a, hi, lo);
+            if (a[hi] < a[mid]) swap(a, hi, mid);
+            float pivot = a[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    swap(a, i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static float min(float[] a, int from, int to) {
+        float min = a[from];
+        for (int i = from + 1; i < to; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    private static void swap(float[] a, int i, int j) {
+        float t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
@@ -0,0 +1,142 @@
+package com.weather.service.timeseries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Reads archives produced by SeriesArchiveWriter. The block index is loaded up front so a
+// time range decodes only the blocks that overlap it.
+public class SeriesArchiveReader {
+
+    public record Block(long start, long end, int count, long offset, int length) {
+    }
+
+    @FunctionalInterface
+    public interface SampleVisitor {
+        // values is reused between calls
+        void visit(long timestamp, double[] values);
+    }
+
+    private final ByteBuffer buffer;
+    private final String region;
+    private final String[] metricKeys;
+    private final List<Block> blocks;
+
+    public SeriesArchiveReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        int position = 0;
+        if (buffer.getInt(position) != SeriesArchiveWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a series archive");
+        }
+        position += 4;
+
+        int regionLength = buffer.getShort(position) & 0xFFFF;
+        this.region = readUtf(position + 2, regionLength);
+        position += 2 + regionLength;
+
+        int metricCount = buffer.get(position++) & 0xFF;
+        this.metricKeys = new String[metricCount];
+        for (int m = 0; m < metricCount; m++) {
+            int keyLength = buffer.getShort(position) & 0xFFFF;
+            metricKeys[m] = readUtf(position + 2, keyLength);
+            position += 2 + keyLength;
+        }
+
+        int footer = buffer.limit() - 12;
+        if (buffer.getInt(footer + 8) != SeriesArchiveWriter.MAGIC) {
+            throw new IllegalArgumentException("Series archive is truncated");
+        }
+        int indexOffset = (int) buffer.getLong(footer);
+        int blockCount = buffer.getInt(indexOffset);
+        List<Block> index = new ArrayList<>(blockCount);
+        position = indexOffset + 4;
+        for (int b = 0; b < blockCount; b++) {
+            index.add(new Block(buffer.getLong(position), buffer.getLong(position + 8), buffer.getInt(position + 16),
+                buffer.getLong(position + 20), buffer.getInt(position + 28)));
+            position += 32;
+        }
+        this.blocks = Collections.unmodifiableList(index);
+    }
+
+    public static SeriesArchiveReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SeriesArchiveReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String[] getMetricKeys() {
+        return metricKeys.clone();
+    }
+
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    // Visits samples with from <= timestamp < to
+    public long read(long from, long to, SampleVisitor visitor) {
+        int first = firstBlockEndingAtOrAfter(from);
+        long[] timestamps = new long[0];
+        double[][] columns = new double[metricKeys.length][0];
+        double[] values = new double[metricKeys.length];
+        long visited = 0;
+
+        for (int b = first; b < blocks.size(); b++) {
+            Block block = blocks.get(b);
+            if (block.start() >= to) {
+                break;
+            }
+            if (timestamps.length < block.count()) {
+                timestamps = new long[block.count()];
+                for (int m = 0; m < columns.length; m++) {
+                    columns[m] = new double[block.count()];
+                }
+            }
+
+            GorillaBlockCodec.decode(new BitReader(buffer, (int) block.offset()), block.count(), timestamps, columns);
+            for (int i = 0; i < block.count(); i++) {
+                long timestamp = timestamps[i];
+                if (timestamp < from || timestamp >= to) {
+                    continue;
+                }
+                for (int m = 0; m < columns.length; m++) {
+                    values[m] = columns[m][i];
+                }
+                visitor.visit(timestamp, values);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private int firstBlockEndingAtOrAfter(long from) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).end() < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private String readUtf(int position, int length) {
+        // Keys and region names are ASCII, for which modified UTF-8 and UTF-8 agree
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.weather.service.timeseries;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams a multi-metric series as Gorilla-compressed blocks followed by a block index and footer:
+//   header: magic, region, metric keys
+//   blocks: GorillaBlockCodec payloads of up to blockSize samples
+//   index:  block count, then (start, end, count, offset, length) per block
+//   footer: index offset, magic
+// Only one block is held in memory, so exports of any length stream in constant space.
+public class SeriesArchiveWriter {
+
+    public static final int MAGIC = 0x45415331; // "EAS1"
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+    private final long[] timestamps;
+    private final double[][] columns;
+    private final BitWriter bits;
+    private final List<SeriesArchiveReader.Block> index = new ArrayList<>();
+    private int pending;
+    private long samples;
+
+    public SeriesArchiveWriter(OutputStream out, String region, String[] metricKeys, int blockSize) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.blockSize = blockSize;
+        this.timestamps = new long[blockSize];
+        this.columns = new double[metricKeys.length][blockSize];
+        this.bits = new BitWriter(blockSize * (metricKeys.length + 1) * 2);
+
+        this.out.writeInt(MAGIC);
+        this.out.writeUTF(region);
+        this.out.writeByte(metricKeys.length);
+        for (String key : metricKeys) {
+            this.out.writeUTF(key);
+        }
+    }
+
+    // Samples must arrive in timestamp order
+    public void append(long timestamp, double[] values) throws IOException {
+        timestamps[pending] = timestamp;
+        for (int m = 0; m < columns.length; m++) {
+            columns[m][pending] = values[m];
+        }
+        pending++;
+        samples++;
+        if (pending == blockSize) {
+            flushBlock();
+        }
+    }
+
+    public long getSampleCount() {
+        return samples;
+    }
+
+    // Writes the trailing block, index and footer; the underlying stream is flushed but left open
+    public void finish() throws IOException {
+        flushBlock();
+
+        long indexOffset = out.size();
+        out.writeInt(index.size());
+        for (SeriesArchiveReader.Block block : index) {
+            out.writeLong(block.start());
+            out.writeLong(block.end());
+            out.writeInt(block.count());
+            out.writeLong(block.offset());
+            out.writeInt(block.length());
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+    }
+
+    private void flushBlock() throws IOException {
+        if (pending == 0) {
+            return;
+        }
+
+        bits.reset();
+        GorillaBlockCodec.encode(timestamps, columns, pending, bits);
+        int length = bits.byteLength();
+        index.add(new SeriesArchiveReader.Block(timestamps[0], timestamps[pending - 1], pending, out.size(), length));
+        out.write(bits.buffer(), 0, length);
+        pending = 0;
+    }
+}
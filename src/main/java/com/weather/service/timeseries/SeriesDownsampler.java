@@ -0,0 +1,19 @@
+package com.weather.service.timeseries;
+
+// Reduces a time-ordered multi-metric series to a bounded number of points per metric in one pass
+public interface SeriesDownsampler {
+
+    void add(long timestamp, double[] values);
+
+    DownsampledSeries finish();
+
+    static SeriesDownsampler create(String mode, long from, long to, int maxPoints, int metrics) {
+        if ("minmax".equalsIgnoreCase(mode)) {
+            return new MinMaxDownsampler(from, to, maxPoints, metrics);
+        }
+        if ("lttb".equalsIgnoreCase(mode)) {
+            return new LttbDownsampler(from, to, maxPoints, metrics);
+        }
+        throw new IllegalArgumentException("Unknown downsampling mode: " + mode);
+    }
+}
@@ -0,0 +1,156 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Pearson correlation matrix over a sliding window, kept as a ring of buckets holding per-metric
+// sums and pairwise co-moment sums. Samples only add to their bucket and the running totals; when
+// the window advances, expired buckets are dropped and the totals are re-summed from the live
+// buckets, so eviction never accumulates cancellation error. Reads cost O(k^2) for k metrics.
+// Rows with any NaN are skipped so every pair shares one sample count. Not thread-safe.
+public final class SlidingCorrelationMatrix {
+
+    private final int metrics;
+    private final int pairs;
+    private final long bucketMillis;
+    private final long[] bucketIds;
+    private final long[] bucketCounts;
+    private final double[][] bucketSums;
+    private final double[][] bucketProducts;
+
+    private long count;
+    private final double[] sums;
+    private final double[] products;
+    private final double[] centered;
+
+    // Values are centred on the first sample seen, which keeps the sums small relative to the spread
+    private double[] reference;
+    private long headId = Long.MIN_VALUE;
+
+    public SlidingCorrelationMatrix(StatsWindow window, int metrics) {
+        this.metrics = metrics;
+        this.pairs = metrics * (metrics + 1) / 2;
+        this.bucketMillis = window.getBucket().toMillis();
+        int buckets = window.bucketCount();
+        this.bucketIds = new long[buckets];
+        this.bucketCounts = new long[buckets];
+        this.bucketSums = new double[buckets][metrics];
+        this.bucketProducts = new double[buckets][pairs];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+        this.sums = new double[metrics];
+        this.products = new double[pairs];
+        this.centered = new double[metrics];
+    }
+
+    public void add(long timestamp, double[] values) {
+        for (int m = 0; m < metrics; m++) {
+            if (Double.isNaN(values[m])) {
+                return;
+            }
+        }
+
+        long id = Math.floorDiv(timestamp, bucketMillis);
+        advance(id);
+        if (id <= headId - bucketIds.length) {
+            return; // older than the window
+        }
+        int slot = (int) Math.floorMod(id, (long) bucketIds.length);
+        if (bucketIds[slot] != id) {
+            clear(slot);
+            bucketIds[slot] = id;
+        }
+
+        if (reference == null) {
+            reference = values.clone();
+        }
+        for (int m = 0; m < metrics; m++) {
+            centered[m] = values[m] - reference[m];
+        }
+
+        double[] slotSums = bucketSums[slot];
+        double[] slotProducts = bucketProducts[slot];
+        bucketCounts[slot]++;
+        count++;
+        int p = 0;
+        for (int i = 0; i < metrics; i++) {
+            slotSums[i] += centered[i];
+            sums[i] += centered[i];
+            for (int j = i; j < metrics; j++, p++) {
+                double product = centered[i] * centered[j];
+                slotProducts[p] += product;
+                products[p] += product;
+            }
+        }
+    }
+
+    public long count(long now) {
+        advance(Math.floorDiv(now, bucketMillis));
+        return count;
+    }
+
+    // Symmetric k x k matrix with 1 on the diagonal; 0 where a metric has no variance
+    public double[][] matrix(long now) {
+        advance(Math.floorDiv(now, bucketMillis));
+        double[][] matrix = new double[metrics][metrics];
+        for (int i = 0; i < metrics; i++) {
+            for (int j = i; j < metrics; j++) {
+                double r = i == j ? 1.0 : correlation(i, j);
+                matrix[i][j] = r;
+                matrix[j][i] = r;
+            }
+        }
+        return matrix;
+    }
+
+    private double correlation(int i, int j) {
+        if (count < 2) {
+            return 0.0;
+        }
+        double covariance = count * products[pairIndex(i, j)] - sums[i] * sums[j];
+        double varianceI = count * products[pairIndex(i, i)] - sums[i] * sums[i];
+        double varianceJ = count * products[pairIndex(j, j)] - sums[j] * sums[j];
+        if (varianceI <= 0 || varianceJ <= 0) {
+            return 0.0;
+        }
+        return Math.max(-1.0, Math.min(1.0, covariance / Math.sqrt(varianceI * varianceJ)));
+    }
+
+    // Index of (i, j), i <= j, in the packed upper triangle
+    private int pairIndex(int i, int j) {
+        return i * metrics - i * (i - 1) / 2 + (j - i);
+    }
+
+    private void advance(long id) {
+        if (id <= headId) {
+            return;
+        }
+        headId = id;
+
+        long oldestLive = id - bucketIds.length + 1;
+        count = 0;
+        Arrays.fill(sums, 0.0);
+        Arrays.fill(products, 0.0);
+        for (int slot = 0; slot < bucketIds.length; slot++) {
+            if (bucketIds[slot] == Long.MIN_VALUE) {
+                continue;
+            }
+            if (bucketIds[slot] < oldestLive) {
+                clear(slot);
+                continue;
+            }
+            count += bucketCounts[slot];
+            for (int m = 0; m < metrics; m++) {
+                sums[m] += bucketSums[slot][m];
+            }
+            for (int p = 0; p < pairs; p++) {
+                products[p] += bucketProducts[slot][p];
+            }
+        }
+    }
+
+    private void clear(int slot) {
+        bucketIds[slot] = Long.MIN_VALUE;
+        bucketCounts[slot] = 0;
+        Arrays.fill(bucketSums[slot], 0.0);
+        Arrays.fill(bucketProducts[slot], 0.0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.weather.service.timeseries;
+
+import java.time.Duration;
+
+// Sliding windows kept by the running statistics. Buckets expire whole, so a window
+// spans between (buckets - 1) and buckets bucket widths.
+public enum StatsWindow {
+    HOUR("1h", Duration.ofHours(1), Duration.ofMinutes(1)),
+    DAY("24h", Duration.ofHours(24), Duration.ofHours(1)),
+    WEEK("7d", Duration.ofDays(7), Duration.ofHours(2)),
+    MONTH("30d", Duration.ofDays(30), Duration.ofHours(12));
+
+    private final String key;
+    private final Duration window;
+    private final Duration bucket;
+
+    StatsWindow(String key, Duration window, Duration bucket) {
+        this.key = key;
+        this.window = window;
+        this.bucket = bucket;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public Duration getBucket() {
+        return bucket;
+    }
+
+    public int bucketCount() {
+        return (int) (window.toMillis() / bucket.toMillis());
+    }
+
+    public static StatsWindow fromKey(String key) {
+        for (StatsWindow window : values()) {
+            if (window.key.equalsIgnoreCase(key) || window.name().equalsIgnoreCase(key)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown statistics window: " + key);
+    }
+
+    // Window matching a whole-day analytics request, or null when there is none
+    public static StatsWindow forDays(int days) {
+        return forDuration(Duration.ofDays(days));
+    }
+
+    public static StatsWindow forDuration(Duration duration) {
+        for (StatsWindow window : values()) {
+            if (window.window.equals(duration)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
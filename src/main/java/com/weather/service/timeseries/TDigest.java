@@ -0,0 +1,264 @@
+package com.weather.service.timeseries;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Merging t-digest (Dunning) with the arcsine scale function: a few hundred centroids answer any quantile
+// with error concentrated away from the tails, and digests of separate buckets or regions merge exactly
+// as if their samples had been added to one. Not thread-safe.
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 200;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double compression;
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroids;
+    private double mergedWeight;
+
+    // Grows on demand up to bufferLimit so digests of small buckets stay small
+    private final int bufferLimit;
+    private double[] bufferMeans;
+    private double[] bufferWeights;
+    private int buffered;
+    private double bufferedWeight;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        this.bufferLimit = (int) Math.ceil(compression * 5);
+        this.bufferMeans = new double[Math.min(32, bufferLimit)];
+        this.bufferWeights = new double[bufferMeans.length];
+    }
+
+    public void add(double value) {
+        add(value, 1.0);
+    }
+
+    public void add(double value, double weight) {
+        if (Double.isNaN(value) || weight <= 0) {
+            return;
+        }
+        if (buffered == bufferMeans.length) {
+            if (bufferMeans.length < bufferLimit) {
+                int size = Math.min(bufferLimit, bufferMeans.length * 2);
+                bufferMeans = Arrays.copyOf(bufferMeans, size);
+                bufferWeights = Arrays.copyOf(bufferWeights, size);
+            } else {
+                compress();
+            }
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        bufferedWeight += weight;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+
+    public long count() {
+        return Math.round(mergedWeight + bufferedWeight);
+    }
+
+    public double min() {
+        return count() == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return count() == 0 ? Double.NaN : max;
+    }
+
+    public int centroidCount() {
+        compress();
+        return centroids;
+    }
+
+    // q in [0, 1]; NaN when empty. Interpolates between centroid centres and pins the ends to min and max.
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+
+        double index = q * mergedWeight;
+        if (index <= weights[0] / 2) {
+            return min + (index / (weights[0] / 2)) * (means[0] - min);
+        }
+
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step >= index) {
+                double fraction = (index - cumulative) / step;
+                return means[i] + fraction * (means[i + 1] - means[i]);
+            }
+            cumulative += step;
+        }
+
+        double lastHalf = weights[centroids - 1] / 2;
+        double fraction = Math.min(1.0, (index - cumulative) / lastHalf);
+        return means[centroids - 1] + fraction * (max - means[centroids - 1]);
+    }
+
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 * 3 + 4 + centroids * 16);
+        buffer.put(FORMAT_VERSION);
+        buffer.putDouble(compression);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        buffer.putInt(centroids);
+        for (int i = 0; i < centroids; i++) {
+            buffer.putDouble(means[i]);
+            buffer.putDouble(weights[i]);
+        }
+        return buffer.array();
+    }
+
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported t-digest format version " + version);
+        }
+        TDigest digest = new TDigest(buffer.getDouble());
+        double min = buffer.getDouble();
+        double max = buffer.getDouble();
+        int centroids = buffer.getInt();
+        digest.means = new double[centroids];
+        digest.weights = new double[centroids];
+        for (int i = 0; i < centroids; i++) {
+            digest.means[i] = buffer.getDouble();
+            digest.weights[i] = buffer.getDouble();
+            digest.mergedWeight += digest.weights[i];
+        }
+        digest.centroids = centroids;
+        digest.min = min;
+        digest.max = max;
+        return digest;
+    }
+
+    // Folds the buffer into the centroid list: everything is sorted by mean and adjacent centroids are
+    // merged while the combined weight stays within one unit of the scale function
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+
+        int n = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        sort(allMeans, allWeights, 0, n - 1);
+
+        double total = mergedWeight + bufferedWeight;
+        double[] outMeans = new double[n];
+        double[] outWeights = new double[n];
+        int out = 0;
+
+        double currentMean = allMeans[0];
+        double currentWeight = allWeights[0];
+        double weightSoFar = 0;
+        double weightLimit = total * inverseScale(scale(0) + 1);
+        for (int i = 1; i < n; i++) {
+            double proposed = currentWeight + allWeights[i];
+            if (weightSoFar + proposed <= weightLimit) {
+                currentMean += (allMeans[i] - currentMean) * allWeights[i] / proposed;
+                currentWeight = proposed;
+            } else {
+                outMeans[out] = currentMean;
+                outWeights[out] = currentWeight;
+                out++;
+                weightSoFar += currentWeight;
+                weightLimit = total * inverseScale(scale(weightSoFar / total) + 1);
+                currentMean = allMeans[i];
+                currentWeight = allWeights[i];
+            }
+        }
+        outMeans[out] = currentMean;
+        outWeights[out] = currentWeight;
+        out++;
+
+        means = Arrays.copyOf(outMeans, out);
+        weights = Arrays.copyOf(outWeights, out);
+        centroids = out;
+        mergedWeight = total;
+        buffered = 0;
+        bufferedWeight = 0;
+    }
+
+    // k1(q) = compression / (2 pi) * asin(2q - 1)
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(Math.max(-1, Math.min(1, 2 * q - 1)));
+    }
+
+    private double inverseScale(double k) {
+        double angle = k * 2 * Math.PI / compression;
+        if (angle >= Math.PI / 2) {
+            return 1.0;
+        }
+        return (Math.sin(angle) + 1) / 2;
+    }
+
+    // Sorts both arrays by mean
+    private static void sort(double[] keys, double[] values, int low, int high) {
+        while (high - low > 16) {
+            double pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    swap(keys, values, i++, j--);
+                }
+            }
+            // Recurse into the smaller side to bound stack depth
+            if (j - low < high - i) {
+                sort(keys, values, low, j);
+                low = i;
+            } else {
+                sort(keys, values, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && keys[j - 1] > keys[j]; j--) {
+                swap(keys, values, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(double[] keys, double[] values, int a, int b) {
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        double value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+}
@@ -0,0 +1,115 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Trend tests over an evenly or unevenly spaced series held in primitive arrays
+public final class TrendStatistics {
+
+    public record LinearFit(double slope, double intercept, double rSquared) {
+    }
+
+    // z is the continuity-corrected normal score of S; pValue is two-sided
+    public record MannKendall(long s, double variance, double z, double pValue) {
+        public boolean significant(double alpha) {
+            return pValue < alpha;
+        }
+    }
+
+    private TrendStatistics() {
+    }
+
+    public static LinearFit leastSquares(double[] x, double[] y, int n) {
+        if (n < 2) {
+            return new LinearFit(0.0, n == 1 ? y[0] : 0.0, 0.0);
+        }
+        // Centred on the first point so large epoch-based x values do not lose precision
+        double x0 = x[0];
+        double y0 = y[0];
+        double sumX = 0, sumY = 0;
+        for (int i = 0; i < n; i++) {
+            sumX += x[i] - x0;
+            sumY += y[i] - y0;
+        }
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+
+        double sxx = 0, sxy = 0, syy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = x[i] - x0 - meanX;
+            double dy = y[i] - y0 - meanY;
+            sxx += dx * dx;
+            sxy += dx * dy;
+            syy += dy * dy;
+        }
+        if (sxx <= 0) {
+            return new LinearFit(0.0, meanY + y0, 0.0);
+        }
+        double slope = sxy / sxx;
+        double intercept = meanY + y0 - slope * (meanX + x0);
+        double rSquared = syy <= 0 ? 0.0 : Math.min(1.0, sxy * sxy / (sxx * syy));
+        return new LinearFit(slope, intercept, rSquared);
+    }
+
+    public static MannKendall mannKendall(double[] y, int n) {
+        long s = 0;
+        for (int i = 0; i < n - 1; i++) {
+            double yi = y[i];
+            for (int j = i + 1; j < n; j++) {
+                s += Double.compare(y[j], yi);
+            }
+        }
+
+        double variance = (double) n * (n - 1) * (2 * n + 5);
+        double[] sorted = Arrays.copyOf(y, n);
+        Arrays.sort(sorted);
+        for (int i = 0; i < n; ) {
+            int j = i + 1;
+            while (j < n && sorted[j] == sorted[i]) {
+                j++;
+            }
+            long t = j - i;
+            variance -= (double) t * (t - 1) * (2 * t + 5);
+            i = j;
+        }
+        variance /= 18.0;
+
+        double z = 0.0;
+        if (variance > 0 && s != 0) {
+            z = (s > 0 ? s - 1 : s + 1) / Math.sqrt(variance);
+        }
+        double pValue = 2.0 * (1.0 - normalCdf(Math.abs(z)));
+        return new MannKendall(s, variance, z, Math.max(0.0, Math.min(1.0, pValue)));
+    }
+
+    // Removes the average seasonal offset of each phase (e.g. hour of day) so the remaining series
+    // carries only trend and noise. Returns a copy of y when there are fewer than two full periods.
+    public static double[] deseasonalize(double[] y, int[] phase, int n, int period) {
+        double[] adjusted = Arrays.copyOf(y, n);
+        if (n < 2 * period) {
+            return adjusted;
+        }
+
+        double[] phaseSums = new double[period];
+        int[] phaseCounts = new int[period];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            phaseSums[phase[i]] += y[i];
+            phaseCounts[phase[i]]++;
+            total += y[i];
+        }
+        double mean = total / n;
+        for (int i = 0; i < n; i++) {
+            adjusted[i] -= phaseSums[phase[i]] / phaseCounts[phase[i]] - mean;
+        }
+        return adjusted;
+    }
+
+    // Abramowitz and Stegun 7.1.26, absolute error below 1.5e-7
+    public static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2.0);
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        double poly = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))));
+        double erf = 1.0 - poly * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+    }
+}
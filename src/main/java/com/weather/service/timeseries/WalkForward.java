@@ -0,0 +1,132 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Rolling-origin evaluation of HoltWinters on an hourly series. Each fold fits on the hours before its origin,
+// forecasts the horizon after it and scores the forecast per forecast day. Folds share nothing, so they can be
+// evaluated concurrently and their errors merged.
+public final class WalkForward {
+
+    // Standard normal quantile of 0.9; the P10 and P90 forecasts are this many standard errors off the mean
+    private static final double Z_90 = 1.2815515655446004;
+    private static final double[] QUANTILES = {0.1, 0.5, 0.9};
+
+    private WalkForward() {
+    }
+
+    // Error sums per forecast day (0 is the first 24 hours after the origin). Not thread-safe.
+    public static final class HorizonErrors {
+        private final int[] folds;
+        private final long[] samples;
+        private final long[] percentSamples;
+        private final double[] absolutePercent;
+        private final double[] squared;
+        private final double[] pinball;
+        private final long[] covered;
+
+        public HorizonErrors(int days) {
+            folds = new int[days];
+            samples = new long[days];
+            percentSamples = new long[days];
+            absolutePercent = new double[days];
+            squared = new double[days];
+            pinball = new double[days];
+            covered = new long[days];
+        }
+
+        public int days() {
+            return folds.length;
+        }
+
+        public void merge(HorizonErrors other) {
+            for (int d = 0; d < folds.length; d++) {
+                folds[d] += other.folds[d];
+                samples[d] += other.samples[d];
+                percentSamples[d] += other.percentSamples[d];
+                absolutePercent[d] += other.absolutePercent[d];
+                squared[d] += other.squared[d];
+                pinball[d] += other.pinball[d];
+                covered[d] += other.covered[d];
+            }
+        }
+
+        public int folds(int day) {
+            return folds[day];
+        }
+
+        public long samples(int day) {
+            return samples[day];
+        }
+
+        // Mean absolute percentage error as a fraction; hours with an actual of 0 are left out
+        public double mape(int day) {
+            return percentSamples[day] == 0 ? Double.NaN : absolutePercent[day] / percentSamples[day];
+        }
+
+        public double rmse(int day) {
+            return samples[day] == 0 ? Double.NaN : Math.sqrt(squared[day] / samples[day]);
+        }
+
+        // Pinball loss averaged over the P10, P50 and P90 forecasts
+        public double pinballLoss(int day) {
+            return samples[day] == 0 ? Double.NaN : pinball[day] / (samples[day] * QUANTILES.length);
+        }
+
+        // Share of actuals inside the P10-P90 band; 0.8 when the forecast errors are calibrated
+        public double intervalCoverage(int day) {
+            return samples[day] == 0 ? Double.NaN : (double) covered[day] / samples[day];
+        }
+    }
+
+    // y[i] is epoch hour firstHour + i, NaN where missing. The fold trains on at most trainingHours before
+    // origin and is scored on the observed hours of the horizonDays after it.
+    public static HorizonErrors evaluateFold(long firstHour, double[] y, int origin, int trainingHours, int horizonDays) {
+        HorizonErrors errors = new HorizonErrors(horizonDays);
+        int from = Math.max(0, origin - trainingHours);
+        HoltWinters model = HoltWinters.fit(firstHour + from, Arrays.copyOfRange(y, from, origin));
+        if (model == null) {
+            return errors;
+        }
+
+        int hours = Math.min(horizonDays * 24, y.length - origin);
+        double[] forecast = new double[hours];
+        model.forecast(firstHour + origin, forecast);
+
+        boolean[] scored = new boolean[horizonDays];
+        for (int i = 0; i < hours; i++) {
+            double actual = y[origin + i];
+            if (Double.isNaN(actual)) {
+                continue;
+            }
+            int day = i / 24;
+            double error = actual - forecast[i];
+            double spread = Z_90 * model.forecastError(firstHour + origin + i - model.lastHour());
+            double low = forecast[i] - spread;
+            double high = forecast[i] + spread;
+
+            scored[day] = true;
+            errors.samples[day]++;
+            errors.squared[day] += error * error;
+            if (actual != 0) {
+                errors.absolutePercent[day] += Math.abs(error / actual);
+                errors.percentSamples[day]++;
+            }
+            errors.pinball[day] += pinball(actual, low, QUANTILES[0]) + pinball(actual, forecast[i], QUANTILES[1])
+                + pinball(actual, high, QUANTILES[2]);
+            if (actual >= low && actual <= high) {
+                errors.covered[day]++;
+            }
+        }
+        for (int d = 0; d < horizonDays; d++) {
+            if (scored[d]) {
+                errors.folds[d]++;
+            }
+        }
+        return errors;
+    }
+
+    private static double pinball(double actual, double predicted, double quantile) {
+        double diff = actual - predicted;
+        return diff >= 0 ? quantile * diff : (quantile - 1) * diff;
+    }
+}
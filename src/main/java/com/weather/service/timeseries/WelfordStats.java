@@ -0,0 +1,119 @@
+package com.weather.service.timeseries;
+
+import java.util.Arrays;
+
+// Per-metric count, mean, M2 (sum of squared deviations from the mean), min and max.
+// Instances merge with Chan et al.'s pairwise update, so a window can be assembled from buckets
+// without losing precision the way running sums of squares do. NaN values are skipped.
+public final class WelfordStats {
+
+    private final long[] count;
+    private final double[] mean;
+    private final double[] m2;
+    private final double[] min;
+    private final double[] max;
+
+    public WelfordStats(int metrics) {
+        count = new long[metrics];
+        mean = new double[metrics];
+        m2 = new double[metrics];
+        min = new double[metrics];
+        max = new double[metrics];
+        reset();
+    }
+
+    public void add(double[] values) {
+        for (int m = 0; m < values.length; m++) {
+            double value = values[m];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            long n = ++count[m];
+            double delta = value - mean[m];
+            mean[m] += delta / n;
+            m2[m] += delta * (value - mean[m]);
+            if (value < min[m]) min[m] = value;
+            if (value > max[m]) max[m] = value;
+        }
+    }
+
+    // Folds in a pre-aggregated bucket (e.g. a rollup row). Without its M2 (NaN) the spread is unknown
+    // and the bucket contributes no variance of its own.
+    public void addAggregate(int metric, long n, double sum, double bucketM2, double bucketMin, double bucketMax) {
+        if (n == 0) {
+            return;
+        }
+        merge(metric, n, sum / n, Double.isNaN(bucketM2) ? 0.0 : bucketM2, bucketMin, bucketMax);
+    }
+
+    public void merge(WelfordStats other) {
+        for (int m = 0; m < count.length; m++) {
+            merge(m, other.count[m], other.mean[m], other.m2[m], other.min[m], other.max[m]);
+        }
+    }
+
+    public WelfordStats copy() {
+        WelfordStats copy = new WelfordStats(count.length);
+        copy.merge(this);
+        return copy;
+    }
+
+    public void reset() {
+        Arrays.fill(count, 0);
+        Arrays.fill(mean, 0.0);
+        Arrays.fill(m2, 0.0);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    public int metrics() {
+        return count.length;
+    }
+
+    public long count(int metric) {
+        return count[metric];
+    }
+
+    public double mean(int metric) {
+        return mean[metric];
+    }
+
+    public double sum(int metric) {
+        return mean[metric] * count[metric];
+    }
+
+    // Sum of squared deviations from the mean
+    public double m2(int metric) {
+        return m2[metric];
+    }
+
+    // Sample variance
+    public double variance(int metric) {
+        return count[metric] < 2 ? 0.0 : m2[metric] / (count[metric] - 1);
+    }
+
+    public double stdDev(int metric) {
+        return Math.sqrt(variance(metric));
+    }
+
+    public double min(int metric) {
+        return min[metric];
+    }
+
+    public double max(int metric) {
+        return max[metric];
+    }
+
+    private void merge(int m, long otherCount, double otherMean, double otherM2, double otherMin, double otherMax) {
+        if (otherCount == 0) {
+            return;
+        }
+        long n = count[m] + otherCount;
+        double delta = otherMean - mean[m];
+        mean[m] += delta * otherCount / n;
+        m2[m] += otherM2 + delta * delta * ((double) count[m] * otherCount / n);
+        count[m] = n;
+        if (otherMin < min[m]) min[m] = otherMin;
+        if (otherMax > max[m]) max[m] = otherMax;
+    }
+}
@@ -1,32 +1,73 @@
 package com.weather.service.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.weather.service.config.AppConfig;
+import com.weather.service.service.RegionStateStore;
+import com.weather.service.service.RegionStateStore.RegionState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Map;
 
+// Sessions are wrapped in ConcurrentWebSocketSessionDecorator, so a send queues behind one already in progress
+// instead of blocking, and a client that stops reading is closed once its buffer or send time limit is exceeded.
+// Sends run on their own pool, never on the region state tick.
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class EnergyDataWebSocketHandler implements WebSocketHandler {
     
+    // Sessions pick a region with ?region=...; the dashboard's first region otherwise
+    private static final String DEFAULT_REGION = "north";
+    
     private final ObjectMapper objectMapper;
+    private final RegionStateStore regionStateStore;
+    private final AppConfig.Dashboard config;
     private final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final ExecutorService sender;
+    
+    public EnergyDataWebSocketHandler(ObjectMapper objectMapper, RegionStateStore regionStateStore,
+                                      AppConfig appConfig) {
+        this.objectMapper = objectMapper;
+        this.regionStateStore = regionStateStore;
+        this.config = appConfig.getDashboard();
+        
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, config.getWebsocketSendThreads()), r -> {
+            Thread thread = new Thread(r, "websocket-send-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PostConstruct
+    public void subscribe() {
+        regionStateStore.subscribe(this::broadcast);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
     
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.put(session.getId(), session);
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session,
+            config.getWebsocketSendTimeLimitMs(), config.getWebsocketBufferBytes());
+        sessions.put(session.getId(), decorated);
         log.info("WebSocket connection established: {}", session.getId());
-        startRealTimeUpdates(session);
+        String[] payloads = serialize(regionStateStore.current(regionOf(session)));
+        sender.execute(() -> send(decorated, payloads));
     }
     
     @Override
@@ -51,83 +92,90 @@ public class EnergyDataWebSocketHandler implements WebSocketHandler {
         return false;
     }
     
-    private void startRealTimeUpdates(WebSocketSession session) {
-        scheduler.scheduleAtFixedRate(() -> {
-            if (session.isOpen()) {
-                try {
-                    Map<String, Object> energyUpdate = generateEnergyUpdate();
-                    sendMessage(session, "ENERGY_UPDATE", energyUpdate);
-                    
-                    Map<String, Object> weatherUpdate = generateWeatherUpdate();
-                    sendMessage(session, "WEATHER_UPDATE", weatherUpdate);
-                } catch (Exception e) {
-                    log.error("Error sending update to session {}: {}", session.getId(), e.getMessage());
+    // Pushes each published snapshot to every open session; payloads are serialized once per region on the
+    // tick thread and handed to the send pool
+    private void broadcast(Map<String, RegionState> states) {
+        Map<String, String[]> messages = new HashMap<>();
+        for (WebSocketSession session : sessions.values()) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            String region = regionOf(session);
+            try {
+                String[] payloads = messages.get(region);
+                if (payloads == null) {
+                    RegionState state = states.containsKey(region) ? states.get(region) : regionStateStore.current(region);
+                    payloads = serialize(state);
+                    messages.put(region, payloads);
                 }
+                String[] message = payloads;
+                sender.execute(() -> send(session, message));
+            } catch (Exception e) {
+                log.error("Error queueing update for session {}: {}", session.getId(), e.getMessage());
             }
-        }, 0, 5, TimeUnit.SECONDS);
+        }
     }
     
-    private Map<String, Object> generateEnergyUpdate() {
-        Map<String, Object> weatherData = generateWeatherData();
-        Map<String, Object> data = new ConcurrentHashMap<>();
-        
-        // Correlated solar generation based on irradiance and cloud cover
-        double solarIrradiance = (Double) weatherData.get("solarIrradiance");
-        double cloudCover = (Double) weatherData.get("cloudCover");
-        double solarGeneration = Math.max(0, (solarIrradiance / 10) * (1 - cloudCover / 150));
-        
-        // Correlated wind generation based on wind speed
-        double windSpeed = (Double) weatherData.get("windSpeed");
-        double windGeneration = Math.pow(windSpeed, 2) * 2.5;
-        
-        double totalGeneration = solarGeneration + windGeneration;
-        
-        // Temperature-correlated consumption (AC usage)
-        double temperature = (Double) weatherData.get("temperature");
-        double baseConsumption = 150;
-        double tempAdjustment = temperature > 25 ? (temperature - 25) * 8 : 0;
-        double consumption = baseConsumption + tempAdjustment + (Math.random() * 30 - 15);
-        
-        data.put("timestamp", java.time.LocalDateTime.now().toString());
-        data.put("solarGeneration", Math.round(solarGeneration * 100.0) / 100.0);
-        data.put("windGeneration", Math.round(windGeneration * 100.0) / 100.0);
-        data.put("totalGeneration", Math.round(totalGeneration * 100.0) / 100.0);
-        data.put("consumption", Math.round(consumption * 100.0) / 100.0);
-        data.put("efficiency", Math.round((totalGeneration / Math.max(consumption, 1) * 100) * 100.0) / 100.0);
-        
-        return data;
+    private String[] serialize(RegionState state) throws IOException {
+        return new String[]{
+            toMessage("ENERGY_UPDATE", energyUpdate(state)),
+            toMessage("WEATHER_UPDATE", weatherUpdate(state))
+        };
     }
     
-    private Map<String, Object> generateWeatherUpdate() {
-        return generateWeatherData();
+    // The decorator serializes concurrent senders; one over its limits is closed and dropped here
+    private void send(WebSocketSession session, String[] payloads) {
+        try {
+            for (String payload : payloads) {
+                session.sendMessage(new TextMessage(payload));
+            }
+        } catch (Exception e) {
+            log.warn("Dropping websocket session {}: {}", session.getId(), e.getMessage());
+            sessions.remove(session.getId());
+        }
     }
     
-    private Map<String, Object> generateWeatherData() {
-        Map<String, Object> data = new ConcurrentHashMap<>();
-        int hour = java.time.LocalDateTime.now().getHour();
-        
-        // Realistic daily patterns
-        double temperature = 20 + Math.sin((hour - 6) * Math.PI / 12) * 8 + (Math.random() * 4 - 2);
-        double windSpeed = 5 + Math.random() * 10;
-        double solarIrradiance = Math.max(0, 800 * Math.sin((hour - 6) * Math.PI / 12) + (Math.random() * 200 - 100));
-        double cloudCover = 20 + Math.random() * 60;
-        
-        data.put("timestamp", java.time.LocalDateTime.now().toString());
-        data.put("temperature", Math.round(temperature * 100.0) / 100.0);
-        data.put("windSpeed", Math.round(windSpeed * 100.0) / 100.0);
-        data.put("solarIrradiance", Math.round(solarIrradiance * 100.0) / 100.0);
-        data.put("cloudCover", Math.round(cloudCover * 100.0) / 100.0);
-        
+    private static String regionOf(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return DEFAULT_REGION;
+        }
+        String region = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("region");
+        return region == null || region.isBlank() ? DEFAULT_REGION : region;
+    }
+    
+    private static Map<String, Object> energyUpdate(RegionState state) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("region", state.region());
+        data.put("timestamp", state.timestamp().toString());
+        data.put("solarGeneration", round(state.solarGeneration()));
+        data.put("windGeneration", round(state.windGeneration()));
+        data.put("totalGeneration", round(state.totalGeneration()));
+        data.put("consumption", round(state.consumption()));
+        data.put("efficiency", state.efficiency());
+        return data;
+    }
+    
+    private static Map<String, Object> weatherUpdate(RegionState state) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("region", state.region());
+        data.put("timestamp", state.timestamp().toString());
+        data.put("temperature", round(state.temperature()));
+        data.put("windSpeed", round(state.windSpeed()));
+        data.put("solarIrradiance", round(state.solarIrradiance()));
+        data.put("cloudCover", round(state.cloudCover()));
         return data;
     }
     
-    private void sendMessage(WebSocketSession session, String type, Object payload) throws IOException {
-        Map<String, Object> message = new ConcurrentHashMap<>();
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+    
+    private String toMessage(String type, Object payload) throws IOException {
+        Map<String, Object> message = new HashMap<>();
         message.put("type", type);
         message.put("payload", payload);
         message.put("timestamp", System.currentTimeMillis());
         
-        String jsonMessage = objectMapper.writeValueAsString(message);
-        session.sendMessage(new TextMessage(jsonMessage));
+        return objectMapper.writeValueAsString(message);
     }
-}
\ No newline at end of file
+}
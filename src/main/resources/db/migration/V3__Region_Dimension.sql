@@ -0,0 +1,35 @@
+-- Region dimension: time-series rows reference regions by a compact integer id.
+-- Like V1 and V2 this is a reference script for PostgreSQL/TimescaleDB deployments and is not run by the
+-- application, which relies on Hibernate's ddl-auto. Space partitioning on region_id is added in V4.
+CREATE TABLE IF NOT EXISTS regions (
+    id SERIAL PRIMARY KEY,
+    code VARCHAR(50) NOT NULL UNIQUE
+);
+
+INSERT INTO regions (code)
+SELECT DISTINCT region FROM historical_weather_data
+UNION
+SELECT DISTINCT region FROM energy_data
+ON CONFLICT (code) DO NOTHING;
+
+ALTER TABLE historical_weather_data ADD COLUMN IF NOT EXISTS region_id INTEGER REFERENCES regions(id);
+ALTER TABLE energy_data ADD COLUMN IF NOT EXISTS region_id INTEGER REFERENCES regions(id);
+
+UPDATE historical_weather_data h SET region_id = r.id FROM regions r WHERE h.region = r.code AND h.region_id IS NULL;
+UPDATE energy_data e SET region_id = r.id FROM regions r WHERE e.region = r.code AND e.region_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_historical_weather_region_id_time
+ON historical_weather_data (region_id, timestamp DESC);
+
+CREATE INDEX IF NOT EXISTS idx_energy_data_region_id_time
+ON energy_data (region_id, timestamp DESC);
+
+-- The free-text indexes are superseded by the region_id ones
+DROP INDEX IF EXISTS idx_historical_weather_region_time;
+DROP INDEX IF EXISTS idx_energy_data_region_time;
+DROP INDEX IF EXISTS idx_energy_data_region_timestamp;
+
+-- Segment compressed chunks by region id instead of the region string
+ALTER TABLE historical_weather_data SET (timescaledb.compress_segmentby = 'region_id');
+ALTER TABLE energy_data SET (timescaledb.compress_segmentby = 'region_id');
+
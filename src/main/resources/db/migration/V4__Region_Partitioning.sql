@@ -0,0 +1,24 @@
+-- Region space partitioning and region-keyed rollups.
+-- Like V1-V3 this is a reference script for PostgreSQL/TimescaleDB deployments and is not run by the
+-- application, which relies on Hibernate's ddl-auto.
+
+-- Hash-partition the hypertables from V2 on region_id, so each chunk holds the rows of a subset of regions.
+-- TimescaleDB only adds a dimension to an empty hypertable: on a populated deployment, create the table,
+-- run these, then copy the rows back in.
+SELECT add_dimension('historical_weather_data', 'region_id', number_partitions => 4, if_not_exists => TRUE);
+SELECT add_dimension('energy_data', 'region_id', number_partitions => 4, if_not_exists => TRUE);
+
+-- metric_rollups is keyed by region_id instead of the region code. Rollups are derived data, so buckets
+-- whose code has no region row are dropped rather than kept under a made-up id.
+ALTER TABLE metric_rollups ADD COLUMN IF NOT EXISTS region_id INTEGER REFERENCES regions(id);
+
+UPDATE metric_rollups m SET region_id = r.id FROM regions r WHERE m.region = r.code AND m.region_id IS NULL;
+DELETE FROM metric_rollups WHERE region_id IS NULL;
+
+ALTER TABLE metric_rollups ALTER COLUMN region_id SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_metric_rollups_bucket;
+ALTER TABLE metric_rollups DROP COLUMN IF EXISTS region;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_metric_rollups_region_bucket
+ON metric_rollups (source, region_id, resolution, metric, bucket_start);
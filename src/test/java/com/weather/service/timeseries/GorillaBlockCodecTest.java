@@ -0,0 +1,118 @@
+package com.weather.service.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GorillaBlockCodecTest {
+
+    // Each side of every delta-of-delta bucket boundary, then values that need the full 64 bits
+    private static final long[] DELTA_OF_DELTAS = {
+        0, 1, -1, -63, 64, -64, 65,
+        -255, 256, -256, 257,
+        -2047, 2048, -2048, 2049,
+        86_400_000L, -86_400_000L, 1L << 40, -(1L << 40), 0, 0
+    };
+
+    @Test
+    void roundTripsDeltaOfDeltasAtEveryBucketBoundary() {
+        int count = DELTA_OF_DELTAS.length + 1;
+        long[] timestamps = new long[count];
+        timestamps[0] = 1_700_000_000_000L;
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            delta += DELTA_OF_DELTAS[i - 1];
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+        double[][] columns = {new double[count]};
+
+        long[] decoded = new long[count];
+        roundTrip(timestamps, columns, count, decoded, new double[1][count]);
+
+        assertArrayEquals(timestamps, decoded);
+    }
+
+    @Test
+    void roundTripsValuesBitForBit() {
+        double[] special = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, Double.MAX_VALUE, 1.0, 1.0, 1.0, 21.5, 21.75, 1e-300, -42.125};
+        SplittableRandom random = new SplittableRandom(42);
+        int count = special.length + 200;
+        long[] timestamps = new long[count];
+        double[][] columns = new double[3][count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = 1_700_000_000_000L + i * 3_600_000L;
+            columns[0][i] = i < special.length ? special[i] : random.nextDouble() * 1000 - 500;
+            columns[1][i] = Math.round(20 + 5 * Math.sin(i / 10.0)) / 4.0;
+            columns[2][i] = i % 5 == 0 ? Double.NaN : i;
+        }
+
+        double[][] decoded = new double[3][count];
+        roundTrip(timestamps, columns, count, new long[count], decoded);
+
+        for (int m = 0; m < columns.length; m++) {
+            for (int i = 0; i < count; i++) {
+                assertEquals(Double.doubleToRawLongBits(columns[m][i]), Double.doubleToRawLongBits(decoded[m][i]),
+                    "metric " + m + " sample " + i);
+            }
+        }
+    }
+
+    @Test
+    void encodesOnlyTheFirstCountSamples() {
+        long[] timestamps = {10, 20, 30, 99, 98};
+        double[][] columns = {{1.5, 2.5, 3.5, 9.0, 9.0}};
+
+        long[] decodedTimestamps = new long[5];
+        double[][] decoded = new double[1][5];
+        roundTrip(timestamps, columns, 3, decodedTimestamps, decoded);
+
+        assertArrayEquals(new long[]{10, 20, 30, 0, 0}, decodedTimestamps);
+        assertArrayEquals(new double[]{1.5, 2.5, 3.5, 0, 0}, decoded[0]);
+    }
+
+    @Test
+    void roundTripsASingleSample() {
+        long[] decoded = new long[1];
+        double[][] values = new double[1][1];
+        roundTrip(new long[]{-5}, new double[][]{{Double.NaN}}, 1, decoded, values);
+
+        assertEquals(-5, decoded[0]);
+        assertEquals(Double.doubleToRawLongBits(Double.NaN), Double.doubleToRawLongBits(values[0][0]));
+    }
+
+    @Test
+    void bitStreamsRoundTripEveryWidth() {
+        BitWriter writer = new BitWriter(0);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] values = new long[64];
+        for (int bits = 1; bits <= 64; bits++) {
+            long value = random.nextLong();
+            values[bits - 1] = bits == 64 ? value : value & ((1L << bits) - 1);
+            writer.writeBits(value, bits);
+        }
+        writer.writeBit(true);
+
+        BitReader reader = new BitReader(ByteBuffer.wrap(writer.buffer(), 0, writer.byteLength()), 0);
+        for (int bits = 1; bits <= 64; bits++) {
+            assertEquals(values[bits - 1], reader.readBits(bits), "width " + bits);
+        }
+        assertTrue(reader.readBit());
+    }
+
+    private static void roundTrip(long[] timestamps, double[][] columns, int count,
+                                  long[] decodedTimestamps, double[][] decodedColumns) {
+        BitWriter writer = new BitWriter(64);
+        // The reader must honour its offset, so the block does not start at byte 0
+        writer.writeBits(0xAB, 8);
+        GorillaBlockCodec.encode(timestamps, columns, count, writer);
+
+        GorillaBlockCodec.decode(new BitReader(ByteBuffer.wrap(writer.buffer()), 1), count, decodedTimestamps,
+            decodedColumns);
+    }
+}
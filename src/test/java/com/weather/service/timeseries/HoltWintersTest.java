@@ -0,0 +1,123 @@
+package com.weather.service.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoltWintersTest {
+
+    // Some Monday midnight, in epoch hours
+    private static final long FIRST_HOUR = 473_352;
+
+    @Test
+    void forecastsANoiseFreeDoubleSeasonalSeries() {
+        double[] y = series(4 * HoltWinters.WEEK, 0, null);
+        HoltWinters model = HoltWinters.fit(FIRST_HOUR, y);
+
+        assertNotNull(model);
+        assertEquals(FIRST_HOUR + y.length - 1, model.lastHour());
+        double[] forecast = new double[HoltWinters.WEEK];
+        model.forecast(FIRST_HOUR + y.length, forecast);
+        for (int i = 0; i < forecast.length; i++) {
+            double expected = demand(y.length + i);
+            assertEquals(expected, forecast[i], 0.02 * expected, "hour " + i);
+        }
+    }
+
+    @Test
+    void keepsForecastErrorNearTheNoiseLevel() {
+        double noise = 5.0;
+        SplittableRandom random = new SplittableRandom(11);
+        double[] y = series(6 * HoltWinters.WEEK, noise, random);
+        HoltWinters model = HoltWinters.fit(FIRST_HOUR, y);
+
+        double[] forecast = new double[HoltWinters.WEEK];
+        model.forecast(FIRST_HOUR + y.length, forecast);
+        double absoluteError = 0;
+        for (int i = 0; i < forecast.length; i++) {
+            absoluteError += Math.abs(forecast[i] - demand(y.length + i));
+        }
+        assertTrue(absoluteError / forecast.length < noise, "mean absolute error " + absoluteError / forecast.length);
+
+        double oneStep = model.forecastError(1);
+        assertTrue(oneStep > 0.5 * noise && oneStep < 2 * noise, "one-step error " + oneStep);
+        assertTrue(model.forecastError(48) >= oneStep);
+    }
+
+    @Test
+    void fitsAcrossMissingHours() {
+        double[] y = series(3 * HoltWinters.WEEK, 0, null);
+        for (int i = 100; i < y.length; i += 7) {
+            y[i] = Double.NaN;
+        }
+        HoltWinters model = HoltWinters.fit(FIRST_HOUR, y);
+
+        assertNotNull(model);
+        double[] forecast = new double[HoltWinters.DAY];
+        model.forecast(FIRST_HOUR + y.length, forecast);
+        for (int i = 0; i < forecast.length; i++) {
+            double expected = demand(y.length + i);
+            assertEquals(expected, forecast[i], 0.03 * expected, "hour " + i);
+        }
+    }
+
+    @Test
+    void needsTwoWeeksOfHistory() {
+        assertNull(HoltWinters.fit(FIRST_HOUR, series(2 * HoltWinters.WEEK - 1, 0, null)));
+
+        double[] sparse = new double[3 * HoltWinters.WEEK];
+        Arrays.fill(sparse, Double.NaN);
+        assertNull(HoltWinters.fit(FIRST_HOUR, sparse));
+    }
+
+    @Test
+    void ignoresUpdatesAtOrBeforeTheLastHour() {
+        double[] y = series(2 * HoltWinters.WEEK, 0, null);
+        HoltWinters model = HoltWinters.fit(FIRST_HOUR, y);
+        long lastHour = model.lastHour();
+        double[] before = new double[4];
+        model.forecast(lastHour + 1, before);
+
+        model.update(lastHour, 1e6);
+        model.update(lastHour + 1, Double.NaN);
+        double[] after = new double[4];
+        model.forecast(lastHour + 1, after);
+
+        assertEquals(lastHour, model.lastHour());
+        for (int i = 0; i < before.length; i++) {
+            assertEquals(before[i], after[i], 0.0);
+        }
+
+        model.update(lastHour + 1, demand(y.length));
+        assertEquals(lastHour + 1, model.lastHour());
+    }
+
+    // Demand with a daily peak and quieter weekends
+    private static double demand(int i) {
+        int hourOfDay = i % HoltWinters.DAY;
+        int dayOfWeek = (i / HoltWinters.DAY) % 7;
+        double daily = 40 * Math.sin(2 * Math.PI * (hourOfDay - 6) / HoltWinters.DAY);
+        double weekend = dayOfWeek >= 5 ? -30 : 0;
+        return 200 + daily + weekend;
+    }
+
+    private static double[] series(int hours, double noise, SplittableRandom random) {
+        double[] y = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            y[i] = demand(i) + (random == null ? 0 : noise * gaussian(random));
+        }
+        return y;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+}
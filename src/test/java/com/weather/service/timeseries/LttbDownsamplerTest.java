@@ -0,0 +1,108 @@
+package com.weather.service.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LttbDownsamplerTest {
+
+    private static final int SAMPLES = 1000;
+
+    @Test
+    void keepsTheEndpointsAndBoundsThePointCount() {
+        DownsampledSeries series = downsample(50, t -> new double[]{Math.sin(t / 20.0), t});
+
+        for (int m = 0; m < series.metrics(); m++) {
+            long[] timestamps = series.timestamps(m);
+            assertTrue(timestamps.length <= 50, "too many points: " + timestamps.length);
+            assertEquals(0, timestamps[0]);
+            assertEquals(SAMPLES - 1, timestamps[timestamps.length - 1]);
+            assertIncreasing(timestamps);
+        }
+        assertEquals(SAMPLES, series.inputPoints());
+    }
+
+    @Test
+    void keepsEverySampleWhenThereAreFewerThanTheLimit() {
+        LttbDownsampler downsampler = new LttbDownsampler(0, 10, 100, 1);
+        for (int t = 0; t < 10; t++) {
+            downsampler.add(t, new double[]{t * 2.0});
+        }
+        DownsampledSeries series = downsampler.finish();
+
+        assertArrayEquals(new long[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, series.timestamps(0));
+    }
+
+    @Test
+    void keepsASpike() {
+        DownsampledSeries series = downsample(20, t -> new double[]{t == 437 ? 100.0 : 1.0});
+
+        boolean found = false;
+        for (long timestamp : series.timestamps(0)) {
+            found |= timestamp == 437;
+        }
+        assertTrue(found, "spike was dropped");
+    }
+
+    @Test
+    void anchorsEachMetricOnItsFirstAndLastNonNanValue() {
+        // Metric 0 is missing at both ends, metric 1 is complete
+        DownsampledSeries series = downsample(40, t -> new double[]{
+            t < 5 || t >= SAMPLES - 5 ? Double.NaN : Math.cos(t / 15.0), t % 7});
+
+        long[] timestamps = series.timestamps(0);
+        double[] values = series.values(0);
+        assertEquals(5, timestamps[0]);
+        assertEquals(SAMPLES - 6, timestamps[timestamps.length - 1]);
+        assertEquals(Math.cos((SAMPLES - 6) / 15.0), values[values.length - 1], 1e-12);
+        assertIncreasing(timestamps);
+        for (double value : values) {
+            assertFalse(Double.isNaN(value));
+        }
+
+        long[] complete = series.timestamps(1);
+        assertEquals(0, complete[0]);
+        assertEquals(SAMPLES - 1, complete[complete.length - 1]);
+    }
+
+    @Test
+    void skipsNanGapsInsideTheSeries() {
+        DownsampledSeries series = downsample(30, t -> new double[]{t >= 300 && t < 700 ? Double.NaN : t});
+
+        double[] values = series.values(0);
+        for (double value : values) {
+            assertFalse(Double.isNaN(value));
+        }
+        assertIncreasing(series.timestamps(0));
+        assertEquals(SAMPLES - 1, series.timestamps(0)[values.length - 1]);
+    }
+
+    @Test
+    void emitsNothingForAMetricWithoutValues() {
+        DownsampledSeries series = downsample(20, t -> new double[]{Double.NaN, 1.0});
+
+        assertEquals(0, series.timestamps(0).length);
+        assertTrue(series.timestamps(1).length > 0);
+    }
+
+    private interface Generator {
+        double[] values(long timestamp);
+    }
+
+    private static DownsampledSeries downsample(int maxPoints, Generator generator) {
+        LttbDownsampler downsampler = new LttbDownsampler(0, SAMPLES, maxPoints, generator.values(0).length);
+        for (long t = 0; t < SAMPLES; t++) {
+            downsampler.add(t, generator.values(t));
+        }
+        return downsampler.finish();
+    }
+
+    private static void assertIncreasing(long[] timestamps) {
+        for (int i = 1; i < timestamps.length; i++) {
+            assertTrue(timestamps[i] > timestamps[i - 1], "timestamps out of order at " + i);
+        }
+    }
+}
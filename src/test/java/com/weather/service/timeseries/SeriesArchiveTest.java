@@ -0,0 +1,114 @@
+package com.weather.service.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SeriesArchiveTest {
+
+    private static final String[] KEYS = {"temperature", "humidity"};
+    private static final int BLOCK_SIZE = 64;
+    private static final int SAMPLES = 200;
+
+    @Test
+    void roundTripsEverySampleAcrossBlocks() throws IOException {
+        long[] timestamps = timestamps();
+        double[][] rows = rows();
+        SeriesArchiveReader reader = new SeriesArchiveReader(write(timestamps, rows));
+
+        assertEquals("north-1", reader.getRegion());
+        assertArrayEquals(KEYS, reader.getMetricKeys());
+        assertEquals(4, reader.getBlocks().size());
+
+        List<Long> readTimestamps = new ArrayList<>();
+        List<double[]> readRows = new ArrayList<>();
+        long visited = reader.read(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, values) -> {
+            readTimestamps.add(timestamp);
+            readRows.add(values.clone());
+        });
+
+        assertEquals(SAMPLES, visited);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(timestamps[i], readTimestamps.get(i).longValue());
+            assertBitsEqual(rows[i], readRows.get(i));
+        }
+    }
+
+    @Test
+    void readsOnlyTheRequestedRange() throws IOException {
+        long[] timestamps = timestamps();
+        double[][] rows = rows();
+        SeriesArchiveReader reader = new SeriesArchiveReader(write(timestamps, rows));
+
+        int first = 70;
+        int last = 130;
+        List<Long> readTimestamps = new ArrayList<>();
+        long visited = reader.read(timestamps[first], timestamps[last], (timestamp, values) -> readTimestamps.add(timestamp));
+
+        assertEquals(last - first, visited);
+        assertEquals(timestamps[first], readTimestamps.get(0).longValue());
+        assertEquals(timestamps[last - 1], readTimestamps.get(readTimestamps.size() - 1).longValue());
+    }
+
+    @Test
+    void rejectsBuffersThatAreNotArchives() {
+        assertThrows(IllegalArgumentException.class, () -> new SeriesArchiveReader(ByteBuffer.allocate(32)));
+    }
+
+    private static ByteBuffer write(long[] timestamps, double[][] rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SeriesArchiveWriter writer = new SeriesArchiveWriter(out, "north-1", KEYS, BLOCK_SIZE);
+        for (int i = 0; i < timestamps.length; i++) {
+            writer.append(timestamps[i], rows[i]);
+        }
+        writer.finish();
+        assertEquals(timestamps.length, writer.getSampleCount());
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    // Hourly samples with the odd late or duplicated reading so every delta-of-delta bucket is used
+    private static long[] timestamps() {
+        long[] timestamps = new long[SAMPLES];
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < SAMPLES; i++) {
+            long step = 3_600_000L;
+            if (i % 17 == 0) {
+                step += 40;
+            } else if (i % 23 == 0) {
+                step += 200;
+            } else if (i % 29 == 0) {
+                step += 1_500;
+            } else if (i % 31 == 0) {
+                step = 0;
+            }
+            timestamp += step;
+            timestamps[i] = timestamp;
+        }
+        return timestamps;
+    }
+
+    private static double[][] rows() {
+        double[][] rows = new double[SAMPLES][];
+        for (int i = 0; i < SAMPLES; i++) {
+            double temperature = i % 13 == 0 ? Double.NaN : 12.5 + Math.sin(i / 6.0) * 4.0;
+            double humidity = i % 10 == 0 ? 60.0 : 55.0 + (i % 7);
+            rows[i] = new double[]{temperature, humidity};
+        }
+        return rows;
+    }
+
+    private static void assertBitsEqual(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int m = 0; m < expected.length; m++) {
+            assertEquals(Double.doubleToRawLongBits(expected[m]), Double.doubleToRawLongBits(actual[m]));
+        }
+    }
+}
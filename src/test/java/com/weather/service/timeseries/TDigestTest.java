@@ -0,0 +1,168 @@
+package com.weather.service.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void estimatesQuantilesWithinRankErrorBounds() {
+        for (double[] samples : new double[][]{uniform(1), exponential(2), bimodal(3)}) {
+            TDigest digest = new TDigest();
+            for (double sample : samples) {
+                digest.add(sample);
+            }
+            double[] sorted = samples.clone();
+            Arrays.sort(sorted);
+
+            for (double q : QUANTILES) {
+                double error = Math.abs(rank(sorted, digest.quantile(q)) - q);
+                // The arcsine scale keeps centroids small near the tails, so the bound tightens there
+                double bound = q < 0.01 || q > 0.99 ? 0.001 : 0.005;
+                assertTrue(error <= bound, "rank error " + error + " at q=" + q);
+            }
+        }
+    }
+
+    @Test
+    void pinsTheEndsToTheObservedRange() {
+        TDigest digest = new TDigest();
+        double[] samples = exponential(4);
+        for (double sample : samples) {
+            digest.add(sample);
+        }
+
+        assertEquals(Arrays.stream(samples).min().getAsDouble(), digest.quantile(0), 0.0);
+        assertEquals(Arrays.stream(samples).max().getAsDouble(), digest.quantile(1), 0.0);
+        assertEquals(SAMPLES, digest.count());
+        assertTrue(digest.centroidCount() <= 2 * TDigest.DEFAULT_COMPRESSION,
+            "too many centroids: " + digest.centroidCount());
+    }
+
+    @Test
+    void mergedDigestsMatchOneDigestOfAllSamples() {
+        double[] samples = bimodal(5);
+        TDigest whole = new TDigest();
+        TDigest[] parts = new TDigest[24];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new TDigest();
+        }
+        SplittableRandom assignment = new SplittableRandom(6);
+        for (double sample : samples) {
+            whole.add(sample);
+            parts[assignment.nextInt(parts.length)].add(sample);
+        }
+
+        TDigest merged = new TDigest();
+        for (TDigest part : parts) {
+            merged.merge(part);
+        }
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(whole.count(), merged.count());
+        assertEquals(whole.min(), merged.min(), 0.0);
+        assertEquals(whole.max(), merged.max(), 0.0);
+        for (double q : QUANTILES) {
+            double wholeRank = rank(sorted, whole.quantile(q));
+            double mergedRank = rank(sorted, merged.quantile(q));
+            assertTrue(Math.abs(wholeRank - mergedRank) <= 0.005,
+                "merged rank " + mergedRank + " against " + wholeRank + " at q=" + q);
+        }
+    }
+
+    @Test
+    void survivesSerialization() {
+        TDigest digest = new TDigest();
+        for (double sample : uniform(7)) {
+            digest.add(sample);
+        }
+
+        TDigest restored = TDigest.fromBytes(digest.toBytes());
+
+        assertEquals(digest.count(), restored.count());
+        assertEquals(digest.centroidCount(), restored.centroidCount());
+        for (double q : QUANTILES) {
+            assertEquals(digest.quantile(q), restored.quantile(q), 0.0);
+        }
+    }
+
+    @Test
+    void ignoresNanAndAnswersNanWhenEmpty() {
+        TDigest digest = new TDigest();
+        digest.add(Double.NaN);
+
+        assertEquals(0, digest.count());
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+
+        digest.add(3.0);
+        assertEquals(3.0, digest.quantile(0.5), 0.0);
+    }
+
+    @Test
+    void rejectsQuantilesOutsideTheUnitInterval() {
+        TDigest digest = new TDigest();
+        digest.add(1.0);
+
+        assertThrows(IllegalArgumentException.class, () -> digest.quantile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> digest.quantile(1.1));
+    }
+
+    // Fraction of the sorted samples below value, counting ties as half
+    private static double rank(double[] sorted, double value) {
+        int below = lowerBound(sorted, value);
+        int upTo = lowerBound(sorted, Math.nextUp(value));
+        return (below + (upTo - below) / 2.0) / sorted.length;
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] uniform(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = random.nextDouble() * 100;
+        }
+        return samples;
+    }
+
+    private static double[] exponential(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = -Math.log(1 - random.nextDouble()) * 10;
+        }
+        return samples;
+    }
+
+    // Two separated clusters, like solar generation by day and by night
+    private static double[] bimodal(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = random.nextBoolean() ? random.nextDouble() * 5 : 400 + random.nextDouble() * 200;
+        }
+        return samples;
+    }
+}